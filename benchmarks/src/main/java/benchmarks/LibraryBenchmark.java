@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import domain.core.MusicLibrary;
+import domain.core.Song;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Benchmarks of {@link MusicLibrary#add(Song)} and {@link MusicLibrary#remove()}. Each
+ * operation removes a song and adds it back, so the size of the library stays the same
+ * during the whole run. Removing from the middle and from the end are measured apart,
+ * since the first one moves half of the songs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LibraryBenchmark {
+
+	@Param({ "1000", "10000", "100000", "1000000" })
+	public int size;
+
+	private MusicLibrary library;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.library = SyntheticSongs.library(this.size);
+	}
+
+	@Benchmark
+	public Song removeAddLast() {
+		this.library.select(this.library.size() - 1);
+		Song song = this.library.getSelected();
+		this.library.remove();
+		this.library.add(song);
+		return song;
+	}
+
+	@Benchmark
+	public Song removeAddMiddle() {
+		this.library.select(this.library.size() / 2);
+		Song song = this.library.getSelected();
+		this.library.remove();
+		this.library.add(song);
+		return song;
+	}
+}
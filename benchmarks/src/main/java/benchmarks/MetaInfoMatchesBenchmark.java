@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import domain.core.SongMetaInfo;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Benchmark of {@link SongMetaInfo#matches(Pattern)} over the meta information of all the
+ * generated songs. Run with {@code -prof gc} to see the memory allocated by each operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetaInfoMatchesBenchmark {
+
+	@Param({ "1000", "10000", "100000", "1000000" })
+	public int size;
+
+	@Param({ "Saudade", "^Night.*", "Artist 1[0-9]*" })
+	public String regexp;
+
+	private List<SongMetaInfo> infos;
+	private Pattern pattern;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.infos = SyntheticSongs.metaInfos(this.size);
+		this.pattern = Pattern.compile(this.regexp);
+	}
+
+	@Benchmark
+	public int matches() {
+		int count = 0;
+		for (SongMetaInfo info : this.infos)
+			if (info.matches(this.pattern))
+				count++;
+		return count;
+	}
+
+}
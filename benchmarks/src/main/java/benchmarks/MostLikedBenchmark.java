@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import domain.core.MusicLibrary;
+import domain.playlists.MostLikedSongsPlaylist;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Benchmark of the update of a {@link MostLikedSongsPlaylist} registered in the library
+ * when songs are rated. Each operation raises or lowers the rate of a random song, so the
+ * ranking keeps changing, and includes the delivery of the event to the playlist.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MostLikedBenchmark {
+
+	@Param({ "1000", "10000", "100000", "1000000" })
+	public int size;
+
+	private MusicLibrary library;
+	private MostLikedSongsPlaylist playlist;
+	private SplittableRandom random;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.library = SyntheticSongs.library(this.size);
+		this.playlist = new MostLikedSongsPlaylist(this.library, 50);
+		this.library.registerListener(this.playlist);
+		this.random = new SplittableRandom(this.size);
+	}
+
+	@Benchmark
+	public int rate() {
+		this.library.select(this.random.nextInt(this.size));
+		if (this.random.nextBoolean())
+			this.library.incRateSelected();
+		else
+			this.library.decRateSelected();
+		return this.playlist.size();
+	}
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import domain.core.MusicLibrary;
+import domain.core.Song;
+import domain.playlists.AbsPlaylist;
+import domain.playlists.ManualPlaylist;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Benchmark of the fan-out of a song removed from the library to the playlists, through
+ * {@link AbsPlaylist#processEvent}. Every playlist has all the songs of the library; each
+ * operation removes the song in the middle of the library and adds it back to the library
+ * and to the end of every playlist.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlaylistRemovalBenchmark {
+
+	@Param({ "1000", "10000", "100000", "1000000" })
+	public int size;
+
+	@Param({ "1", "8" })
+	public int playlists;
+
+	private MusicLibrary library;
+	private List<ManualPlaylist> manualPlaylists;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.library = SyntheticSongs.library(this.size);
+		this.manualPlaylists = new ArrayList<>(this.playlists);
+		for (int i = 0; i < this.playlists; i++) {
+			ManualPlaylist playlist = new ManualPlaylist("Playlist " + i, this.library);
+			for (Song song : this.library)
+				playlist.add(song);
+			this.library.registerListener(playlist);
+			this.manualPlaylists.add(playlist);
+		}
+	}
+
+	@Benchmark
+	public Song removeFromLibrary() {
+		this.library.select(this.size / 2);
+		Song song = this.library.getSelected();
+		this.library.remove();
+		this.library.add(song);
+		for (ManualPlaylist playlist : this.manualPlaylists)
+			playlist.add(song);
+		return song;
+	}
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import domain.core.MusicLibrary;
+import domain.facade.ISong;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Benchmarks of {@link MusicLibrary#getMatches(String)} with regular expressions of
+ * different shapes: a literal word, answered by the index, an anchored prefix, an
+ * alternation of words and a character class with no literal text, which has to look
+ * at every song. Each one runs with and without the parallel search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+	@Param({ "1000", "10000", "100000", "1000000" })
+	public int size;
+
+	@Param({ "Saudade", "^Night.*", "Fado|Blues", ".*[0-9]{3}7" })
+	public String regexp;
+
+	@Param({ "true", "false" })
+	public boolean parallel;
+
+	private MusicLibrary library;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.library = SyntheticSongs.library(this.size);
+		if (!this.parallel)
+			this.library.setParallelSearchThreshold(Integer.MAX_VALUE);
+	}
+
+	@Benchmark
+	public Iterable<ISong> getMatches() {
+		return this.library.getMatches(this.regexp);
+	}
+}
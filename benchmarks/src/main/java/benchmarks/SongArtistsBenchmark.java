@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import domain.core.Song;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Benchmarks of the access to the artists of a {@link Song}, by position and through the
+ * list, over all the generated songs. Run with {@code -prof gc} to check that the access
+ * by position allocates nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SongArtistsBenchmark {
+
+	@Param({ "1000", "10000", "100000", "1000000" })
+	public int size;
+
+	private List<Song> songs;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.songs = SyntheticSongs.songs(this.size);
+	}
+
+	@Benchmark
+	public void artistByPosition(Blackhole blackhole) {
+		for (Song song : this.songs)
+			for (int i = 0; i < song.artistCount(); i++)
+				blackhole.consume(song.artist(i));
+	}
+
+	@Benchmark
+	public void artistList(Blackhole blackhole) {
+		for (Song song : this.songs)
+			for (String artist : song.getArtists())
+				blackhole.consume(artist);
+	}
+}
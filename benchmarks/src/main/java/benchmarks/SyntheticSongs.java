@@ -0,0 +1,83 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import domain.core.MusicLibrary;
+import domain.core.Song;
+import domain.core.SongMetaInfo;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class {@link SyntheticSongs} that generates deterministic {@link SongMetaInfo} and
+ * {@link Song} for the benchmarks. The number of distinct genres, artists and albums
+ * grows with the number of songs, close to the proportions of a real music collection.
+ */
+final class SyntheticSongs {
+
+	private static final String[] GENRES = { "Fado", "Pop", "Rock", "Jazz", "Blues", "Classical",
+			"Hip Hop", "Electronic", "Folk", "Metal", "Reggae", "Soul" };
+
+	private static final String[] WORDS = { "Lisboa", "Saudade", "Night", "Love", "River", "Light",
+			"Mar", "Rain", "Fire", "Heart", "Road", "Dream", "Sol", "Blue", "Home", "Silence" };
+
+	private static final long SEED = 58180_58188L;
+
+	private SyntheticSongs() {
+	}
+
+	/**
+	 * Returns the meta information of the given number of songs, always the same for
+	 * the same number.
+	 *
+	 * @param count	the number of songs.
+	 * @requires 	{@code count >= 0}
+	 * @return 		the list of the generated meta information.
+	 */
+	static List<SongMetaInfo> metaInfos(int count) {
+		SplittableRandom random = new SplittableRandom(SEED);
+		int artists = Math.max(10, count / 20);
+		int albums = Math.max(10, count / 10);
+		List<SongMetaInfo> infos = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+			String genre = GENRES[random.nextInt(GENRES.length)];
+			List<String> names = random.nextInt(4) == 0
+					? List.of("Artist " + random.nextInt(artists), "Artist " + random.nextInt(artists))
+					: List.of("Artist " + random.nextInt(artists));
+			infos.add(new SongMetaInfo(title, genre, names, "Album " + random.nextInt(albums)));
+		}
+		return infos;
+	}
+
+	/**
+	 * Returns the given number of new songs, without ids.
+	 *
+	 * @param count	the number of songs.
+	 * @requires 	{@code count >= 0}
+	 * @return 		the list of the generated songs.
+	 */
+	static List<Song> songs(int count) {
+		List<Song> songs = new ArrayList<>(count);
+		int i = 0;
+		for (SongMetaInfo info : metaInfos(count))
+			songs.add(new Song(info, "music/song" + i++ + ".mp3"));
+		return songs;
+	}
+
+	/**
+	 * Returns a new library with the given number of songs.
+	 *
+	 * @param count	the number of songs.
+	 * @requires 	{@code count >= 0}
+	 * @return 		the library.
+	 */
+	static MusicLibrary library(int count) {
+		MusicLibrary library = new MusicLibrary();
+		library.addAll(songs(count));
+		return library;
+	}
+}
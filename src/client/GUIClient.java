@@ -1,5 +1,9 @@
 package client;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
 import domain.facade.LEITunes;
 import ui.UI;
 
@@ -8,14 +12,37 @@ import ui.UI;
  * Class responsible for starting up the system (GUI version)
  */
 public class GUIClient {
-	
+
+	/**
+	 * The directory where the library is kept when none is given
+	 */
+	private static final Path DEFAULT_STORE_DIRECTORY = Path.of(System.getProperty("user.home"), ".leitunes");
+
 	/**
-	 * The method for the start up of the system 
+	 * The method for the start up of the system. The library and the playlists are
+	 * loaded from, and saved to, the directory given as the first argument, or
+	 * {@code ~/.leitunes} if there is none.
 	 */
-	public static void main (String [] args) {
-		LEITunes leiTunes = new LEITunes ();
+	public static void main (String [] args) throws IOException {
+		Path storeDirectory = args.length > 0 ? Path.of(args[0]) : DEFAULT_STORE_DIRECTORY;
+		LEITunes leiTunes = new LEITunes (storeDirectory);
+		// a UI termina com System.exit, por isso o store e fechado ao sair
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				leiTunes.close();
+			} catch (IOException e) {
+				Logger.getLogger("LEITunes").severe(() -> "Could not save the library: " + e);
+			}
+		}, "LEITunes-save"));
+		// as alteracoes sao gravadas a cada poucos segundos, e nao so ao sair
 		UI ui = new UI (leiTunes.getPlaylistController(), 
-						leiTunes.getMusicLibraryController());
+						leiTunes.getMusicLibraryController(), () -> {
+			try {
+				leiTunes.commit();
+			} catch (IOException e) {
+				Logger.getLogger("LEITunes").severe(() -> "Could not save the library: " + e);
+			}
+		});
 		ui.run ();
 	}
 }
@@ -22,6 +22,7 @@ public class SimpleClient {
 
 	public static void main (String [] args) throws InterruptedException {
 		
+		// sem persistencia: este exemplo parte sempre de uma biblioteca vazia
 		LEITunes tunes = new  LEITunes();
 		
 		PlaylistListController plc = tunes.getPlaylistController();
@@ -34,10 +35,10 @@ public class SimpleClient {
 		createPlaylist("Relax", plc); 
 		//showState(plc, slc);
 		
-		addToPlaylist(2, Arrays.asList(0,2,5,7), plc, slc); 
+		addToPlaylist(3, Arrays.asList(0,2,5,7), plc, slc); 
 		//showState(plc, slc);
 		
-		addToPlaylist(3, Arrays.asList(9,2,8), plc, slc); 
+		addToPlaylist(4, Arrays.asList(9,2,8), plc, slc); 
 		showState(plc, slc);
 		
 		search(".*VO.*", slc);
@@ -48,7 +49,7 @@ public class SimpleClient {
 		playingSomeSongsFromLibrary(slc);
 		showState(plc, slc);
 		
-		playingSomeSongsInPlaylist(3, plc);
+		playingSomeSongsInPlaylist(4, plc);
 		showState(plc, slc);	
 		
 	}
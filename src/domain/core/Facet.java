@@ -0,0 +1,13 @@
+package domain.core;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Enum {@link Facet} used to represent the fields of the metainfo by which the songs
+ * of a {@link MusicLibrary} can be browsed.
+ */
+public enum Facet {
+
+	GENRE, ARTIST, ALBUM;
+}
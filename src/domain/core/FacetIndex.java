@@ -0,0 +1,190 @@
+package domain.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import util.observer.Listener;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class {@link FacetIndex} that implements {@link Listener}, used to keep the songs of a
+ * {@link MusicLibrary} by genre, by artist and by album (value -> songs), in sync through
+ * the {@link SongAddedLibraryEvent}, {@link SongBatchAddedLibraryEvent} and
+ * {@link SongRemovedLibraryEvent} emitted by the library.
+ *
+ * The songs of each value are kept as their ids in a sorted array, which takes four bytes
+ * per song and value, and is read in O(result) to answer a query. Adding a song takes
+ * O(log n), since the new ids are the greatest ones.
+ */
+class FacetIndex implements Listener<SongLibraryEvent> {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The ids of the songs with a value, sorted.
+	 */
+	private static final class Ids {
+		private int[] ids = new int[2];
+		private int size = 0;
+
+		private void add(int id) {
+			// os ids novos sao quase sempre maiores que os outros
+			int position = this.size == 0 || this.ids[this.size - 1] < id
+					? -this.size - 1 : Arrays.binarySearch(this.ids, 0, this.size, id);
+			if (position >= 0)
+				return;
+			int insertAt = -position - 1;
+			if (this.size == this.ids.length)
+				this.ids = Arrays.copyOf(this.ids, 2 * this.size);
+			System.arraycopy(this.ids, insertAt, this.ids, insertAt + 1, this.size - insertAt);
+			this.ids[insertAt] = id;
+			this.size++;
+		}
+
+		private void remove(int id) {
+			int position = Arrays.binarySearch(this.ids, 0, this.size, id);
+			if (position >= 0) {
+				System.arraycopy(this.ids, position + 1, this.ids, position, this.size - position - 1);
+				this.size--;
+			}
+		}
+	}
+
+	private final Map<Facet, NavigableMap<String, Ids>> facets = new EnumMap<>(Facet.class);
+	// the indexed songs by id
+	private Song[] songs = new Song[INITIAL_CAPACITY];
+
+	/**
+	 * Constructor that creates an empty {@link FacetIndex}.
+	 */
+	FacetIndex() {
+		for (Facet facet : Facet.values())
+			this.facets.put(facet, new TreeMap<>());
+	}
+
+	@Override
+	public void processEvent(SongLibraryEvent e) {
+		if (e instanceof SongAddedLibraryEvent)
+			add(e.getSong());
+		else if (e instanceof SongBatchAddedLibraryEvent batchEvent)
+			batchEvent.getSongs().forEach(this::add);
+		else if (e instanceof SongRemovedLibraryEvent)
+			remove(e.getSong());
+	}
+
+	/**
+	 * Adds the genre, the artists and the album of the given {@link Song} to this index.
+	 *
+	 * @param song 	the song to index.
+	 * @requires 	{@code song != null && song.getId() != Song.NO_ID}
+	 */
+	void add(Song song) {
+		int id = song.getId();
+		if (id >= this.songs.length)
+			this.songs = Arrays.copyOf(this.songs, Math.max(id + 1, 2 * this.songs.length));
+		if (this.songs[id] != null)
+			return;
+		this.songs[id] = song;
+		update(song, true);
+	}
+
+	/**
+	 * Removes the given {@link Song} from this index.
+	 *
+	 * @param song 	the song to remove from the index.
+	 * @requires 	{@code song != null}
+	 */
+	void remove(Song song) {
+		int id = song.getId();
+		if (id < 0 || id >= this.songs.length || this.songs[id] != song)
+			return;
+		this.songs[id] = null;
+		update(song, false);
+	}
+
+	/**
+	 * Returns the values of the given facet, sorted, with the number of songs of each one.
+	 *
+	 * @param facet	the facet.
+	 * @requires 	{@code facet != null}
+	 * @ensures 	{@code \result != null}
+	 * @return 		an unmodifiable map from each value to its number of songs.
+	 */
+	Map<String, Integer> counts(Facet facet) {
+		NavigableMap<String, Ids> values = this.facets.get(facet);
+		Map<String, Integer> result = new LinkedHashMap<>(2 * values.size());
+		for (Map.Entry<String, Ids> entry : values.entrySet())
+			result.put(entry.getKey(), entry.getValue().size);
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * Returns the number of songs with the given value of the given facet.
+	 *
+	 * @param facet	the facet.
+	 * @param value	the value.
+	 * @requires 	{@code facet != null && value != null}
+	 * @ensures 	{@code \result >= 0}
+	 * @return 		the number of songs with the value.
+	 */
+	int count(Facet facet, String value) {
+		Ids ids = this.facets.get(facet).get(value);
+		return ids == null ? 0 : ids.size;
+	}
+
+	/**
+	 * Returns the songs with the given value of the given facet, by the order of their ids.
+	 *
+	 * @param facet	the facet.
+	 * @param value	the value.
+	 * @requires 	{@code facet != null && value != null}
+	 * @ensures 	{@code \result != null}
+	 * @return 		the songs with the value.
+	 */
+	List<Song> songs(Facet facet, String value) {
+		Ids ids = this.facets.get(facet).get(value);
+		if (ids == null)
+			return List.of();
+		List<Song> result = new ArrayList<>(ids.size);
+		for (int i = 0; i < ids.size; i++)
+			result.add(this.songs[ids.ids[i]]);
+		return result;
+	}
+
+	/**
+	 * Auxiliary method that adds (or removes) the id of the given song to the ids of its
+	 * genre, its artists and its album.
+	 */
+	private void update(Song song, boolean add) {
+		int id = song.getId();
+		update(Facet.GENRE, song.getGenre(), id, add);
+		update(Facet.ALBUM, song.getAlbum(), id, add);
+		for (int i = 0; i < song.artistCount(); i++)
+			update(Facet.ARTIST, song.artist(i), id, add);
+	}
+
+	private void update(Facet facet, String value, int id, boolean add) {
+		if (value == null || value.isBlank())
+			return;
+		NavigableMap<String, Ids> values = this.facets.get(facet);
+		if (add)
+			values.computeIfAbsent(value, v -> new Ids()).add(id);
+		else {
+			Ids ids = values.get(value);
+			if (ids != null) {
+				ids.remove(id);
+				if (ids.size == 0)
+					values.remove(value);
+			}
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package domain.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Enum {@link MetaInfoDictionary} used as a singleton dictionary of the genres, albums and
+ * artists names of the songs. Each distinct name is stored once and gets a small int
+ * code, and each distinct list of artists is also stored once, so every
+ * {@link SongMetaInfo} with the same genre, album or artists refers to the same objects.
+ *
+ * Names are never removed from the dictionary. This class is thread-safe.
+ */
+public enum MetaInfoDictionary {
+
+	INSTANCE;
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+	private final Map<List<String>, List<String>> artistLists = new ConcurrentHashMap<>();
+	// o array e substituido quando cresce, por isso e volatile
+	private volatile String[] names = new String[INITIAL_CAPACITY];
+	private int size = 0;
+
+	/**
+	 * Returns the code of the given name, adding the name to the dictionary if needed.
+	 *
+	 * @param name	the name.
+	 * @requires 	{@code name != null}
+	 * @ensures 	{@code \result >= 0 && name(\result).equals(name)}
+	 * @return 		the code of the name.
+	 */
+	public int code(String name) {
+		Integer code = this.codes.get(name);
+		if (code != null)
+			return code;
+		synchronized (this) {
+			code = this.codes.get(name);
+			if (code != null)
+				return code;
+			String[] current = this.names;
+			if (this.size == current.length)
+				current = Arrays.copyOf(current, 2 * current.length);
+			current[this.size] = name;
+			this.names = current;
+			code = this.size++;
+			// o nome e publicado no array antes do codigo ficar visivel no mapa
+			this.codes.put(name, code);
+			return code;
+		}
+	}
+
+	/**
+	 * Returns the name with the given code.
+	 *
+	 * @param code	the code of the name.
+	 * @requires 	{@code 0 <= code < size()}
+	 * @return 		the name with the given code.
+	 */
+	public String name(int code) {
+		return this.names[code];
+	}
+
+	/**
+	 * Returns the instance of the given name kept by the dictionary, adding it if needed.
+	 *
+	 * @param name	the name.
+	 * @requires 	{@code name != null}
+	 * @ensures 	{@code \result.equals(name)}
+	 * @return 		the shared instance of the name.
+	 */
+	public String canonical(String name) {
+		return name(code(name));
+	}
+
+	/**
+	 * Returns the immutable list of artists kept by the dictionary that is equal to the
+	 * given list, adding it if needed. The names in the list are also shared.
+	 *
+	 * @param artists	the list of artists names.
+	 * @requires 		{@code artists != null && every name in artists != null}
+	 * @ensures 		{@code \result.equals(artists)}
+	 * @return 			the shared, unmodifiable, list of artists.
+	 */
+	public List<String> canonical(List<String> artists) {
+		List<String> shared = this.artistLists.get(artists);
+		if (shared != null)
+			return shared;
+		List<String> names = new ArrayList<>(artists.size());
+		for (String artist : artists)
+			names.add(canonical(artist));
+		List<String> immutable = List.copyOf(names);
+		shared = this.artistLists.putIfAbsent(immutable, immutable);
+		return shared != null ? shared : immutable;
+	}
+
+	/**
+	 * Returns the number of distinct names in the dictionary.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of distinct names.
+	 */
+	public synchronized int size() {
+		return this.size;
+	}
+}
@@ -2,14 +2,25 @@ package domain.core;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import domain.facade.ISong;
 import domain.player.Player;
 import domain.player.PlayerFactory;
 import util.adts.ArrayQListWithSelection;
+import util.adts.PatternCache;
 import util.adts.QListWithSelection;
+import util.metrics.Histogram;
+import util.metrics.Metrics;
+import util.metrics.Timer;
 import util.observer.AbsSubject;
 
 /**
@@ -26,8 +37,8 @@ public class MusicLibrary extends AbsSubject<SongLibraryEvent> implements QListW
 	 * @author 58180 Laura Cunha
 	 * 
 	 * Internal private class SongsIterator used to crate an {@link Iterator}
-	 * of ISong. This iterator is used to create an {@link Iterable} in
-	 * the method {@link MusicLibrary#getSongs()}
+	 * of ISong. This iterator is used to create the {@link Iterable} returned
+	 * by the method {@link MusicLibrary#getSongs()}
 	 */
 	private class SongsIterator implements Iterator<ISong> {
 		
@@ -44,9 +55,51 @@ public class MusicLibrary extends AbsSubject<SongLibraryEvent> implements QListW
 		}
 	}
 	
+	/**
+	 * @author 58180 Rodrigo Correia
+	 * @author 58180 Laura Cunha
+	 * 
+	 * Internal private class Songs used as the {@link Iterable} of ISong returned
+	 * by the method {@link MusicLibrary#getSongs()}, whose {@link Spliterator} is
+	 * sized and can be split by parallel streams.
+	 */
+	private class Songs implements Iterable<ISong> {
+
+		@Override
+		public Iterator<ISong> iterator() {
+			return new SongsIterator();
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Spliterator<ISong> spliterator() {
+			// seguro porque o spliterator so permite ler as musicas
+			return (Spliterator<ISong>) (Spliterator<? extends ISong>) MusicLibrary.this.spliterator();
+		}
+	}
+
+	// minimum number of songs for a search to run in parallel
+	private static final int DEFAULT_PARALLEL_THRESHOLD = 10_000;
+
+	private static final Timer REGEXP_SEARCH_TIME = Metrics.INSTANCE.timer("leitunes_search_seconds",
+			"Time taken by the searches of the library", "kind", "regexp");
+	private static final Timer TOKEN_SEARCH_TIME = Metrics.INSTANCE.timer("leitunes_search_seconds",
+			"Time taken by the searches of the library", "kind", "token");
+	private static final Histogram REGEXP_SEARCH_RESULTS = Metrics.INSTANCE.histogram("leitunes_search_results",
+			"Number of songs found by the searches of the library", "kind", "regexp");
+	private static final Histogram TOKEN_SEARCH_RESULTS = Metrics.INSTANCE.histogram("leitunes_search_results",
+			"Number of songs found by the searches of the library", "kind", "token");
+	
 	private final QListWithSelection<Song> songList = new ArrayQListWithSelection<>();
 	private final Player player = PlayerFactory.INSTANCE.getPlayer();
+	private final SongIndex index = new SongIndex();
+	private final FacetIndex facets = new FacetIndex();
 	private ISong playingSong = null;
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+	private volatile RateCoalescer rateCoalescer = null;
+	private int nextId = 0;
+	private final SongStatsStore stats = new SongStatsStore();
+	private final SongPositions positions = new SongPositions(this);
 	
 	/**
 	 * Constructor that creates a {@link MusicLibrary}
@@ -54,6 +107,107 @@ public class MusicLibrary extends AbsSubject<SongLibraryEvent> implements QListW
 	public MusicLibrary() {
 		this.player.addListener(this);
 	}
+
+	/**
+	 * Updates the search and facet indexes of this library and then emits the given event
+	 * to the listeners. The indexes are updated on the caller's thread, even if the events
+	 * are delivered asynchronously, so searches always see the current songs. The rate
+	 * changes waiting for their window to end are emitted before any other event.
+	 * 
+	 * @param e		the event that occurred.
+	 */
+	@Override
+	public void emitEvent(SongLibraryEvent e) {
+		RateCoalescer coalescer = this.rateCoalescer;
+		// as alteracoes de rate pendentes sao emitidas antes de adicionar ou remover musicas
+		if (coalescer != null && !(e instanceof SongRatedLibraryEvent))
+			coalescer.flushThenDeliver(e);
+		else
+			deliver(e);
+	}
+
+	/**
+	 * Auxiliary method that updates the indexes of this library with the given event and
+	 * emits it to the listeners, without looking at the pending rate changes.
+	 * 
+	 * @param e		the event that occurred.
+	 */
+	void deliver(SongLibraryEvent e) {
+		this.index.processEvent(e);
+		this.facets.processEvent(e);
+		super.emitEvent(e);
+	}
+
+	/**
+	 * Sets the window of time within which the rate changes of the same {@link Song} are
+	 * collapsed into a single {@link SongRatedLibraryEvent}, with the first old rate and
+	 * the last new rate. The collapsed events are emitted on the thread that changes this
+	 * library: on its first change after the window ends, or before the next song is added
+	 * or removed. With a window of 0, the default, every rate change is emitted immediately.
+	 * 
+	 * Nothing is emitted while this library is not changed, so after the last rate change
+	 * its listeners may not see it for an unbounded time, until {@link #flushRateChanges()}
+	 * is called. Interactive clients should use {@link #setRateCoalescingWindow(long, Executor)}
+	 * instead, with the executor of their thread.
+	 * 
+	 * @param windowMillis	the window of time, in milliseconds.
+	 * @requires 			{@code windowMillis >= 0}
+	 * @ensures 			{@code getRateCoalescingWindow() == windowMillis}
+	 */
+	public void setRateCoalescingWindow(long windowMillis) {
+		setRateCoalescingWindow(windowMillis, null);
+	}
+
+	/**
+	 * Sets the window of time within which the rate changes of the same {@link Song} are
+	 * collapsed, like {@link #setRateCoalescingWindow(long)}, but emits the collapsed events
+	 * as soon as the window ends through the given executor, which must run its tasks on
+	 * the thread that changes this library (for example, {@code display::asyncExec}).
+	 * 
+	 * @param windowMillis	the window of time, in milliseconds.
+	 * @param owner			the executor of the thread that changes this library, or null.
+	 * @requires 			{@code windowMillis >= 0}
+	 * @ensures 			{@code getRateCoalescingWindow() == windowMillis}
+	 */
+	public void setRateCoalescingWindow(long windowMillis, Executor owner) {
+		RateCoalescer old = this.rateCoalescer;
+		this.rateCoalescer = windowMillis > 0 ? new RateCoalescer(this, windowMillis, owner) : null;
+		if (old != null)
+			old.close();
+	}
+
+	/**
+	 * Returns the window of time within which the rate changes of the same {@link Song}
+	 * are collapsed.
+	 * 
+	 * @ensures 	{@code \result >= 0}
+	 * @return 		the window of time, in milliseconds, or 0 if rate changes are not collapsed.
+	 */
+	public long getRateCoalescingWindow() {
+		RateCoalescer coalescer = this.rateCoalescer;
+		return coalescer == null ? 0 : coalescer.getWindowMillis();
+	}
+
+	/**
+	 * Emits immediately the rate changes that are waiting for their window to end.
+	 */
+	public void flushRateChanges() {
+		RateCoalescer coalescer = this.rateCoalescer;
+		if (coalescer != null)
+			coalescer.flush();
+	}
+
+	/**
+	 * Auxiliary method that emits, or records to emit later, a change of the rate of
+	 * the given song.
+	 */
+	private void rated(Song song, Rate oldRate, Rate newRate) {
+		RateCoalescer coalescer = this.rateCoalescer;
+		if (coalescer != null)
+			coalescer.rated(song, oldRate, newRate);
+		else
+			emitEvent(new SongRatedLibraryEvent(song, this, oldRate, newRate));
+	}
 	
 	/**
 	 * If there was a song playing before, stops it, then starts playing
@@ -99,8 +253,7 @@ public class MusicLibrary extends AbsSubject<SongLibraryEvent> implements QListW
 		Song selected = getSelected();
 		Rate oldRate = selected.getRating();
 		selected.incRating();
-		Rate newRate = selected.getRating();
-		emitEvent(new SongRatedLibraryEvent(selected, this, oldRate, newRate));
+		rated(selected, oldRate, selected.getRating());
 	}
 
 	/**
@@ -113,13 +266,29 @@ public class MusicLibrary extends AbsSubject<SongLibraryEvent> implements QListW
 		Song selected = getSelected();
 		Rate oldRate = selected.getRating();
 		selected.decRating();
-		Rate newRate = selected.getRating();
-		emitEvent(new SongRatedLibraryEvent(selected, this, oldRate, newRate));
+		rated(selected, oldRate, selected.getRating());
+	}
+
+	/**
+	 * Increments the number of times the given song was played and, if it is a song
+	 * of this {@link MusicLibrary}, emits a {@link SongPlayedLibraryEvent}.
+	 * 
+	 * @param song	the song that was played until its end.
+	 * @requires 	{@code song != null}
+	 * @ensures 	{@code song.getTimesPlayed() == \old song.getTimesPlayed() + 1}
+	 */
+	public void incTimesPlayed(ISong song) {
+		song.incTimesPlayed();
+		if (song instanceof Song s && s.getId() != Song.NO_ID && this.stats.contains(s))
+			emitEvent(new SongPlayedLibraryEvent(s, this, s.getTimesPlayed()));
 	}
 
 	/**
 	 * Returns an {@link Iterable} of {@link ISong} that contains all songs that
-	 * matches the specified regular expression.
+	 * matches the specified regular expression. When the expression contains a literal
+	 * text, only the songs that contain that text in the index are matched. If there are
+	 * at least {@link #getParallelSearchThreshold()} songs to match, the search runs in
+	 * parallel in the common fork-join pool.
 	 * 
 	 * @param reexp the regular expression to match each song.
 	 * @requires 	{@code reexp != null}.
@@ -128,9 +297,43 @@ public class MusicLibrary extends AbsSubject<SongLibraryEvent> implements QListW
 	 * 			 	that matches the given regular expression.
 	 */
 	public Iterable<ISong> getMatches(String reexp) {
-		return StreamSupport.stream(getSongs().spliterator(), false)
-						.filter(x -> x.matches(reexp))
-						.toList();
+		long start = REGEXP_SEARCH_TIME.start();
+		// compilado uma unica vez por pesquisa, e nao uma vez por musica
+		Pattern pattern = PatternCache.INSTANCE.compile(reexp);
+		List<Song> candidates = this.index.candidates(reexp);
+		Stream<Song> songs;
+		if (candidates != null)
+			songs = candidates.size() >= this.parallelThreshold ? candidates.parallelStream() : candidates.stream();
+		else
+			songs = StreamSupport.stream(spliterator(), size() >= this.parallelThreshold);
+		// toList mantem a ordem da biblioteca mesmo em paralelo
+		List<Song> matches = songs.filter(x -> x.matches(pattern)).toList();
+		if (candidates != null)
+			matches = this.positions.inLibraryOrder(matches);
+		REGEXP_SEARCH_TIME.stop(start);
+		REGEXP_SEARCH_RESULTS.record(matches.size());
+		return Collections.unmodifiableList(matches);
+	}
+
+	/**
+	 * Returns an {@link Iterable} of {@link ISong} that contains all songs that satisfy
+	 * the given token query, answered by the index without looking at the other songs.
+	 * A query is made of clauses separated by {@code OR}, each clause is made of words
+	 * separated by whitespace that must all be present in the song. A word ending with
+	 * {@code *} matches every word starting with it (e.g. {@code "fado mari* OR bach"}).
+	 * 
+	 * @param query the query to evaluate.
+	 * @requires 	{@code query != null}.
+	 * @ensures 	{@code \result != null}.
+	 * @return 		{@link Iterable} of {@link ISong} containing all songs in this {@link MusicLibrary}
+	 * 			 	that satisfy the given query, in library order.
+	 */
+	public Iterable<ISong> getTokenMatches(String query) {
+		long start = TOKEN_SEARCH_TIME.start();
+		List<Song> matches = this.positions.inLibraryOrder(this.index.query(query));
+		TOKEN_SEARCH_TIME.stop(start);
+		TOKEN_SEARCH_RESULTS.record(matches.size());
+		return Collections.unmodifiableList(matches);
 	}
 
 	/**
@@ -140,19 +343,147 @@ public class MusicLibrary extends AbsSubject<SongLibraryEvent> implements QListW
 	 * @return 	{@link Iterable} of {@link ISong} containing all songs in this {@link MusicLibrary}.
 	 */
 	public Iterable<ISong> getSongs() {	
-		return SongsIterator::new;
+		return new Songs();
+	}
+
+	/**
+	 * Returns the minimum number of songs that a search must go through to run in parallel.
+	 * 
+	 * @ensures {@code \result > 0}.
+	 * @return 	the minimum number of songs for a search to run in parallel.
+	 */
+	public int getParallelSearchThreshold() {
+		return this.parallelThreshold;
+	}
+
+	/**
+	 * Changes the minimum number of songs that a search must go through to run in parallel.
+	 * Below this threshold the searches stay sequential, since splitting small libraries
+	 * costs more than it saves.
+	 * 
+	 * @param threshold the minimum number of songs for a search to run in parallel.
+	 * @requires 		{@code threshold > 0}.
+	 * @ensures 		{@code getParallelSearchThreshold() == threshold}.
+	 */
+	public void setParallelSearchThreshold(int threshold) {
+		this.parallelThreshold = threshold;
+	}
+
+	/**
+	 * Returns the values of the given facet (e.g. the genres) of the songs of this
+	 * {@link MusicLibrary}, sorted, with the number of songs of each one. The values are
+	 * kept by the library as the songs are added and removed, so they are not searched.
+	 * 
+	 * @param facet	the facet.
+	 * @requires 	{@code facet != null}
+	 * @ensures 	{@code \result != null}
+	 * @return 		an unmodifiable map from each value of the facet to its number of songs.
+	 */
+	public Map<String, Integer> getFacetValues(Facet facet) {
+		return this.facets.counts(facet);
+	}
+
+	/**
+	 * Returns the songs of this {@link MusicLibrary} with the given value of the given
+	 * facet (e.g. the songs of a genre), in library order, in O(result) while no removed
+	 * song was added again.
+	 * 
+	 * @param facet	the facet.
+	 * @param value	the value of the facet.
+	 * @requires 	{@code facet != null && value != null}
+	 * @ensures 	{@code \result != null}
+	 * @return 		an unmodifiable list with the songs with the value.
+	 */
+	public List<ISong> getFacetSongs(Facet facet, String value) {
+		return Collections.unmodifiableList(this.positions.inLibraryOrder(this.facets.songs(facet, value)));
+	}
+
+	/**
+	 * Returns the position of the given song in this {@link MusicLibrary}, by identity, in
+	 * O(1), apart from recomputing the positions after a removal in the middle.
+	 * 
+	 * @param song	the song.
+	 * @requires 	{@code song != null}
+	 * @ensures 	{@code -1 <= \result < size()}
+	 * @return 		the position of the song, or -1 if it isn't in this library.
+	 */
+	public int indexOf(ISong song) {
+		if (song instanceof Song s && this.stats.contains(s))
+			return this.positions.of(s);
+		return -1;
+	}
+
+	/**
+	 * Returns the store with the play counts and the rates of the songs of this
+	 * {@link MusicLibrary}, used to go through them without visiting every song.
+	 * 
+	 * @ensures {@code \result != null && \result.size() <= size()}
+	 * @return 	the store of the stats of the songs.
+	 */
+	public SongStatsStore getStats() {
+		return this.stats;
 	}
 
 	@Override
 	public void select(int i) {
+		RateCoalescer coalescer = this.rateCoalescer;
+		if (coalescer != null)
+			coalescer.flushIfEnded();
 		this.songList.select(i);
 	}
 	
+	/**
+	 * Adds the given song at the end of this {@link MusicLibrary}, giving it an id if
+	 * it has none.
+	 * 
+	 * @param s		the song to add.
+	 * @requires 	{@code s != null}
+	 * @ensures 	{@code s.getId() != Song.NO_ID}
+	 */
 	@Override
 	public void add(Song s) {
+		assignId(s);
+		this.stats.attach(s);
 		this.songList.add(s);
+		this.positions.added(s, size() - 1);
 		emitEvent(new SongAddedLibraryEvent(s, this));
 	}
+
+	/**
+	 * Auxiliary method that gives the next id to a song without one, or whose id is
+	 * already used by another song of this library (e.g. a song removed from another
+	 * library), or keeps the id of a restored song, making sure the next ids are not
+	 * used yet.
+	 */
+	private void assignId(Song s) {
+		int id = s.getId();
+		if (id == Song.NO_ID || (this.stats.isUsed(id) && !this.stats.contains(s)))
+			s.assignId(this.nextId++);
+		else
+			this.nextId = Math.max(this.nextId, s.getId() + 1);
+	}
+
+	/**
+	 * Adds the given songs at the end of this {@link MusicLibrary}, emitting a single
+	 * {@link SongBatchAddedLibraryEvent} instead of one event per song. The last song
+	 * added becomes the selected one. Each song without an id, or with an id already
+	 * used in this library, gets a new one.
+	 * 
+	 * @param songs		the songs to add, in order.
+	 * @requires 		{@code songs != null && every song in songs != null}
+	 * @ensures 		{@code size() == \old size() + songs.size()}
+	 */
+	public void addAll(List<Song> songs) {
+		if (songs.isEmpty())
+			return;
+		for (Song s : songs) {
+			assignId(s);
+			this.stats.attach(s);
+			this.songList.add(s);
+			this.positions.added(s, size() - 1);
+		}
+		emitEvent(new SongBatchAddedLibraryEvent(songs, this));
+	}
 	
 	@Override
 	public boolean someSelected() {
@@ -178,7 +509,10 @@ public class MusicLibrary extends AbsSubject<SongLibraryEvent> implements QListW
 	public void remove() {
 		if (someSelected()) {		
 			Song removed = getSelected();
+			int position = getIndexSelected();
 			this.songList.remove();
+			this.positions.removed(position);
+			this.stats.detach(removed);
 			emitEvent(new SongRemovedLibraryEvent(removed, this));
 		}
 	}
@@ -203,6 +537,11 @@ public class MusicLibrary extends AbsSubject<SongLibraryEvent> implements QListW
 		return this.songList.iterator();
 	}
 
+	@Override
+	public Spliterator<Song> spliterator() {
+		return this.songList.spliterator();
+	}
+
 	@Override
 	public void propertyChange(PropertyChangeEvent evt) {
 		if (evt.getPropertyName().equals("playingState") && isPlaying()) {
@@ -210,7 +549,7 @@ public class MusicLibrary extends AbsSubject<SongLibraryEvent> implements QListW
 			if (newState == Player.PlayingState.STOPED)
 				this.playingSong = null;
 			else if (newState == Player.PlayingState.ENDED) {
-				this.playingSong.incTimesPlayed();
+				incTimesPlayed(this.playingSong);
 				this.playingSong = null;
 			}
 		}
@@ -0,0 +1,176 @@
+package domain.core;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class {@link RateCoalescer} used by a {@link MusicLibrary} to collapse the rate changes
+ * of the same {@link Song}, made within a window of time, into a single
+ * {@link SongRatedLibraryEvent} with the first old rate and the last new rate.
+ *
+ * The window starts with the first change not yet emitted. The collapsed changes are
+ * emitted, in the order the songs were first rated, on the thread that owns the library:
+ * by the given executor when the window ends, or, without one, on the next change of the
+ * library after the window ends. Changes that leave the rate of a song as it was are not
+ * emitted. The lock of the coalescer only guards the pending changes: they are taken
+ * under it and emitted after it is released, so a listener may call back into the
+ * library. As every event is emitted on the thread that owns the library, a song is
+ * still never rated after being removed.
+ */
+final class RateCoalescer {
+
+	/**
+	 * The rate of a song before its first pending change, and after its last one.
+	 */
+	private static final class Change {
+		private final Rate oldRate;
+		private Rate newRate;
+
+		private Change(Rate oldRate, Rate newRate) {
+			this.oldRate = oldRate;
+			this.newRate = newRate;
+		}
+	}
+
+	private final MusicLibrary library;
+	private final long windowMillis;
+	private final Executor owner;
+	private final ScheduledExecutorService scheduler;
+	private Map<Song, Change> pending = new IdentityHashMap<>();
+	private List<Song> order = new ArrayList<>();
+	private long windowEnd;
+
+	/**
+	 * Constructor that creates a {@link RateCoalescer} for the given library.
+	 *
+	 * @param library		the library whose rate changes are collapsed.
+	 * @param windowMillis	the window of time, in milliseconds.
+	 * @param owner			the executor that runs tasks on the thread that owns the library,
+	 * 						or null to emit the changes only on the next change of the library.
+	 * @requires 			{@code library != null && windowMillis > 0}
+	 */
+	RateCoalescer(MusicLibrary library, long windowMillis, Executor owner) {
+		this.library = library;
+		this.windowMillis = windowMillis;
+		this.owner = owner;
+		// a thread so serve apenas para avisar o dono da biblioteca, nunca emite eventos
+		this.scheduler = owner == null ? null : Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "LEITunes-rates");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Returns the window of time of this coalescer.
+	 *
+	 * @ensures {@code \result > 0}
+	 * @return 	the window of time, in milliseconds.
+	 */
+	long getWindowMillis() {
+		return this.windowMillis;
+	}
+
+	/**
+	 * Records a change of the rate of the given song, to be emitted when the window ends.
+	 * If the window of the pending changes has already ended, they are emitted first.
+	 *
+	 * @param song		the rated song.
+	 * @param oldRate	the rate of the song before the change.
+	 * @param newRate	the rate of the song after the change.
+	 * @requires 		{@code song != null && oldRate != null && newRate != null}
+	 */
+	void rated(Song song, Rate oldRate, Rate newRate) {
+		flushIfEnded();
+		synchronized (this) {
+			Change change = this.pending.get(song);
+			if (change != null) {
+				change.newRate = newRate;
+				return;
+			}
+			if (this.order.isEmpty()) {
+				this.windowEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.windowMillis);
+				if (this.scheduler != null)
+					this.scheduler.schedule(() -> this.owner.execute(this::flushIfEnded),
+							this.windowMillis, TimeUnit.MILLISECONDS);
+			}
+			this.pending.put(song, new Change(oldRate, newRate));
+			this.order.add(song);
+		}
+	}
+
+	/**
+	 * Emits the pending changes whose window has ended.
+	 */
+	void flushIfEnded() {
+		deliver(take(true));
+	}
+
+	/**
+	 * Emits the collapsed changes recorded so far, without waiting for the window to end.
+	 */
+	void flush() {
+		deliver(take(false));
+	}
+
+	/**
+	 * Emits the pending changes and then the given event.
+	 *
+	 * @param e		the event that follows the pending changes.
+	 * @requires 	{@code e != null}
+	 */
+	void flushThenDeliver(SongLibraryEvent e) {
+		flush();
+		this.library.deliver(e);
+	}
+
+	/**
+	 * Emits the pending changes and stops the thread of this coalescer.
+	 */
+	void close() {
+		if (this.scheduler != null)
+			this.scheduler.shutdownNow();
+		flush();
+	}
+
+	/**
+	 * Auxiliary method that takes the pending changes, leaving none, and returns the
+	 * events of those that changed the rate of their song.
+	 *
+	 * @param onlyIfEnded	true to take the changes only if their window has ended.
+	 * @ensures 			{@code \result != null}
+	 * @return 				the events of the taken changes, in the order the songs were first rated.
+	 */
+	private synchronized List<SongRatedLibraryEvent> take(boolean onlyIfEnded) {
+		if (this.order.isEmpty() || (onlyIfEnded && System.nanoTime() - this.windowEnd < 0))
+			return List.of();
+		Map<Song, Change> changes = this.pending;
+		List<Song> songs = this.order;
+		this.pending = new IdentityHashMap<>();
+		this.order = new ArrayList<>();
+		List<SongRatedLibraryEvent> events = new ArrayList<>(songs.size());
+		for (Song song : songs) {
+			Change change = changes.get(song);
+			if (change.oldRate != change.newRate)
+				events.add(new SongRatedLibraryEvent(song, this.library, change.oldRate, change.newRate));
+		}
+		return events;
+	}
+
+	/**
+	 * Auxiliary method that emits the given events, without holding the lock of this coalescer.
+	 */
+	private void deliver(List<SongRatedLibraryEvent> events) {
+		for (SongRatedLibraryEvent e : events)
+			this.library.deliver(e);
+	}
+}
@@ -3,6 +3,7 @@ package domain.core;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
 import domain.facade.ISong;
 import util.adts.RegExpMatchable;
@@ -12,13 +13,27 @@ import util.adts.RegExpMatchable;
  * @author 58188 Laura Cunha
  * 
  * Class {@link Song} used to represent songs stored in the {@link MusicLibrary}
+ * 
+ * Each song added to a library gets an id, that never changes, used to identify it.
+ * The rate and the play count of a song are not part of its identity, so its hash code
+ * never changes. While the song is in a library, they are kept in the
+ * {@link SongStatsStore} of the library, through which this song reads and writes them.
  */
 public class Song implements ISong, RegExpMatchable {
 
+	/**
+	 * The id of a song that was never added to a {@link MusicLibrary}.
+	 */
+	public static final int NO_ID = -1;
+
 	private final SongMetaInfo metaInfo;
 	private final String filename;
+	private final int hash;
+	private int id = NO_ID;
 	private int playCount = 0;
 	private Rate rate = Rate.UNRATED;
+	// while attached, the play count and the rate are the ones in the store
+	private SongStatsStore stats = null;
 
 	/**
 	 * Constructor used to create a {@link Song}.
@@ -30,6 +45,7 @@ public class Song implements ISong, RegExpMatchable {
 	public Song(SongMetaInfo info, String fileName) {
 		this.metaInfo = info;
 		this.filename = fileName;
+		this.hash = Objects.hash(fileName, info);
 	}
 	
 	/**
@@ -46,8 +62,8 @@ public class Song implements ISong, RegExpMatchable {
 	}
 	
 	/**
-	 * Constructor used to create a {@link Song}.This constructor is marked
-	 * package-protected and is only used in teh JUnit tests.
+	 * Constructor used to create a {@link Song} with a given rate and play count,
+	 * e.g. when restoring a song that was persisted.
 	 * 
 	 * @param info 		the metainfo of this song.
 	 * @param fileName 	the filename of this song.
@@ -55,36 +71,115 @@ public class Song implements ISong, RegExpMatchable {
 	 * @param playCount the playCount to start this song with.
 	 * @requires 		{@code info != null && fileName != null && rate != null && playCount >= 0}
 	 */
-	Song(SongMetaInfo info, String fileName, Rate rate, int playCount){
-		this.metaInfo = info;
-		this.filename = fileName;
+	public Song(SongMetaInfo info, String fileName, Rate rate, int playCount){
+		this(info, fileName);
 		this.rate = rate;
 		this.playCount = playCount;
 	}
 
+	/**
+	 * Constructor used to create a {@link Song} with a given id, rate and play count,
+	 * when restoring a song that was persisted. The {@link MusicLibrary} keeps the id
+	 * when the song is added.
+	 * 
+	 * @param id 		the id of this song.
+	 * @param info 		the metainfo of this song.
+	 * @param fileName 	the filename of this song.
+	 * @param rate 		the rate to start this song with.
+	 * @param playCount the playCount to start this song with.
+	 * @requires 		{@code id >= 0 && info != null && fileName != null && rate != null && playCount >= 0}
+	 */
+	public Song(int id, SongMetaInfo info, String fileName, Rate rate, int playCount){
+		this(info, fileName, rate, playCount);
+		this.id = id;
+	}
+
+	/**
+	 * Returns the id of this song.
+	 * 
+	 * @ensures 	{@code \result >= 0 || \result == NO_ID}
+	 * @return 		the id of this song, or {@link #NO_ID} if it was never added to
+	 * 				a {@link MusicLibrary}.
+	 */
+	public int getId() {
+		return this.id;
+	}
+
+	/**
+	 * Gives an id to this song. A song that is not in a library may get a new id, since
+	 * the id it had belongs to the library it was removed from.
+	 * 
+	 * @param id 	the id of this song.
+	 * @requires 	{@code id >= 0}
+	 * @throws IllegalStateException if this song is in a library with a different id.
+	 */
+	void assignId(int id) {
+		if (this.stats != null && this.id != id)
+			throw new IllegalStateException("Song " + this.filename + " already has the id " + this.id);
+		this.id = id;
+	}
+
+	/**
+	 * Makes this song keep its play count and rate in the given store, that already has
+	 * them.
+	 * 
+	 * @param stats the store.
+	 * @requires 	{@code stats != null && getId() != NO_ID}
+	 */
+	void attach(SongStatsStore stats) {
+		this.stats = stats;
+	}
+
+	/**
+	 * Makes this song keep again its play count and rate, given by the store it was
+	 * attached to.
+	 * 
+	 * @param playCount the play count of this song.
+	 * @param rate 		the rate of this song.
+	 * @requires 		{@code playCount >= 0 && rate != null}
+	 */
+	void detach(int playCount, Rate rate) {
+		this.playCount = playCount;
+		this.rate = rate;
+		this.stats = null;
+	}
+
 	@Override
 	public void incTimesPlayed() {
-		this.playCount++;
+		if (this.stats != null)
+			this.stats.incPlayCount(this.id);
+		else
+			this.playCount++;
 	}
 
 	@Override
 	public int getTimesPlayed() {
-		return this.playCount;
+		return this.stats != null ? this.stats.getPlayCount(this.id) : this.playCount;
 	}
 
 	@Override
 	public Rate getRating() {
-		return this.rate;
+		return this.stats != null ? this.stats.getRate(this.id) : this.rate;
 	}
 
 	@Override
 	public void incRating() {
-		this.rate = this.rate.inc();
+		setRating(getRating().inc());
 	}
 
 	@Override
 	public void decRating() {
-		this.rate = this.rate.dec();
+		setRating(getRating().dec());
+	}
+
+	/**
+	 * Auxiliary method that changes the rate of this song.
+	 */
+	private void setRating(Rate rate) {
+		if (this.stats != null)
+			this.stats.setRate(this.id, rate);
+		else
+			this.rate = rate;
 	}
 
 	@Override
@@ -102,6 +197,16 @@ public class Song implements ISong, RegExpMatchable {
 		return this.metaInfo.artists();
 	}
 
+	@Override
+	public int artistCount() {
+		return this.metaInfo.artists().size();
+	}
+
+	@Override
+	public String artist(int i) {
+		return this.metaInfo.artists().get(i);
+	}
+
 	@Override
 	public String getAlbum() {
 		return this.metaInfo.album();
@@ -116,6 +221,11 @@ public class Song implements ISong, RegExpMatchable {
 	public boolean matches(String regexp) {
 		return this.metaInfo.matches(regexp);
 	}
+
+	@Override
+	public boolean matches(Pattern pattern) {
+		return this.metaInfo.matches(pattern);
+	}
 	
 	@Override
 	public String toString() {
@@ -125,15 +235,24 @@ public class Song implements ISong, RegExpMatchable {
 		  .append(getAlbum())
 		  .append(", ")
 		  .append(getGenre())
-		  .append(", [")
-		  .append(String.join("; ", getArtists()))
-		  .append("]] --- ")
+		  .append(", [");
+		for (int i = 0; i < artistCount(); i++) {
+			if (i > 0)
+				sb.append("; ");
+			sb.append(artist(i));
+		}
+		sb.append("]] --- ")
 		  .append(getRating().ordinal())
 		  .append(" -- ")
 		  .append(getTimesPlayed());
 		return sb.toString();
 	}
 	
+	/**
+	 * Two songs are equal if they have the same filename and metainfo. The id, the rate
+	 * and the play count are not compared, so the equality is the same before and after a
+	 * song is added to a library; the library tells its songs apart by identity.
+	 */
 	@Override
 	public boolean equals(Object o) {
 		if(o == this)
@@ -141,15 +260,14 @@ public class Song implements ISong, RegExpMatchable {
 		if(o == null || getClass() != o.getClass())
 			return false;
 		Song other = (Song) o;
-		return this.filename.equals(other.filename) &&
-				this.rate == other.rate &&
-				this.playCount == other.playCount &&
+		return this.hash == other.hash &&
+				this.filename.equals(other.filename) &&
 				this.metaInfo.equals(other.metaInfo);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(this.filename, this.rate, this.playCount, this.metaInfo);
+		return this.hash;
 	}
 }
 
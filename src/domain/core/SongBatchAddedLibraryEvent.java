@@ -0,0 +1,40 @@
+package domain.core;
+
+import java.util.List;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ * 
+ * Class {@link SongBatchAddedLibraryEvent} that extends {@link SongLibraryEvent},
+ * this class is used to represent the single event fired when several songs are
+ * added at once to a {@link MusicLibrary}, instead of one {@link SongAddedLibraryEvent}
+ * per song.
+ */
+public class SongBatchAddedLibraryEvent extends SongLibraryEvent {
+
+	private final List<Song> songs;
+
+	/**
+	 * Constructor used to create a {@link SongBatchAddedLibraryEvent}.
+	 * 
+	 * @param songs 	the songs that were added, in the order they were added.
+	 * @param library 	the {@link MusicLibrary} that these songs were added to.
+	 * @requires 		{@code songs != null && !songs.isEmpty() && library != null}
+	 */
+	public SongBatchAddedLibraryEvent(List<Song> songs, MusicLibrary library) {
+		super(songs.get(songs.size() - 1), library);
+		this.songs = List.copyOf(songs);
+	}
+
+	/**
+	 * Method that returns the songs that were added, in the order they were added.
+	 * The {@link #getSong()} of this event is the last of these songs.
+	 * 
+	 * @ensures {@code \result != null && !\result.isEmpty()}
+	 * @return 	the songs that were added.
+	 */
+	public List<Song> getSongs() {
+		return this.songs;
+	}
+}
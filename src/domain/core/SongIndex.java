@@ -0,0 +1,445 @@
+package domain.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import util.observer.Listener;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class {@link SongIndex} that implements {@link Listener}, used to keep an inverted
+ * index (token -> songs) of the metainfo of every {@link Song} in a {@link MusicLibrary}.
+ * The index is kept in sync through the {@link SongAddedLibraryEvent},
+ * {@link SongBatchAddedLibraryEvent} and {@link SongRemovedLibraryEvent} emitted by the library.
+ *
+ * Tokens are the lower case sequences of letters and digits found in the title, genre,
+ * album and artists of each song. The songs of each token are kept as their ids: in a
+ * sorted array while they are few, so the many tokens that appear in a single song take
+ * little memory, and in a {@link BitSet} once they are many. Clauses are evaluated with
+ * bitwise operations.
+ */
+class SongIndex implements Listener<SongLibraryEvent> {
+
+	// regular expressions with this flag ignore whitespace, so literals can't be trusted
+	private static final Pattern COMMENTS_FLAG = Pattern.compile("\\(\\?[a-zA-Z-]*x");
+	private static final String OR = "OR";
+	private static final char PREFIX = '*';
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The ids of the songs with a token, sorted.
+	 */
+	private static final class Postings {
+		// a partir deste numero de ids passa a valer a pena usar um BitSet
+		private static final int MIN_DENSE_SIZE = 64;
+
+		private int[] ids = new int[2];
+		private int size = 0;
+		private BitSet bits = null;
+
+		private void add(int id) {
+			if (this.bits != null) {
+				this.bits.set(id);
+				return;
+			}
+			// os ids novos sao quase sempre maiores que os outros
+			int position = this.size == 0 || this.ids[this.size - 1] < id
+					? -this.size - 1 : Arrays.binarySearch(this.ids, 0, this.size, id);
+			if (position >= 0)
+				return;
+			int insertAt = -position - 1;
+			if (this.size == this.ids.length)
+				this.ids = Arrays.copyOf(this.ids, 2 * this.size);
+			System.arraycopy(this.ids, insertAt, this.ids, insertAt + 1, this.size - insertAt);
+			this.ids[insertAt] = id;
+			this.size++;
+			if (this.size >= MIN_DENSE_SIZE && this.size > this.ids[this.size - 1] >>> 5) {
+				this.bits = new BitSet(this.ids[this.size - 1] + 1);
+				for (int i = 0; i < this.size; i++)
+					this.bits.set(this.ids[i]);
+				this.ids = null;
+			}
+		}
+
+		private void remove(int id) {
+			if (this.bits != null) {
+				this.bits.clear(id);
+				return;
+			}
+			int position = Arrays.binarySearch(this.ids, 0, this.size, id);
+			if (position >= 0) {
+				System.arraycopy(this.ids, position + 1, this.ids, position, this.size - position - 1);
+				this.size--;
+			}
+		}
+
+		private boolean isEmpty() {
+			return this.bits != null ? this.bits.isEmpty() : this.size == 0;
+		}
+
+		/**
+		 * Adds these ids to the given set.
+		 */
+		private void orInto(BitSet result) {
+			if (this.bits != null)
+				result.or(this.bits);
+			else
+				for (int i = 0; i < this.size; i++)
+					result.set(this.ids[i]);
+		}
+
+		/**
+		 * Removes from the given set the ids that are not in these.
+		 */
+		private void andInto(BitSet result) {
+			if (this.bits != null) {
+				result.and(this.bits);
+				return;
+			}
+			for (int id = result.nextSetBit(0); id >= 0; id = result.nextSetBit(id + 1))
+				if (Arrays.binarySearch(this.ids, 0, this.size, id) < 0)
+					result.clear(id);
+		}
+	}
+
+	private final NavigableMap<String, Postings> postings = new TreeMap<>();
+	// the indexed songs by id; ids follow the order of the library
+	private Song[] songs = new Song[INITIAL_CAPACITY];
+
+	@Override
+	public void processEvent(SongLibraryEvent e) {
+		if (e instanceof SongAddedLibraryEvent)
+			add(e.getSong());
+		else if (e instanceof SongBatchAddedLibraryEvent batchEvent)
+			batchEvent.getSongs().forEach(this::add);
+		else if (e instanceof SongRemovedLibraryEvent)
+			remove(e.getSong());
+	}
+
+	/**
+	 * Adds the tokens of the given {@link Song} to this index.
+	 *
+	 * @param song 	the song to index.
+	 * @requires 	{@code song != null && song.getId() != Song.NO_ID}
+	 */
+	void add(Song song) {
+		int id = song.getId();
+		if (id >= this.songs.length)
+			this.songs = Arrays.copyOf(this.songs, Math.max(id + 1, 2 * this.songs.length));
+		if (this.songs[id] != null)
+			return;
+		this.songs[id] = song;
+		for (String token : tokens(song))
+			this.postings.computeIfAbsent(token, t -> new Postings()).add(id);
+	}
+
+	/**
+	 * Removes the tokens of the given {@link Song} from this index.
+	 *
+	 * @param song 	the song to remove from the index.
+	 * @requires 	{@code song != null}
+	 */
+	void remove(Song song) {
+		int id = song.getId();
+		if (id < 0 || id >= this.songs.length || this.songs[id] != song)
+			return;
+		this.songs[id] = null;
+		for (String token : tokens(song)) {
+			Postings ids = this.postings.get(token);
+			if (ids != null) {
+				ids.remove(id);
+				if (ids.isEmpty())
+					this.postings.remove(token);
+			}
+		}
+	}
+
+	/**
+	 * Returns the songs that contain the given token.
+	 *
+	 * @param token the token to search for.
+	 * @requires 	{@code token != null}
+	 * @ensures 	{@code \result != null}
+	 * @return 		the songs that contain the given token, by the order of their ids.
+	 */
+	List<Song> exact(String token) {
+		Postings ids = this.postings.get(token.toLowerCase(Locale.ROOT));
+		if (ids == null)
+			return List.of();
+		BitSet result = new BitSet();
+		ids.orInto(result);
+		return songsOf(result);
+	}
+
+	/**
+	 * Returns the songs that contain a token starting with the given prefix.
+	 *
+	 * @param prefix 	the prefix to search for.
+	 * @requires 		{@code prefix != null}
+	 * @ensures 		{@code \result != null}
+	 * @return 			the songs with a token starting with the given prefix, by the order of their ids.
+	 */
+	List<Song> prefix(String prefix) {
+		return songsOf(prefixSet(prefix.toLowerCase(Locale.ROOT)));
+	}
+
+	/**
+	 * Returns the songs that satisfy the given boolean query. A query is made of clauses
+	 * separated by {@code OR}, each clause is made of terms separated by whitespace that
+	 * must all be present in the song. A term ending with {@code *} is a prefix term.
+	 * For example {@code "fado mari*  OR  bach"}.
+	 *
+	 * @param query the query to evaluate.
+	 * @requires 	{@code query != null}
+	 * @ensures 	{@code \result != null}
+	 * @return 		the songs that satisfy the query, by the order of their ids.
+	 */
+	List<Song> query(String query) {
+		BitSet result = new BitSet();
+		List<String> clause = new ArrayList<>();
+		for (String term : query.trim().split("\\s+")) {
+			if (term.equals(OR)) {
+				result.or(evaluateClause(clause));
+				clause.clear();
+			} else if (!term.isEmpty())
+				clause.add(term);
+		}
+		result.or(evaluateClause(clause));
+		return songsOf(result);
+	}
+
+	/**
+	 * Returns the songs that may match the given regular expression, using the literal
+	 * substrings that every match of the expression must contain. If the expression
+	 * has no such literal, it is not possible to prefilter the songs and null is returned.
+	 *
+	 * @param regexp 	the regular expression.
+	 * @requires 		{@code regexp != null}
+	 * @return 			a superset of the songs that match the given expression, by the
+	 * 					order of their ids, or null if every song may match.
+	 */
+	List<Song> candidates(String regexp) {
+		String literal = longestRequiredLiteral(regexp);
+		if (literal == null)
+			return null;
+		String lower = literal.toLowerCase(Locale.ROOT);
+		BitSet result = new BitSet();
+		for (Map.Entry<String, Postings> entry : this.postings.entrySet()) {
+			if (entry.getKey().contains(lower))
+				entry.getValue().orInto(result);
+		}
+		return songsOf(result);
+	}
+
+	/**
+	 * Returns the number of distinct tokens in this index.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of distinct tokens in this index.
+	 */
+	int numberOfTokens() {
+		return this.postings.size();
+	}
+
+	/**
+	 * Auxiliary method that evaluates a clause of terms that must all be present.
+	 */
+	private BitSet evaluateClause(List<String> terms) {
+		BitSet result = null;
+		for (String term : terms) {
+			boolean isPrefix = term.charAt(term.length() - 1) == PREFIX;
+			List<String> tokens = new ArrayList<>();
+			tokenize(isPrefix ? term.substring(0, term.length() - 1) : term, tokens);
+			for (int i = 0; i < tokens.size(); i++) {
+				String token = tokens.get(i);
+				if (isPrefix && i == tokens.size() - 1) {
+					BitSet ids = prefixSet(token);
+					if (result == null)
+						result = ids;
+					else
+						result.and(ids);
+				} else {
+					Postings ids = this.postings.get(token);
+					if (ids == null)
+						return new BitSet();
+					if (result == null) {
+						result = new BitSet();
+						ids.orInto(result);
+					} else
+						ids.andInto(result);
+				}
+				if (result.isEmpty())
+					return result;
+			}
+		}
+		return result == null ? new BitSet() : result;
+	}
+
+	/**
+	 * Auxiliary method that returns the ids of every song with a token starting with
+	 * the given prefix.
+	 */
+	private BitSet prefixSet(String prefix) {
+		BitSet result = new BitSet();
+		for (Postings ids : this.postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values())
+			ids.orInto(result);
+		return result;
+	}
+
+	/**
+	 * Auxiliary method that returns the songs with the given ids, by the order of the ids.
+	 */
+	private List<Song> songsOf(BitSet ids) {
+		List<Song> result = new ArrayList<>(ids.cardinality());
+		for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1))
+			result.add(this.songs[id]);
+		return result;
+	}
+
+	/**
+	 * Auxiliary method that returns the distinct tokens of the metainfo of the given song.
+	 */
+	private static Set<String> tokens(Song song) {
+		List<String> tokens = new ArrayList<>();
+		tokenize(song.getSongTitle(), tokens);
+		tokenize(song.getGenre(), tokens);
+		tokenize(song.getAlbum(), tokens);
+		for (int i = 0; i < song.artistCount(); i++)
+			tokenize(song.artist(i), tokens);
+		return new LinkedHashSet<>(tokens);
+	}
+
+	/**
+	 * Splits the given text in lower case sequences of letters and digits.
+	 *
+	 * @param text 		the text to split.
+	 * @param tokens 	the list where the tokens are added.
+	 * @requires 		{@code text != null && tokens != null}
+	 */
+	static void tokenize(String text, List<String> tokens) {
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean inToken = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (inToken && start == -1)
+				start = i;
+			else if (!inToken && start != -1) {
+				tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+				start = -1;
+			}
+		}
+	}
+
+	/**
+	 * Returns the longest sequence of letters and digits that every match of the given
+	 * regular expression must contain. The analysis is conservative: alternations,
+	 * groups, character classes, escapes and optional characters are never taken as
+	 * literals.
+	 *
+	 * @param regexp 	the regular expression to analyse.
+	 * @requires 		{@code regexp != null}
+	 * @return 			the longest required literal, or null if there is none.
+	 */
+	static String longestRequiredLiteral(String regexp) {
+		if (regexp.indexOf('|') != -1 || regexp.contains("\\Q") || regexp.contains("\\k")
+				|| regexp.contains("[]") || regexp.contains("[^]")
+				|| COMMENTS_FLAG.matcher(regexp).find())
+			return null;
+		String longest = null;
+		StringBuilder run = new StringBuilder();
+		int depth = 0;
+		int i = 0;
+		while (i < regexp.length()) {
+			char c = regexp.charAt(i);
+			if (depth == 0 && Character.isLetterOrDigit(c) && !isOptional(regexp, i + 1)) {
+				run.append(c);
+				i++;
+				continue;
+			}
+			longest = longest(longest, run);
+			run.setLength(0);
+			if (c == '\\')
+				i = skipEscape(regexp, i);
+			else if (c == '[')
+				i = skipClass(regexp, i);
+			else if (c == '{')
+				i = skip(regexp, i, '}');
+			else {
+				if (c == '(')
+					depth++;
+				else if (c == ')')
+					depth = Math.max(0, depth - 1);
+				i++;
+			}
+		}
+		return longest(longest, run);
+	}
+
+	/**
+	 * Auxiliary method that checks if the char before the given index is made optional
+	 * by a quantifier.
+	 */
+	private static boolean isOptional(String regexp, int index) {
+		if (index >= regexp.length())
+			return false;
+		char c = regexp.charAt(index);
+		return c == '?' || c == '*' || c == '{';
+	}
+
+	/**
+	 * Auxiliary method that skips an escape sequence and the letters and digits that
+	 * follow it, since they may belong to the escape (e.g. {@code \x41}).
+	 */
+	private static int skipEscape(String regexp, int index) {
+		int i = index + 2;
+		while (i < regexp.length() && Character.isLetterOrDigit(regexp.charAt(i)))
+			i++;
+		return i;
+	}
+
+	/**
+	 * Auxiliary method that skips a character class, including nested classes.
+	 */
+	private static int skipClass(String regexp, int index) {
+		int nesting = 0;
+		int i = index;
+		while (i < regexp.length()) {
+			char c = regexp.charAt(i);
+			if (c == '\\')
+				i++;
+			else if (c == '[')
+				nesting++;
+			else if (c == ']' && --nesting == 0)
+				return i + 1;
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Auxiliary method that skips every char until the given closing char.
+	 */
+	private static int skip(String regexp, int index, char closing) {
+		int end = regexp.indexOf(closing, index);
+		return end == -1 ? regexp.length() : end + 1;
+	}
+
+	/**
+	 * Auxiliary method that returns the longest between the given literal and run.
+	 */
+	private static String longest(String literal, StringBuilder run) {
+		if (run.length() > 0 && (literal == null || run.length() > literal.length()))
+			return run.toString();
+		return literal;
+	}
+}
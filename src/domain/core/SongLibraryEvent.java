@@ -9,6 +9,11 @@ import util.observer.Event;
  * Abstract class {@link SongLibraryEvent} that implements {@link Event},
  * this class is used to represent an abstract event that occured
  * to a {@link Song} in a {@link MusicLibrary}
+ * 
+ * Songs can be added one at a time, with a {@link SongAddedLibraryEvent}, or many at
+ * once, with a single {@link SongBatchAddedLibraryEvent} whose {@link #getSong()} is only
+ * the last of them (e.g. when a directory is imported). Listeners that keep track of
+ * the songs of the library must handle both, otherwise they miss every imported song.
  */
 public abstract class SongLibraryEvent implements Event {
 
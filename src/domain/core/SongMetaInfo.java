@@ -1,10 +1,10 @@
 package domain.core;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import util.adts.PatternCache;
 import util.adts.RegExpMatchable;
 
 /**
@@ -12,6 +12,8 @@ import util.adts.RegExpMatchable;
  * @author 58188 Laura Cunha
  * 
  * Record {@link SongMetaInfo} used to represent and store the metainfo from a certain song.
+ * The genre, the album and the list of artists are shared through the
+ * {@link MetaInfoDictionary}, so equal values are stored only once.
  * 
  * @param title the title of the song.
  * @param genre the genre of the song.
@@ -21,28 +23,45 @@ import util.adts.RegExpMatchable;
  */
 public record SongMetaInfo(String title, String genre, List<String> artists, String album) implements RegExpMatchable {
 
+	/**
+	 * Constructor that replaces the genre, the album and the artists by the instances
+	 * kept by the {@link MetaInfoDictionary}.
+	 */
+	public SongMetaInfo {
+		genre = MetaInfoDictionary.INSTANCE.canonical(genre);
+		album = MetaInfoDictionary.INSTANCE.canonical(album);
+		artists = MetaInfoDictionary.INSTANCE.canonical(artists);
+	}
+
 	@Override
 	public boolean matches(String regexp) {
-		// Pattern compilado em vez de usar Pattern.matches para evitar multiplas compilações do mesmo pattern
-		Pattern pattern = Pattern.compile(regexp);
-		Matcher titleMatcher = pattern.matcher(this.title);
-		Matcher genreMatcher = pattern.matcher(this.genre);
-		Matcher albumMatcher = pattern.matcher(this.album);
-		// Lista para o fim, lazy evaluation
-		return titleMatcher.find() ||
-				genreMatcher.find() ||
-				albumMatcher.find() ||
-				this.artists.stream().anyMatch(x -> pattern.matcher(x).find());
+		// Pattern obtido da cache para evitar multiplas compilações do mesmo pattern
+		return matches(PatternCache.INSTANCE.compile(regexp));
+	}
+
+	@Override
+	public boolean matches(Pattern pattern) {
+		// um unico Matcher reutilizado para todos os campos, sem criar listas ou streams
+		Matcher matcher = pattern.matcher(this.title);
+		if (matcher.find() ||
+				matcher.reset(this.genre).find() ||
+				matcher.reset(this.album).find())
+			return true;
+		for (int i = 0; i < this.artists.size(); i++) {
+			if (matcher.reset(this.artists.get(i)).find())
+				return true;
+		}
+		return false;
 	}
 
 	/**
-	 * Returns a copy of the list of artists names in this metainfo.
+	 * Returns the list of artists names in this metainfo, which can't be modified.
 	 * 
 	 * @ensures {@code \result != null}
-	 * @return 	a copy of the list of artists names in this metainfo.
+	 * @return 	an unmodifiable list of the artists names in this metainfo.
 	 */
 	@Override
 	public List<String> artists() {
-		return new ArrayList<>(this.artists);
+		return this.artists;
 	}
 }
@@ -0,0 +1,37 @@
+package domain.core;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ * 
+ * Class {@link SongPlayedLibraryEvent} that extends {@link SongLibraryEvent},
+ * this class is used to represent the event fired when a song of a
+ * {@link MusicLibrary} was played until its end.
+ */
+public class SongPlayedLibraryEvent extends SongLibraryEvent {
+
+	private final int timesPlayed;
+
+	/**
+	 * Constructor used to create a {@link SongPlayedLibraryEvent}.
+	 * 
+	 * @param song 			the {@link Song} that was played.
+	 * @param library 		the {@link MusicLibrary} of the song.
+	 * @param timesPlayed	the number of times the song was played, counting this one.
+	 * @requires 			{@code song != null && library != null && timesPlayed > 0}
+	 */
+	public SongPlayedLibraryEvent(Song song, MusicLibrary library, int timesPlayed) {
+		super(song, library);
+		this.timesPlayed = timesPlayed;
+	}
+
+	/**
+	 * Returns the number of times the song was played, counting the play of this event.
+	 * 
+	 * @ensures {@code \result > 0}
+	 * @return 	the number of times the song was played.
+	 */
+	public int getTimesPlayed() {
+		return this.timesPlayed;
+	}
+}
@@ -0,0 +1,112 @@
+package domain.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class {@link SongPositions} used by a {@link MusicLibrary} to keep the position of each
+ * of its songs, in an array indexed by the id of the song, so the position of a song is
+ * found in O(1) and the songs found by an index, which come by the order of their ids,
+ * are put in library order.
+ *
+ * The positions after a removal in the middle of the library are only recomputed when
+ * some of them is needed. While every song was added with an id greater than the ids of
+ * the songs before it, the order of the ids is the library order and nothing is sorted;
+ * a removed song added again keeps its id, and breaks that order.
+ */
+final class SongPositions {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final MusicLibrary library;
+	private int[] positions = new int[INITIAL_CAPACITY];
+	// as posicoes antes deste indice estao atualizadas, as outras podem estar desatualizadas
+	private int validPositions = 0;
+	private int greatestId = Song.NO_ID;
+	private boolean idOrder = true;
+	private final Comparator<Song> byPosition = Comparator.comparingInt(this::of);
+
+	/**
+	 * Constructor that creates the {@link SongPositions} of the given library.
+	 *
+	 * @param library	the library whose songs are kept.
+	 * @requires 		{@code library != null}
+	 */
+	SongPositions(MusicLibrary library) {
+		this.library = library;
+	}
+
+	/**
+	 * Records that the given song was added at the given position, the last one of the library.
+	 *
+	 * @param song		the added song.
+	 * @param position	the position of the song.
+	 * @requires 		{@code song != null && song.getId() != Song.NO_ID && position == library.size() - 1}
+	 */
+	void added(Song song, int position) {
+		int id = song.getId();
+		if (id >= this.positions.length)
+			this.positions = Arrays.copyOf(this.positions, Math.max(id + 1, 2 * this.positions.length));
+		this.positions[id] = position;
+		if (position == this.validPositions)
+			this.validPositions++;
+		if (id <= this.greatestId)
+			this.idOrder = false;
+		this.greatestId = Math.max(this.greatestId, id);
+	}
+
+	/**
+	 * Records that the song at the given position was removed.
+	 *
+	 * @param position	the position of the removed song.
+	 * @requires 		{@code position >= 0}
+	 */
+	void removed(int position) {
+		this.validPositions = Math.min(this.validPositions, position);
+		// uma biblioteca vazia volta a ter os ids pela ordem
+		if (this.library.size() == 0) {
+			this.greatestId = Song.NO_ID;
+			this.idOrder = true;
+		}
+	}
+
+	/**
+	 * Returns the position of the given song in the library.
+	 *
+	 * @param song	the song.
+	 * @requires 	{@code song != null && song is in the library}
+	 * @ensures 	{@code library.get(\result) == song}
+	 * @return 		the position of the song.
+	 */
+	int of(Song song) {
+		int position = this.positions[song.getId()];
+		if (position >= this.validPositions) {
+			for (int i = this.validPositions; i < this.library.size(); i++)
+				this.positions[this.library.get(i).getId()] = i;
+			this.validPositions = this.library.size();
+			position = this.positions[song.getId()];
+		}
+		return position;
+	}
+
+	/**
+	 * Puts the given songs of the library, given by the order of their ids, in library order.
+	 *
+	 * @param songs	the songs, by the order of their ids.
+	 * @requires 	{@code songs != null && every song in songs is in the library}
+	 * @ensures 	{@code \result != null}
+	 * @return 		the same songs, in library order.
+	 */
+	List<Song> inLibraryOrder(List<Song> songs) {
+		if (this.idOrder || songs.size() < 2)
+			return songs;
+		List<Song> sorted = new ArrayList<>(songs);
+		sorted.sort(this.byPosition);
+		return sorted;
+	}
+}
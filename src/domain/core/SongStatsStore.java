@@ -0,0 +1,232 @@
+package domain.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class {@link SongStatsStore} used by a {@link MusicLibrary} to keep the play counts and
+ * the rates of its songs in columns indexed by the id of each song: an {@code int[]} of
+ * play counts and a {@code byte[]} of rate ordinals. A {@link Song} attached to the store
+ * reads and writes its stats through it, so going through the stats of every song, e.g.
+ * to find the most played ones, scans two arrays instead of visiting every song object.
+ *
+ * A song is attached to at most one store. When detached, it keeps its stats again.
+ * This class is not thread-safe, like the songs.
+ */
+public final class SongStatsStore {
+
+	private static final int INITIAL_CAPACITY = 64;
+	private static final Rate[] RATES = Rate.values();
+
+	private Song[] songs = new Song[INITIAL_CAPACITY];
+	private int[] playCounts = new int[INITIAL_CAPACITY];
+	private byte[] rates = new byte[INITIAL_CAPACITY];
+	private int size = 0;
+
+	/**
+	 * Constructor that creates an empty {@link SongStatsStore}. Only a {@link MusicLibrary}
+	 * creates its store; the others read it through {@link MusicLibrary#getStats()}.
+	 */
+	SongStatsStore() {}
+
+	/**
+	 * Attaches the given song to this store, copying its stats to the store. The library
+	 * gives a new id to a song whose id is used, so if another song with the same id is
+	 * attached, the given one is left as it is.
+	 *
+	 * @param song	the song to attach.
+	 * @requires 	{@code song != null && song.getId() != Song.NO_ID && !isUsed(song.getId())}
+	 */
+	void attach(Song song) {
+		int id = song.getId();
+		if (id >= this.songs.length) {
+			int capacity = Math.max(id + 1, 2 * this.songs.length);
+			this.songs = Arrays.copyOf(this.songs, capacity);
+			this.playCounts = Arrays.copyOf(this.playCounts, capacity);
+			this.rates = Arrays.copyOf(this.rates, capacity);
+		}
+		if (this.songs[id] != null)
+			return;
+		this.playCounts[id] = song.getTimesPlayed();
+		this.rates[id] = (byte) song.getRating().ordinal();
+		this.songs[id] = song;
+		this.size++;
+		song.attach(this);
+	}
+
+	/**
+	 * Detaches the given song from this store, giving it back its stats.
+	 *
+	 * @param song	the song to detach.
+	 * @requires 	{@code song != null}
+	 */
+	void detach(Song song) {
+		if (!contains(song))
+			return;
+		int id = song.getId();
+		song.detach(this.playCounts[id], RATES[this.rates[id]]);
+		this.songs[id] = null;
+		this.playCounts[id] = 0;
+		this.rates[id] = 0;
+		this.size--;
+	}
+
+	/**
+	 * Checks if the given song is attached to this store.
+	 *
+	 * @param song	the song.
+	 * @requires 	{@code song != null}
+	 * @return 		true if the song is attached to this store, false otherwise.
+	 */
+	boolean contains(Song song) {
+		int id = song.getId();
+		return id >= 0 && id < this.songs.length && this.songs[id] == song;
+	}
+
+	/**
+	 * Checks if some song with the given id is attached to this store.
+	 *
+	 * @param id	the id.
+	 * @requires 	{@code id >= 0}
+	 * @return 		true if a song with the id is attached to this store, false otherwise.
+	 */
+	boolean isUsed(int id) {
+		return id < this.songs.length && this.songs[id] != null;
+	}
+
+	int getPlayCount(int id) {
+		return this.playCounts[id];
+	}
+
+	void incPlayCount(int id) {
+		this.playCounts[id]++;
+	}
+
+	Rate getRate(int id) {
+		return RATES[this.rates[id]];
+	}
+
+	void setRate(int id, Rate rate) {
+		this.rates[id] = (byte) rate.ordinal();
+	}
+
+	/**
+	 * Returns the number of songs attached to this store.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of songs attached to this store.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the number of songs with each rate.
+	 *
+	 * @ensures {@code \result.length == Rate.values().length}
+	 * @return 	an array with the number of songs of each rate, by the ordinal of the rate.
+	 */
+	public int[] getRateHistogram() {
+		int[] histogram = new int[RATES.length];
+		for (int id = 0; id < this.songs.length; id++)
+			if (this.songs[id] != null)
+				histogram[this.rates[id]]++;
+		return histogram;
+	}
+
+	/**
+	 * Returns the number of times all the songs were played.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the sum of the play counts of the songs.
+	 */
+	public long getTotalPlays() {
+		long total = 0;
+		// as posicoes livres tem sempre 0
+		for (int count : this.playCounts)
+			total += count;
+		return total;
+	}
+
+	/**
+	 * Returns the given number of most played songs, that were played at least once,
+	 * from the most played to the least. Songs played the same number of times are
+	 * ordered by their ids.
+	 *
+	 * @param amount	the maximum number of songs.
+	 * @requires 		{@code amount >= 0}
+	 * @ensures 		{@code \result.size() <= amount}
+	 * @return 			the most played songs.
+	 */
+	public List<Song> getMostPlayed(int amount) {
+		// heap com os melhores ids encontrados, com o pior na raiz
+		int[] heap = new int[amount];
+		int heapSize = 0;
+		for (int id = 0; id < this.playCounts.length; id++) {
+			if (this.playCounts[id] == 0)
+				continue;
+			if (heapSize < amount) {
+				heap[heapSize] = id;
+				siftUp(heap, heapSize++);
+			} else if (amount > 0 && before(id, heap[0])) {
+				heap[0] = id;
+				siftDown(heap, heapSize);
+			}
+		}
+		Song[] result = new Song[heapSize];
+		for (int i = heapSize - 1; i >= 0; i--) {
+			result[i] = this.songs[heap[0]];
+			heap[0] = heap[i];
+			siftDown(heap, i);
+		}
+		return new ArrayList<>(Arrays.asList(result));
+	}
+
+	/**
+	 * Auxiliary method that checks if the song with the first id comes before the song
+	 * with the second one, in the order of the most played songs.
+	 */
+	private boolean before(int id, int other) {
+		int count = this.playCounts[id];
+		int otherCount = this.playCounts[other];
+		return count > otherCount || (count == otherCount && id < other);
+	}
+
+	private void siftUp(int[] heap, int index) {
+		int i = index;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!before(heap[parent], heap[i]))
+				return;
+			swap(heap, i, parent);
+			i = parent;
+		}
+	}
+
+	private void siftDown(int[] heap, int size) {
+		int i = 0;
+		while (true) {
+			int worst = i;
+			int left = 2 * i + 1;
+			int right = left + 1;
+			if (left < size && before(heap[worst], heap[left]))
+				worst = left;
+			if (right < size && before(heap[worst], heap[right]))
+				worst = right;
+			if (worst == i)
+				return;
+			swap(heap, i, worst);
+			i = worst;
+		}
+	}
+
+	private static void swap(int[] heap, int i, int j) {
+		int tmp = heap[i];
+		heap[i] = heap[j];
+		heap[j] = tmp;
+	}
+}
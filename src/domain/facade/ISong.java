@@ -1,6 +1,7 @@
 package domain.facade;
 
 import java.util.List;
+import java.util.regex.Pattern;
 
 import domain.core.Rate;
 
@@ -61,13 +62,36 @@ public interface ISong {
 	String getGenre();
 
 	/**
-	 * Returns the artist list of the song
+	 * Returns the artist list of the song, which can't be modified
 	 * 
 	 * @return the song's artists list
 	 * @ensures \result != null
 	 */
 	List<String> getArtists();
 
+	/**
+	 * Returns the number of artists of the song
+	 * 
+	 * @return the number of artists of the song
+	 * @ensures \result >= 0
+	 */
+	default int artistCount() {
+		return getArtists().size();
+	}
+
+	/**
+	 * Returns the artist of the song in the given position, without creating
+	 * any list
+	 * 
+	 * @param i the position of the artist
+	 * @return the name of the artist in the given position
+	 * @requires 0 <= i < artistCount()
+	 * @ensures \result != null
+	 */
+	default String artist(int i) {
+		return getArtists().get(i);
+	}
+
 	/**
 	 * Returns the album name of the song
 	 * 
@@ -92,4 +116,13 @@ public interface ISong {
 	 * @return whether some data of the song matches with the given regexp
 	 */
 	boolean matches(String regexp);
+
+	/**
+	 * Checks if any song data matches the given compiled regular expression
+	 *  
+	 * @param pattern the compiled regular expression to be used
+	 * @requires pattern != null
+	 * @return whether some data of the song matches with the given pattern
+	 */
+	boolean matches(Pattern pattern);
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package domain.facade;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ * 
+ * Record {@link ImportProgress} used to report the progress of a bulk import of songs
+ * made by {@link MusicLibraryController#addSongs(java.nio.file.Path)}.
+ * 
+ * @param total			the number of files found to import.
+ * @param processed		the number of files already processed.
+ * @param imported		the number of files imported into the library.
+ * @param failed		the number of files whose meta-info could not be loaded.
+ * @param elapsedNanos	the time elapsed since the import started, in nanoseconds.
+ * @requires {@code 0 <= imported + failed == processed <= total && elapsedNanos >= 0}
+ */
+public record ImportProgress(int total, int processed, int imported, int failed, long elapsedNanos) {
+
+	/**
+	 * Returns the number of files processed per second since the import started.
+	 * 
+	 * @ensures {@code \result >= 0}
+	 * @return 	the throughput of the import, in files per second.
+	 */
+	public double filesPerSecond() {
+		return this.elapsedNanos == 0 ? 0 : this.processed * 1e9 / this.elapsedNanos;
+	}
+
+	/**
+	 * Checks if every file was already processed.
+	 * 
+	 * @return true if every file was processed, false otherwise.
+	 */
+	public boolean isDone() {
+		return this.processed == this.total;
+	}
+}
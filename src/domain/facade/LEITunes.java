@@ -1,26 +1,63 @@
 package domain.facade;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 import domain.core.MusicLibrary;
 import domain.playlists.PlaylistList;
+import servicos.LibraryStore;
+import servicos.MetaInfoCache;
+import servicos.MetaInfoLoader;
+import util.metrics.Metrics;
 
 /**
  * @author 58180 Rodrigo Correia
  * @author 58188 Laura Cunha
- * 
+ *
  * Class that obtains the inicial object of the system.
- * Contains a {@link MusicLibrary}, a {@link PlaylistList}, a {@link MusicLibraryController} 
+ * Contains a {@link MusicLibrary}, a {@link PlaylistList}, a {@link MusicLibraryController}
  * and a {@link PlaylistListController}.
  */
 public class LEITunes {
 
 	private final MusicLibrary library = new MusicLibrary();
 	private final PlaylistList playlistList = new PlaylistList(library);
-	private final MusicLibraryController musicLibraryController = new MusicLibraryController(library);
 	private final PlaylistListController playlistController = new PlaylistListController(playlistList, library);
+	private final MusicLibraryController musicLibraryController;
+	private final MetaInfoCache metaInfoCache;
+	private final LibraryStore store;
+
+	private static final String META_INFO_CACHE_FILE = "metainfo.cache";
+
+	/**
+	 * Constructor that creates a {@link LEITunes} whose library and playlists are
+	 * not persisted.
+	 */
+	public LEITunes() {
+		this.metaInfoCache = new MetaInfoCache();
+		this.musicLibraryController = new MusicLibraryController(library, new MetaInfoLoader(this.metaInfoCache));
+		this.store = null;
+	}
+
+	/**
+	 * Constructor that creates a {@link LEITunes} whose library and manual playlists are
+	 * loaded from, and saved to, the store in the given directory. The metainfo of the
+	 * added files is also cached in that directory, so unchanged files are not parsed again.
+	 *
+	 * @param storeDirectory	the directory of the store.
+	 * @requires 				{@code storeDirectory != null}
+	 * @throws IOException		if the store could not be opened or read.
+	 */
+	public LEITunes(Path storeDirectory) throws IOException {
+		this.store = new LibraryStore(storeDirectory);
+		this.metaInfoCache = new MetaInfoCache(storeDirectory.resolve(META_INFO_CACHE_FILE));
+		this.musicLibraryController = new MusicLibraryController(library, new MetaInfoLoader(this.metaInfoCache));
+		this.store.load(this.library, this.playlistList);
+	}
 
 	/**
 	 * Gets the {@link MusicLibraryController}.
-	 * 
+	 *
 	 * @ensures {@code \result != null}.
 	 * @return 	the {@link MusicLibraryController}.
 	 */
@@ -30,11 +67,91 @@ public class LEITunes {
 
 	/**
 	 * Gets the {@link MusicLibraryController}.
-	 * 
+	 *
 	 * @ensures {@code \result != null}.
 	 * @return	the {@link PlaylistListController}.
 	 */
 	public PlaylistListController getPlaylistController() {
 		return playlistController;
 	}
+
+	/**
+	 * Saves every change made to the library and to the manual playlists since the last
+	 * save, if this {@link LEITunes} is persisted, otherwise does nothing.
+	 *
+	 * @throws IOException	if the changes could not be written.
+	 */
+	public synchronized void save() throws IOException {
+		if (this.store != null) {
+			IOException failure = null;
+			try {
+				this.store.commit();
+			} catch (IOException e) {
+				failure = e;
+			}
+			saveCache(failure);
+		}
+	}
+
+	/**
+	 * Saves every change made to the library and to the manual playlists since the last
+	 * save, without the cache of metainfo, if this {@link LEITunes} is persisted, otherwise
+	 * does nothing. It only writes the changes, so it can be called often, e.g. every few
+	 * seconds, for the changes not to be lost if the application is killed.
+	 *
+	 * @throws IOException	if the changes could not be written.
+	 */
+	public synchronized void commit() throws IOException {
+		if (this.store != null)
+			this.store.commit();
+	}
+
+	/**
+	 * Saves every change and closes the store, if this {@link LEITunes} is persisted,
+	 * otherwise does nothing. After closing, changes are no longer saved. The cache of
+	 * metainfo is saved even if the store could not be closed.
+	 *
+	 * @throws IOException	if the changes could not be written.
+	 */
+	public synchronized void close() throws IOException {
+		if (this.store != null) {
+			IOException failure = null;
+			try {
+				this.store.close();
+			} catch (IOException e) {
+				failure = e;
+			}
+			saveCache(failure);
+		}
+	}
+
+	/**
+	 * Auxiliary method that saves the cache of metainfo and then throws the given
+	 * failure of the store, if any, with the failure of the cache suppressed in it.
+	 */
+	private void saveCache(IOException failure) throws IOException {
+		try {
+			this.metaInfoCache.save();
+		} catch (IOException e) {
+			if (failure == null)
+				throw e;
+			failure.addSuppressed(e);
+		}
+		if (failure != null)
+			throw failure;
+	}
+
+	/**
+	 * Writes the metrics of the application (time taken by the listeners of the events,
+	 * by the searches, by reading the tags of the files, by loading the songs and by
+	 * refilling the smart playlists) to the given file, as JSON if its name ends with
+	 * {@code .json}, otherwise in the text format of Prometheus.
+	 *
+	 * @param file			the file.
+	 * @requires 			{@code file != null}
+	 * @throws IOException	if the file could not be written.
+	 */
+	public void exportMetrics(Path file) throws IOException {
+		Metrics.INSTANCE.export(file);
+	}
 }
@@ -1,12 +1,30 @@
 package domain.facade;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
+import domain.core.Facet;
 import domain.core.MusicLibrary;
 import domain.core.Song;
+import domain.core.SongLibraryEvent;
 import domain.core.SongMetaInfo;
 import servicos.MetaInfoLoader;
+import util.observer.Listener;
 
 /**
  * @author 58180 Rodrigo Correia
@@ -17,9 +35,14 @@ import servicos.MetaInfoLoader;
  */
 public class MusicLibraryController {
 
+	// number of songs committed to the library at once by a bulk import
+	private static final int IMPORT_BATCH_SIZE = 512;
+	// the parsing is I/O bound, so more workers than cores are used
+	private static final int IMPORT_THREADS = Math.min(32, 2 * Runtime.getRuntime().availableProcessors());
+
 	private final Logger logger = Logger.getLogger("LEITunes");
 	private final MusicLibrary library;
-	private final MetaInfoLoader metaInfoLoader = new MetaInfoLoader();
+	private final MetaInfoLoader metaInfoLoader;
 
 	/**
 	 * Constructor of the class {@link MusicLibraryController}.
@@ -28,7 +51,20 @@ public class MusicLibraryController {
 	 * @requires 		{@code library != null}
 	 */
 	public MusicLibraryController(MusicLibrary library) {
+		this(library, new MetaInfoLoader());
+	}
+
+	/**
+	 * Constructor of the class {@link MusicLibraryController} that loads the metainfo
+	 * of the songs with the given {@link MetaInfoLoader}.
+	 * 
+	 * @param library			the given {@link MusicLibrary} for controll the interactions.
+	 * @param metaInfoLoader	the loader of the metainfo of the added songs.
+	 * @requires 				{@code library != null && metaInfoLoader != null}
+	 */
+	public MusicLibraryController(MusicLibrary library, MetaInfoLoader metaInfoLoader) {
 		this.library = library;
+		this.metaInfoLoader = metaInfoLoader;
 	}
 
 	/**
@@ -49,6 +85,7 @@ public class MusicLibraryController {
 	 * @requires 			{@code filename} is an mp3 file && {@code filename != null}
 	 */
 	public void addSong(String filename) {
+		this.metaInfoLoader.getCache().ensureCapacity(this.library.size() + 1);
 		SongMetaInfo meta = this.metaInfoLoader.load(filename);
 		if(meta == null) {
 			this.logger.severe(() -> "Failed to load file meta-info " + filename);
@@ -58,6 +95,101 @@ public class MusicLibraryController {
 		this.library.add(song);
 	}
 
+	/**
+	 * Adds every loadable song found under the given directory to the controlled
+	 * {@link MusicLibrary}, logging the progress of the import.
+	 * 
+	 * @param root			the directory to import.
+	 * @requires 			{@code root != null}
+	 * @ensures 			{@code \result != null && \result.isDone()}
+	 * @return 				the final progress of the import.
+	 * @throws IOException	if the directory could not be walked.
+	 */
+	public ImportProgress addSongs(Path root) throws IOException {
+		return addSongs(root, p -> this.logger.info(() -> String.format("Imported %d of %d files (%.1f files/s)",
+				p.processed(), p.total(), p.filesPerSecond())));
+	}
+
+	/**
+	 * Adds every loadable song found under the given directory to the controlled
+	 * {@link MusicLibrary}. The meta-info of the files is loaded by a bounded pool of
+	 * workers and the songs are added to the library in batches, in the order the
+	 * files were found, each batch emitting a single event. Files whose meta-info can't
+	 * be loaded are skipped.
+	 * 
+	 * @param root			the directory to import.
+	 * @param progress		the consumer of the progress, called after each batch.
+	 * @requires 			{@code root != null && progress != null}
+	 * @ensures 			{@code \result != null && \result.isDone()}
+	 * @return 				the final progress of the import.
+	 * @throws IOException	if the directory could not be walked.
+	 */
+	public ImportProgress addSongs(Path root, Consumer<ImportProgress> progress) throws IOException {
+		long start = System.nanoTime();
+		List<String> files;
+		try (Stream<Path> walk = Files.walk(root)) {
+			files = walk.filter(Files::isRegularFile)
+						.map(Path::toString)
+						.filter(this.metaInfoLoader::canLoad)
+						.sorted()
+						.toList();
+		}
+		// a cache guarda a metainfo de todas as musicas, para nao as ler de novo
+		this.metaInfoLoader.getCache().ensureCapacity(this.library.size() + files.size());
+		ExecutorService workers = Executors.newFixedThreadPool(IMPORT_THREADS);
+		try {
+			Deque<Future<SongMetaInfo>> pending = new ArrayDeque<>();
+			List<Song> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+			int next = 0;
+			int processed = 0;
+			int imported = 0;
+			int failed = 0;
+			ImportProgress current = new ImportProgress(files.size(), 0, 0, 0, 0);
+			while (processed < files.size()) {
+				// mantem no maximo dois lotes em leitura, para limitar a memoria usada
+				while (next < files.size() && pending.size() < 2 * IMPORT_BATCH_SIZE) {
+					String file = files.get(next++);
+					pending.add(workers.submit(() -> this.metaInfoLoader.load(file)));
+				}
+				String filename = files.get(processed);
+				SongMetaInfo meta = await(pending.poll(), filename);
+				processed++;
+				if (meta == null) {
+					failed++;
+					this.logger.severe(() -> "Failed to load file meta-info " + filename);
+				} else {
+					batch.add(new Song(meta, filename));
+					imported++;
+				}
+				if (batch.size() == IMPORT_BATCH_SIZE || processed == files.size()) {
+					this.library.addAll(batch);
+					batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+					current = new ImportProgress(files.size(), processed, imported, failed, System.nanoTime() - start);
+					progress.accept(current);
+				}
+			}
+			return current;
+		} finally {
+			workers.shutdownNow();
+		}
+	}
+
+	/**
+	 * Auxiliary method that waits for the meta-info of a file, returning null if it
+	 * could not be loaded.
+	 */
+	private SongMetaInfo await(Future<SongMetaInfo> future, String filename) {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			this.logger.severe(() -> "Error loading " + filename + ": " + e.getCause());
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Import interrupted", e);
+		}
+	}
+
 	/**
 	 * Sends the request of selection to the controlled {@link MusicLibrary}, only 
 	 * if {@code 0 <= i <= numberOfSongs()}, otherwise don't do nothing.
@@ -69,6 +201,17 @@ public class MusicLibraryController {
 			this.library.select(i);
 	}
 
+	/**
+	 * Selects the given song in the controlled {@link MusicLibrary}, if it is there,
+	 * otherwise don't do nothing.
+	 * 
+	 * @param song	the song to be selected.
+	 * @requires 	{@code song != null}
+	 */
+	public void selectSong(ISong song) {
+		selectSong(this.library.indexOf(song));
+	}
+
 	/**
 	 * Gets the song selected in the controlled {@link MusicLibrary}, if exists.
 	 * 
@@ -143,6 +286,22 @@ public class MusicLibraryController {
 		return this.library.getMatches(reexp);
 	}
 
+	/**
+	 * Returns an iterator structure with the songs of the controlled {@link MusicLibrary}
+	 * that contains the words of the given query. Words separated by whitespace must all
+	 * be present, {@code OR} separates alternatives and a word ending with {@code *} is
+	 * matched as a prefix.
+	 * 
+	 * @param query		the given query.
+	 * @requires		{@code query != null}
+	 * @ensures			{@code \result != null}
+	 * @return			an iterator with the songs of the controlled {@link MusicLibrary} that
+	 * 					satisfy the given query.
+	 */
+	public Iterable<ISong> getTokenMatches(String query) {
+		return this.library.getTokenMatches(query);
+	}
+
 	/**
 	 * Returns an iterator structure with the songs of the controlled {@link MusicLibrary}.
 	 * 
@@ -152,7 +311,123 @@ public class MusicLibraryController {
 	public Iterable<ISong> getSongs() {
 		return this.library.getSongs();
 	}
-	
+
+	/**
+	 * Returns the song at the given position of the controlled {@link MusicLibrary},
+	 * without going through the songs before it.
+	 * 
+	 * @param i		the position of the song.
+	 * @requires	{@code 0 <= i < numberOfSongs()}
+	 * @ensures		{@code \result != null}
+	 * @return 		the song at the given position.
+	 */
+	public ISong getSong(int i) {
+		return this.library.get(i);
+	}
+
+	/**
+	 * Returns the genres of the songs of the controlled {@link MusicLibrary}, sorted,
+	 * with the number of songs of each genre.
+	 * 
+	 * @ensures {@code \result != null}
+	 * @return 	an unmodifiable map from each genre to its number of songs.
+	 */
+	public Map<String, Integer> getGenres() {
+		return this.library.getFacetValues(Facet.GENRE);
+	}
+
+	/**
+	 * Returns the artists of the songs of the controlled {@link MusicLibrary}, sorted,
+	 * with the number of songs of each artist.
+	 * 
+	 * @ensures {@code \result != null}
+	 * @return 	an unmodifiable map from each artist to its number of songs.
+	 */
+	public Map<String, Integer> getAuthors() {
+		return this.library.getFacetValues(Facet.ARTIST);
+	}
+
+	/**
+	 * Returns the albums of the songs of the controlled {@link MusicLibrary}, sorted,
+	 * with the number of songs of each album.
+	 * 
+	 * @ensures {@code \result != null}
+	 * @return 	an unmodifiable map from each album to its number of songs.
+	 */
+	public Map<String, Integer> getAlbums() {
+		return this.library.getFacetValues(Facet.ALBUM);
+	}
+
+	/**
+	 * Returns the songs of the given genre in the controlled {@link MusicLibrary}.
+	 * 
+	 * @param genre	the genre.
+	 * @requires 	{@code genre != null}
+	 * @ensures 	{@code \result != null}
+	 * @return 		an unmodifiable list with the songs of the genre.
+	 */
+	public List<ISong> getSongsOfGenre(String genre) {
+		return this.library.getFacetSongs(Facet.GENRE, genre);
+	}
+
+	/**
+	 * Returns the songs of the given artist in the controlled {@link MusicLibrary}.
+	 * 
+	 * @param author	the artist.
+	 * @requires 		{@code author != null}
+	 * @ensures 		{@code \result != null}
+	 * @return 			an unmodifiable list with the songs of the artist.
+	 */
+	public List<ISong> getSongsOfAuthor(String author) {
+		return this.library.getFacetSongs(Facet.ARTIST, author);
+	}
+
+	/**
+	 * Returns the songs of the given album in the controlled {@link MusicLibrary}.
+	 * 
+	 * @param album	the album.
+	 * @requires 	{@code album != null}
+	 * @ensures 	{@code \result != null}
+	 * @return 		an unmodifiable list with the songs of the album.
+	 */
+	public List<ISong> getSongsOfAlbum(String album) {
+		return this.library.getFacetSongs(Facet.ALBUM, album);
+	}
+
+	/**
+	 * Registers a listener of the changes of the controlled {@link MusicLibrary}, used
+	 * by views that show its songs to be updated.
+	 * 
+	 * @param listener	the listener.
+	 * @requires		{@code listener != null}
+	 */
+	public void registerListener(Listener<SongLibraryEvent> listener) {
+		this.library.registerListener(listener);
+	}
+
+	/**
+	 * Removes a listener registered with {@link #registerListener(Listener)}.
+	 * 
+	 * @param listener	the listener.
+	 * @requires		{@code listener != null}
+	 */
+	public void unregisterListener(Listener<SongLibraryEvent> listener) {
+		this.library.unregisterListener(listener);
+	}
+
+	/**
+	 * Collapses the rate changes of each song of the controlled {@link MusicLibrary},
+	 * made within the given window of time, into a single event, emitted through the
+	 * given executor as soon as the window ends.
+	 * 
+	 * @param windowMillis	the window of time, in milliseconds, or 0 to emit every change.
+	 * @param owner			the executor of the thread that changes the library.
+	 * @requires			{@code windowMillis >= 0 && owner != null}
+	 * @see MusicLibrary#setRateCoalescingWindow(long, Executor)
+	 */
+	public void setRateCoalescingWindow(long windowMillis, Executor owner) {
+		this.library.setRateCoalescingWindow(windowMillis, owner);
+	}
 
 	@Override
 	public String toString() {
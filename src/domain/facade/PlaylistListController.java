@@ -7,6 +7,9 @@ import domain.core.Song;
 import domain.playlists.ManualPlaylist;
 import domain.playlists.Playlist;
 import domain.playlists.PlaylistList;
+import domain.playlists.RuleBasedPlaylist;
+import domain.playlists.SongRule;
+import domain.playlists.SongRules;
 
 /**
  * @author 58180 Rodrigo Correia
@@ -43,6 +46,19 @@ public class PlaylistListController {
 		this.playlists.add(new ManualPlaylist(name, this.library));
 	}
 
+	/**
+	 * Inserts a new {@link RuleBasedPlaylist} with the given name and rule on the controlled
+	 * {@link PlaylistList}, and becomes the selected playlist. The playlist has the songs of
+	 * the library that satisfy the rule, and is kept up to date as the songs change.
+	 * 
+	 * @param name		the given name for the new {@link RuleBasedPlaylist} created.
+	 * @param rule		the rule the songs of the playlist satisfy, created with {@link SongRules}.
+	 * @requires 		{@code name != null && rule != null}
+	 */
+	public void createSmartPlaylist(String name, SongRule rule) {
+		this.playlists.add(new RuleBasedPlaylist(name, this.library, rule));
+	}
+
 	/**
 	 * Selects the {@link Playlist} on the given index of the {@link PlaylistList},
 	 * only if {@code 0 <= i <= size()}, otherwise do nothing.
@@ -105,6 +121,18 @@ public class PlaylistListController {
 		return getSelectedPlaylist().size();
 	}
 
+	/**
+	 * Gets the song at the given position of the selected {@link Playlist}.
+	 *
+	 * @param i		the position of the song.
+	 * @requires	{@code somePlaylistSelected() && 0 <= i < numberOfSongs()}
+	 * @ensures 	{@code \result != null}
+	 * @return 		the song at the given position.
+	 */
+	public ISong getSong(int i) {
+		return getSelectedPlaylist().get(i);
+	}
+
 	/**
 	 * Add the selected song in the library of the selected {@link Playlist} (if is possible).
 	 * This {@link Song} becomes the selected one. 
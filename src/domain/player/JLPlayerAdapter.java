@@ -4,15 +4,36 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import servicos.JLPlayer;
+import servicos.PlaybackStats;
+import util.metrics.Counter;
+import util.metrics.Metrics;
 
 /**
  * @author fmartins
  * @author malopes 
  * Adapter for the external mp3 player. This is a singleton class.
  * 
+ * The next songs hinted by {@link #prefetch(List)} are opened, their first bytes
+ * buffered and their mp3 player created, paused, in a background thread, so that
+ * loading one of them is immediate. Loading a song discards the prepared songs that
+ * come before it, or all of them if it was not prepared. The prepared players are
+ * waited for, or discarded, outside the monitor of the adapter, so a slow file never
+ * blocks the threads that load or hint songs.
  */
 public enum JLPlayerAdapter implements Player {
 
@@ -20,6 +41,13 @@ public enum JLPlayerAdapter implements Player {
 	 * The singleton player
 	 */
 	 INSTANCE;
+
+	private static final Counter PREFETCH_HITS = Metrics.INSTANCE.counter("leitunes_player_prefetch_total",
+			"Number of songs loaded, by whether they were prepared in advance", "result", "hit");
+	private static final Counter PREFETCH_MISSES = Metrics.INSTANCE.counter("leitunes_player_prefetch_total",
+			"Number of songs loaded, by whether they were prepared in advance", "result", "miss");
+	private static final Counter PREFETCH_DISCARDS = Metrics.INSTANCE.counter("leitunes_player_prefetch_discarded_total",
+			"Number of songs prepared in advance that were not played");
 	
 	/**
 	 * The reference for the external mp3Player
@@ -31,12 +59,32 @@ public enum JLPlayerAdapter implements Player {
 	 */	
 	private PropertyChangeSupport listenerManager = new PropertyChangeSupport(this); 
 
-	
+	/**
+	 * The songs being prepared, by filename, in the order they will be played
+	 */
+	private final Map<String, Future<JLPlayer>> prefetched = new LinkedHashMap<>();
+
+	/**
+	 * The thread where the next songs are prepared
+	 */
+	private final ExecutorService prefetcher = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "LEITunes-prefetch");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private int prefetchDepth = 1;
+	private int prefetchBufferSize = 256 * 1024;
+
 	@Override
 	public boolean load(String filename) {
+		long start = System.nanoTime();
     	try {
     		stop();
-			mp3Player = new JLPlayer(new BufferedInputStream(new FileInputStream(filename)), this);
+    		JLPlayer next = await(takePrefetched(filename));
+    		(next != null ? PREFETCH_HITS : PREFETCH_MISSES).inc();
+			mp3Player = next != null ? next : new JLPlayer(openStream(filename), this);
+			mp3Player.loaded(start);
 		} catch (Exception e) {
 			System.out.println("Somethig went wrong. Did not load song in" + filename);
 			return false;
@@ -44,6 +92,131 @@ public enum JLPlayerAdapter implements Player {
 		return true;
 	}
 
+	@Override
+	public void prefetch(List<String> filenames) {
+		List<Future<JLPlayer>> unwanted = new ArrayList<>();
+		synchronized (this) {
+			List<String> wanted = filenames.subList(0, Math.min(this.prefetchDepth, filenames.size()));
+			Iterator<Map.Entry<String, Future<JLPlayer>>> it = this.prefetched.entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry<String, Future<JLPlayer>> entry = it.next();
+				if (!wanted.contains(entry.getKey())) {
+					unwanted.add(entry.getValue());
+					it.remove();
+				}
+			}
+			for (String filename : wanted) {
+				if (!this.prefetched.containsKey(filename)) {
+					int bufferSize = this.prefetchBufferSize;
+					this.prefetched.put(filename, this.prefetcher.submit(() -> new JLPlayer(openStream(filename, bufferSize), this)));
+				}
+			}
+		}
+		discard(unwanted);
+	}
+
+	/**
+	 * Sets the number of next songs that are prepared in advance. With 0 no song is
+	 * prepared.
+	 * 
+	 * @param depth the number of songs prepared in advance
+	 * @requires depth >= 0
+	 */
+	public synchronized void setPrefetchDepth(int depth) {
+		this.prefetchDepth = depth;
+	}
+
+	/**
+	 * Sets the number of bytes read in advance from each song that is prepared.
+	 * 
+	 * @param bufferSize the number of bytes read in advance
+	 * @requires bufferSize >= 0
+	 */
+	public synchronized void setPrefetchBufferSize(int bufferSize) {
+		this.prefetchBufferSize = bufferSize;
+	}
+
+	/**
+	 * Returns the filenames of the songs being prepared, in the order they will be played.
+	 * 
+	 * @return the filenames of the songs being prepared
+	 */
+	synchronized List<String> getPrefetched() {
+		return new ArrayList<>(this.prefetched.keySet());
+	}
+
+	/**
+	 * Takes the preparation of the given file, if there is one, and discards the
+	 * preparations of the songs before it, or of every song if it is not being prepared.
+	 */
+	private Future<JLPlayer> takePrefetched(String filename) {
+		List<Future<JLPlayer>> unwanted = new ArrayList<>();
+		Future<JLPlayer> future = null;
+		synchronized (this) {
+			Iterator<Map.Entry<String, Future<JLPlayer>>> it = this.prefetched.entrySet().iterator();
+			while (it.hasNext() && future == null) {
+				Map.Entry<String, Future<JLPlayer>> entry = it.next();
+				it.remove();
+				if (entry.getKey().equals(filename))
+					future = entry.getValue();
+				else
+					unwanted.add(entry.getValue());
+			}
+		}
+		discard(unwanted);
+		return future;
+	}
+
+	/**
+	 * Waits for a prepared player, returning null if there is none or its preparation failed.
+	 */
+	private static JLPlayer await(Future<JLPlayer> future) {
+		if (future == null)
+			return null;
+		try {
+			return future.get();
+		} catch (Exception e) {
+			// a preparacao falhou, o ficheiro e aberto de novo
+			return null;
+		}
+	}
+
+	/**
+	 * Discards prepared players that will not be played.
+	 */
+	private static void discard(List<Future<JLPlayer>> futures) {
+		for (Future<JLPlayer> future : futures) {
+			PREFETCH_DISCARDS.inc();
+			if (future.cancel(false))
+				continue;
+			JLPlayer player = await(future);
+			if (player != null)
+				player.discard();
+		}
+	}
+
+	/**
+	 * Opens the file with the given filename.
+	 */
+	private InputStream openStream(String filename) throws IOException {
+		return new BufferedInputStream(new FileInputStream(filename));
+	}
+
+	/**
+	 * Opens the file with the given filename, reading in advance the given number of
+	 * its first bytes.
+	 */
+	private InputStream openStream(String filename, int bufferSize) throws IOException {
+		FileInputStream file = new FileInputStream(filename);
+		try {
+			byte[] head = file.readNBytes(bufferSize);
+			return new BufferedInputStream(new SequenceInputStream(new ByteArrayInputStream(head), file));
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
 	@Override
 	public void play() {
 		if (mp3Player != null)
@@ -62,6 +235,17 @@ public enum JLPlayerAdapter implements Player {
 			mp3Player.stop();
 	}
 
+	/**
+	 * Returns the metrics of the playback of the loaded song.
+	 * 
+	 * @return the frames decoded, the time spent playing and the CPU time used to decode
+	 * 		   the loaded song, or null if no song was loaded.
+	 */
+	public PlaybackStats getPlaybackStats() {
+		JLPlayer current = mp3Player;
+		return current == null ? null : current.getStats();
+	}
+
 	@Override
 	public void hasEndedSong() {
 		PropertyChangeEvent event = new PropertyChangeEvent(this, "playingState", Player.PlayingState.ON, Player.PlayingState.ENDED);
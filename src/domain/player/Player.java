@@ -1,5 +1,7 @@
 package domain.player;
 
+import java.util.List;
+
 import util.observer.PropertyObservable;
 
 /**
@@ -36,6 +38,15 @@ public interface Player extends PropertyObservable{
      */
     public void stop ();
     
+    /**
+     * Hints the songs that will be loaded next, in order, so that they can be prepared
+     * while the current one plays. By default does nothing.
+     * @param filenames the filenames of the next songs
+     * @requires filenames != null
+     */
+    public default void prefetch (List<String> filenames) {
+    }
+
     /**
      * Notifies listeners that playing song was stopped  
      */
@@ -1,9 +1,14 @@
 package domain.playlists;
 
 import java.beans.PropertyChangeEvent;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
 
 import domain.core.MusicLibrary;
 import domain.core.Song;
@@ -12,6 +17,7 @@ import domain.core.SongRemovedLibraryEvent;
 import domain.facade.ISong;
 import domain.player.Player;
 import domain.player.PlayerFactory;
+import util.adts.IndexedTreeList;
 
 /**
  * @author 58180 Rodrigo Correia
@@ -19,10 +25,24 @@ import domain.player.PlayerFactory;
  * 
  * Abstract class with a skeleton implementation of {@link Playlist} interface's, providing 
  * by default an implementation of all methods of the {@link Playlist}.
+ * 
+ * Next to the list of songs, each playlist keeps the position of each song, by identity,
+ * so membership is checked in O(1). When the songs are kept in an {@link IndexedTreeList},
+ * it keeps the node of each song instead, whose position is found in O(log n) after any
+ * change; otherwise the positions after a change in the middle of the list are only
+ * recomputed when some of them is needed.
  */
 public abstract class AbsPlaylist implements Playlist {
 
-	private final List<ISong> songList = new ArrayList<>();
+	private final List<ISong> songList;
+	// vista so de leitura, para as musicas so serem removidas por delete
+	private final List<ISong> readOnlySongs;
+	// a mesma lista que songList, quando e uma arvore
+	private final IndexedTreeList<ISong> tree;
+	private final Map<ISong, IndexedTreeList.Node<ISong>> nodes = new IdentityHashMap<>();
+	private final Map<ISong, Integer> positions = new IdentityHashMap<>();
+	// the positions of the songs before this index are up to date, the others may be stale
+	private int validPositions = 0;
 	private final String name;
 	private final MusicLibrary library;
 	private final Player player = PlayerFactory.INSTANCE.getPlayer();
@@ -41,11 +61,26 @@ public abstract class AbsPlaylist implements Playlist {
 	protected AbsPlaylist(String name, MusicLibrary library) {
 		this.name = name;
 		this.library = library;
+		this.songList = createList();
+		this.readOnlySongs = Collections.unmodifiableList(this.songList);
+		this.tree = this.songList instanceof IndexedTreeList ? (IndexedTreeList<ISong>) this.songList : null;
+	}
+
+	/**
+	 * Creates the list that keeps the songs of this playlist. By default it is an
+	 * {@link ArrayList}, the subclasses whose songs are often inserted, removed or
+	 * moved in the middle can use a list where those changes are cheaper.
+	 * 
+	 * @ensures 	{@code \result != null && \result.isEmpty()}
+	 * @return 		the list that keeps the songs of this playlist.
+	 */
+	protected List<ISong> createList() {
+		return new ArrayList<>();
 	}
 
 	@Override
 	public Iterator<ISong> iterator() {
-		return this.songList.iterator();
+		return this.readOnlySongs.iterator();
 	}
 
 	@Override
@@ -53,6 +88,11 @@ public abstract class AbsPlaylist implements Playlist {
 		return this.songList.size();
 	}
 
+	@Override
+	public ISong get(int i) {
+		return this.songList.get(i);
+	}
+
 	@Override
 	public ISong getSelected() {
 		return this.songList.get(this.indexSelected);
@@ -65,23 +105,100 @@ public abstract class AbsPlaylist implements Playlist {
 
 	@Override
 	public boolean add(ISong song) {
-		if(this.songList.contains(song))
+		if(contains(song))
 			return false;
-		this.songList.add(song);
+		insert(this.songList.size(), song);
 		this.indexSelected = this.songList.size() - 1;
 		return true;
 	}
 
+	/**
+	 * Checks if the given song is in this playlist, by identity.
+	 * 
+	 * @param song	the song to check.
+	 * @return 		true if the song is in this playlist, false otherwise.
+	 */
+	protected boolean contains(ISong song) {
+		return this.tree != null ? this.nodes.containsKey(song) : this.positions.containsKey(song);
+	}
+
+	/**
+	 * Returns the position of the given song in this playlist, by identity.
+	 * 
+	 * @param song	the song to search.
+	 * @ensures 	{@code -1 <= \result < size()}
+	 * @return 		the position of the song, or -1 if it is not in this playlist.
+	 */
+	protected int indexOf(ISong song) {
+		if (this.tree != null) {
+			IndexedTreeList.Node<ISong> node = this.nodes.get(song);
+			return node == null ? -1 : this.tree.indexOfNode(node);
+		}
+		Integer position = this.positions.get(song);
+		if (position == null)
+			return -1;
+		// uma posicao desatualizada e detetada porque aponta para outra musica
+		if (position >= this.songList.size() || this.songList.get(position) != song) {
+			ListIterator<ISong> it = this.songList.listIterator(this.validPositions);
+			while (it.hasNext()) {
+				int i = it.nextIndex();
+				this.positions.put(it.next(), i);
+			}
+			this.validPositions = this.songList.size();
+			position = this.positions.get(song);
+		}
+		return position;
+	}
+
+	/**
+	 * Auxiliary method that inserts the given song at the given position.
+	 */
+	private void insert(int index, ISong song) {
+		if (this.tree != null) {
+			this.nodes.put(song, this.tree.addNode(index, song));
+			return;
+		}
+		this.songList.add(index, song);
+		this.positions.put(song, index);
+		if (index <= this.validPositions)
+			this.validPositions = index + 1;
+	}
+
+	/**
+	 * Auxiliary method that removes the song at the given position.
+	 */
+	private ISong delete(int index) {
+		ISong removed = this.songList.remove(index);
+		if (this.tree != null) {
+			this.nodes.remove(removed);
+			return removed;
+		}
+		this.positions.remove(removed);
+		this.validPositions = Math.min(this.validPositions, index);
+		return removed;
+	}
+
 	@Override
 	public boolean remove() {
 		if (someSelected()) {
-			this.songList.remove(this.indexSelected);
-			this.indexSelected = -1;
+			removeSelected();
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * Auxiliary method that removes the selected song. Unlike {@link #remove()}, it
+	 * can't be overridden, so it also works for playlists that forbid manual removal.
+	 * 
+	 * @requires	{@code someSelected()}
+	 * @ensures		{@code !someSelected() && size() == \old size() - 1}
+	 */
+	private void removeSelected() {
+		delete(this.indexSelected);
+		this.indexSelected = -1;
+	}
+
 	@Override
 	public void select(int i) {
 		this.indexSelected = i;
@@ -91,7 +208,7 @@ public abstract class AbsPlaylist implements Playlist {
 	public boolean moveUpSelected(int i) {
 		ISong elemSelected = getSelected();
 		remove();
-		this.songList.add(i, elemSelected);
+		insert(i, elemSelected);
 		select(i);
 		return true;
 	}
@@ -127,6 +244,26 @@ public abstract class AbsPlaylist implements Playlist {
 		this.playingSong = getSelected();
 		this.player.load(this.playingSong.getFilename());
 		this.player.play();
+		this.player.prefetch(nextFilenames());
+	}
+
+	/**
+	 * Auxiliary method that returns a view of the filenames of the songs after the
+	 * selected one, which are the songs played next.
+	 */
+	private List<String> nextFilenames() {
+		int first = this.indexSelected + 1;
+		return new AbstractList<>() {
+			@Override
+			public String get(int index) {
+				return songList.get(first + index).getFilename();
+			}
+
+			@Override
+			public int size() {
+				return Math.max(0, songList.size() - first);
+			}
+		};
 	}
 
 	@Override
@@ -141,7 +278,7 @@ public abstract class AbsPlaylist implements Playlist {
 			if (newState == Player.PlayingState.STOPED)
 				this.playingSong = null;
 			else if (newState == Player.PlayingState.ENDED) {
-				this.playingSong.incTimesPlayed();
+				this.library.incTimesPlayed(this.playingSong);
 				searchPlayingSong();
 			}
 		}
@@ -151,7 +288,7 @@ public abstract class AbsPlaylist implements Playlist {
 	 * Auxiliary method to search the next song for playing.
 	 */
 	private void searchPlayingSong() {
-		int index = this.songList.indexOf(this.playingSong);
+		int index = indexOf(this.playingSong);
 		if(index != -1)
 			select(index);
 		if (someSelected() && getSelected().equals(this.playingSong)) {
@@ -168,7 +305,7 @@ public abstract class AbsPlaylist implements Playlist {
 	public void processEvent(SongLibraryEvent e) {
 		if (e instanceof SongRemovedLibraryEvent) {
 			Song removed = e.getSong();
-			int index = this.songList.indexOf(removed);
+			int index = indexOf(removed);
 			if (index != -1)
 				removeAtIndex(index);
 		}
@@ -184,10 +321,10 @@ public abstract class AbsPlaylist implements Playlist {
 	 */
 	protected void removeAtIndex(int index) {
 		if (someSelected() && getIndexSelected() == index)
-			remove();
+			removeSelected();
 		else {
 			int selectedIndex = getIndexSelected();
-			this.songList.remove(index);
+			delete(index);
 			if (someSelected() && index < selectedIndex)
 				select(selectedIndex - 1);
 		}
@@ -209,10 +346,10 @@ public abstract class AbsPlaylist implements Playlist {
 		sb.append("\n*-- Playlist ")
 		  .append(this.name)
 		  .append("--*");
-		for (int i = 0; i < size(); i++) {
-			ISong song = this.songList.get(i);
+		int i = 0;
+		for (ISong song : this.songList) {
 			sb.append("\n")
-			  .append(i)
+			  .append(i++)
 			  .append(" ")
 			  .append(song.toString());
 			if (someSelected() && getSelected().equals(song))
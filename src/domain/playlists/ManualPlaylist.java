@@ -1,6 +1,10 @@
 package domain.playlists;
 
+import java.util.List;
+
 import domain.core.MusicLibrary;
+import domain.facade.ISong;
+import util.adts.IndexedTreeList;
 
 /**
  * @author 58180 Rodrigo Correia
@@ -9,6 +13,8 @@ import domain.core.MusicLibrary;
  * The objects of this class, that extends the class {@link AbsPlaylist},
  * resepresents a {@link Playlist} whose songs was manually added.
  * This type of playlist allows remove and change the posicion of the songs.
+ * The songs are kept in an {@link IndexedTreeList}, so removing or moving a song
+ * takes O(log n) even in very long playlists.
  */
 public class ManualPlaylist extends AbsPlaylist {
 
@@ -24,4 +30,9 @@ public class ManualPlaylist extends AbsPlaylist {
 	public ManualPlaylist(String name, MusicLibrary library) {
 		super(name, library);
 	}
+
+	@Override
+	protected List<ISong> createList() {
+		return new IndexedTreeList<>();
+	}
 }
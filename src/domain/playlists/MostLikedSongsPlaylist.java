@@ -1,97 +1,43 @@
 package domain.playlists;
 
-import java.util.stream.StreamSupport;
-
 import domain.core.MusicLibrary;
-import domain.core.Rate;
-import domain.core.Song;
-import domain.core.SongLibraryEvent;
 import domain.core.SongRatedLibraryEvent;
-import domain.core.SongRemovedLibraryEvent;
-import domain.facade.ISong;
+import util.metrics.Metrics;
+import util.metrics.Timer;
 
 /**
  * @author 58180 Rodrigo Correia
  * @author 58188 Laura Cunha
  *
- *         Class MostLikedSongsPlaylist that extends {@link SmartPlaylist}, used
- *         to represent a {@link Playlist} of the users most liked songs.
+ *         Class MostLikedSongsPlaylist that extends {@link RankedSongsPlaylist},
+ *         used to represent a {@link Playlist} of the users most liked songs,
+ *         ranked by their rates.
  */
-public class MostLikedSongsPlaylist extends SmartPlaylist {
+public class MostLikedSongsPlaylist extends RankedSongsPlaylist {
 
-	private static final int AMOUNT_OF_SONGS = 5;
+	private static final Timer REFILL_TIME = Metrics.INSTANCE.timer("leitunes_playlist_refill_seconds",
+			"Time taken to refill the smart playlists", "playlist", "most_liked");
 
 	/**
-	 * Constructor that creates a {@link MostLikedSongsPlaylist}.
-	 * 
+	 * Constructor that creates a {@link MostLikedSongsPlaylist} with at most
+	 * {@link #DEFAULT_AMOUNT_OF_SONGS} songs.
+	 *
 	 * @param library the {@link MusicLibrary} that manages this playlist.
+	 * @requires {@code library != null}
 	 */
 	public MostLikedSongsPlaylist(MusicLibrary library) {
-		super("Most Liked", library);
-	}
-
-	@Override
-	public void processEvent(SongLibraryEvent e) {
-		super.processEvent(e);
-		Song song = e.getSong();
-		if (e instanceof SongRatedLibraryEvent ratedEvent) {
-			addAutomatic(song);
-			if (size() > AMOUNT_OF_SONGS)
-				removeLowestRate();
-			if (ratedEvent.getNewRate() == Rate.UNRATED)
-				removeUnrated();
-			refillPlaylist();
-		} else if (e instanceof SongRemovedLibraryEvent && size() < AMOUNT_OF_SONGS && getLibrary().size() > size())
-			refillPlaylist();
-	}
-	
-	/**
-	 * Auxiliary method used to remove the UNRATED songs from current playlist.
-	 * @ensures 	{@code size() <= \old size()}
-	 */
-	private void removeUnrated() {
-		int index = 0;
-		for (ISong playlistSong : this) {
-			if (playlistSong.getRating() == Rate.UNRATED)
-				break;
-			index++;
-		}
-		if (index < size())
-			removeAutomatic(index);
-	}
-	
-	/**
-	 * Auxiliary method used to fill the current playlist with library songs', since they are
-	 * different of UNRATED.
-	 * @ensures 	{@code size() <= AMOUNT_OF_SONGS}
-	 */
-	private void refillPlaylist() {
-		StreamSupport.stream(getLibrary().spliterator(), false)
-				.sorted((s1, s2) -> s2.getRating().compareTo(s1.getRating()))
-				.filter(x -> x.getRating() != Rate.UNRATED)
-				.limit(AMOUNT_OF_SONGS)
-				.forEach(this::addAutomatic);
+		this(library, DEFAULT_AMOUNT_OF_SONGS);
 	}
 
 	/**
-	 * Auxiliary method used to remove the song with the lowest rate from the playlist.
-	 * @requires 	{@code size > 0}
-	 * @ensures 	{@code size() < \old size()}
+	 * Constructor that creates a {@link MostLikedSongsPlaylist} with at most
+	 * the given number of songs.
+	 *
+	 * @param library 		the {@link MusicLibrary} that manages this playlist.
+	 * @param amountOfSongs the maximum number of songs of this playlist.
+	 * @requires {@code library != null && amountOfSongs > 0}
 	 */
-	private void removeLowestRate() {
-		int removeIndex = -1;
-		ISong smallest = null;
-		int index = 0;
-		for (ISong playlistSong : this) {
-			if (smallest == null) {
-				removeIndex = index;
-				smallest = playlistSong;
-			} else if (playlistSong.getRating().compareTo(smallest.getRating()) < 0) {
-				smallest = playlistSong;
-				removeIndex = index;
-			}
-			index++;
-		}
-		removeAutomatic(removeIndex);
+	public MostLikedSongsPlaylist(MusicLibrary library, int amountOfSongs) {
+		super("Most Liked", library, amountOfSongs, s -> s.getRating().ordinal(), SongRatedLibraryEvent.class, REFILL_TIME);
 	}
-}
\ No newline at end of file
+}
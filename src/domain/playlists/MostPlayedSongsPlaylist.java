@@ -0,0 +1,44 @@
+package domain.playlists;
+
+import domain.core.MusicLibrary;
+import domain.core.Song;
+import domain.core.SongPlayedLibraryEvent;
+import util.metrics.Metrics;
+import util.metrics.Timer;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ *         Class MostPlayedSongsPlaylist that extends {@link RankedSongsPlaylist},
+ *         used to represent a {@link Playlist} of the songs the user played the
+ *         most, ranked by their play counts.
+ */
+public class MostPlayedSongsPlaylist extends RankedSongsPlaylist {
+
+	private static final Timer REFILL_TIME = Metrics.INSTANCE.timer("leitunes_playlist_refill_seconds",
+			"Time taken to refill the smart playlists", "playlist", "most_played");
+
+	/**
+	 * Constructor that creates a {@link MostPlayedSongsPlaylist} with at most
+	 * {@link #DEFAULT_AMOUNT_OF_SONGS} songs.
+	 *
+	 * @param library the {@link MusicLibrary} that manages this playlist.
+	 * @requires {@code library != null}
+	 */
+	public MostPlayedSongsPlaylist(MusicLibrary library) {
+		this(library, DEFAULT_AMOUNT_OF_SONGS);
+	}
+
+	/**
+	 * Constructor that creates a {@link MostPlayedSongsPlaylist} with at most
+	 * the given number of songs.
+	 *
+	 * @param library 		the {@link MusicLibrary} that manages this playlist.
+	 * @param amountOfSongs the maximum number of songs of this playlist.
+	 * @requires {@code library != null && amountOfSongs > 0}
+	 */
+	public MostPlayedSongsPlaylist(MusicLibrary library, int amountOfSongs) {
+		super("Most Played", library, amountOfSongs, Song::getTimesPlayed, SongPlayedLibraryEvent.class, REFILL_TIME);
+	}
+}
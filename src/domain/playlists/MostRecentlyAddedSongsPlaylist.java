@@ -1,11 +1,16 @@
 package domain.playlists;
 
+import java.util.List;
+
 import domain.core.MusicLibrary;
 import domain.core.Song;
 import domain.core.SongAddedLibraryEvent;
+import domain.core.SongBatchAddedLibraryEvent;
 import domain.core.SongLibraryEvent;
 import domain.core.SongRemovedLibraryEvent;
 import domain.facade.ISong;
+import util.metrics.Metrics;
+import util.metrics.Timer;
 
 /**
  * @author 58180 Rodrigo Correia
@@ -19,6 +24,9 @@ public class MostRecentlyAddedSongsPlaylist extends SmartPlaylist {
 
 	//constant for the songs
 	private static final int AMOUNT_OF_SONGS = 5;
+
+	private static final Timer REFILL_TIME = Metrics.INSTANCE.timer("leitunes_playlist_refill_seconds",
+			"Time taken to refill the smart playlists", "playlist", "most_recently_added");
 	
 	/**
 	 * Constructor for the class {@link MostRecentlyAddedSongsPlaylist} that creates 
@@ -41,13 +49,24 @@ public class MostRecentlyAddedSongsPlaylist extends SmartPlaylist {
 			if (size() > AMOUNT_OF_SONGS)
 				removeAutomatic(0);
 		}
+		if (e instanceof SongBatchAddedLibraryEvent batchEvent) {
+			// only the last songs of the batch can stay in the playlist
+			List<Song> songs = batchEvent.getSongs();
+			for (int i = Math.max(0, songs.size() - AMOUNT_OF_SONGS); i < songs.size(); i++) {
+				addAutomatic(songs.get(i));
+				if (size() > AMOUNT_OF_SONGS)
+					removeAutomatic(0);
+			}
+		}
 		if (e instanceof SongRemovedLibraryEvent && size() < AMOUNT_OF_SONGS && getLibrary().size() > size()) {
 			// searchs for a song in the MusicLibrary to be added
+			long start = REFILL_TIME.start();
 			int originalSize = size();
 			for (int i = getLibrary().size() - 1; i >= 0 && size() == originalSize; i--) {
 				ISong song = getLibrary().get(i);
 				addAutomatic(song);
 			}
+			REFILL_TIME.stop(start);
 		}
 	}
 }
@@ -34,6 +34,16 @@ public interface Playlist extends Listener<SongLibraryEvent>, PropertyChangeList
 	 */
 	int size();
 	
+	/**
+	 * Returns the song at the given position of the playlist
+	 * 
+	 * @param i the position of the song
+	 * @return the song at the given position
+	 * @requires 0 <= i < size()
+	 * @ensures \return != null
+	 */
+	ISong get(int i);
+	
 	/**
 	 * Returns the selected song
 	 * 
@@ -1,6 +1,7 @@
 package domain.playlists;
 
 import java.util.Iterator;
+import java.util.Spliterator;
 
 import util.adts.AbsQListWithSelection;
 import util.adts.ArrayQListWithSelection;
@@ -26,17 +27,19 @@ public class PlaylistList implements QListWithSelection<Playlist> {
 
 	/**
 	 * Constructor used to create a {@link PlaylistList}, this also adds 
-	 * 2 default playlists {@link MostLikedSongsPlaylist} and {@link MostRecentlyAddedSongsPlaylist}
+	 * 3 default playlists {@link MostLikedSongsPlaylist}, {@link MostRecentlyAddedSongsPlaylist}
+	 * and {@link MostPlayedSongsPlaylist}
 	 * 
 	 * @param library the music library to manage this playlists, used to
 	 * 		  get songs and to manage the playlist listener.
 	 * @requires {@code library != null}
-	 * @ensures {@code size() == 2 && someSelected()}
+	 * @ensures {@code size() == 3 && someSelected()}
 	 */
 	public PlaylistList(MusicLibrary library) {
 		this.library = library;
 		add(new MostLikedSongsPlaylist(library));
 		add(new MostRecentlyAddedSongsPlaylist(library));
+		add(new MostPlayedSongsPlaylist(library));
 	}
 	
 	
@@ -172,5 +175,11 @@ public class PlaylistList implements QListWithSelection<Playlist> {
 	public Iterator<Playlist> iterator() {
 		return this.playlists.iterator();
 	}
+
+
+	@Override
+	public Spliterator<Playlist> spliterator() {
+		return this.playlists.spliterator();
+	}
 }
 
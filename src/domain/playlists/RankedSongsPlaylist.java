@@ -0,0 +1,98 @@
+package domain.playlists;
+
+import java.util.function.ToIntFunction;
+
+import domain.core.MusicLibrary;
+import domain.core.Song;
+import domain.core.SongAddedLibraryEvent;
+import domain.core.SongBatchAddedLibraryEvent;
+import domain.core.SongLibraryEvent;
+import domain.core.SongRemovedLibraryEvent;
+import util.metrics.Timer;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ *         Abstract class RankedSongsPlaylist that extends {@link SmartPlaylist},
+ *         used to represent a {@link Playlist} of the songs of the library with
+ *         the greatest keys. The songs are kept in a {@link SongRanking}, so each
+ *         change of the key of a song costs O(log n) instead of sorting the
+ *         library. The key of a song is only read again when it is added, or
+ *         when an event of the given trigger class is emitted for it.
+ */
+public abstract class RankedSongsPlaylist extends SmartPlaylist {
+
+	/**
+	 * The number of songs of this playlist when none is given.
+	 */
+	public static final int DEFAULT_AMOUNT_OF_SONGS = 5;
+
+	private final int amountOfSongs;
+	private final SongRanking ranking;
+	private final Class<? extends SongLibraryEvent> trigger;
+	private final Timer refillTime;
+
+	/**
+	 * Constructor for the abstract class {@link RankedSongsPlaylist} that creates
+	 * a playlist with at most the given number of songs of the given library,
+	 * ranked by the given key.
+	 *
+	 * @param name			the given name for the playlist.
+	 * @param library 		the {@link MusicLibrary} that manages this playlist.
+	 * @param amountOfSongs the maximum number of songs of this playlist.
+	 * @param key			the function that gives the key by which the songs are ranked.
+	 * @param trigger		the class of the events that change the key of a song.
+	 * @param refillTime	the timer of the refills of this playlist.
+	 * @requires {@code name != null && library != null && amountOfSongs > 0 &&
+	 * 			key != null && trigger != null && refillTime != null}
+	 */
+	protected RankedSongsPlaylist(String name, MusicLibrary library, int amountOfSongs,
+			ToIntFunction<Song> key, Class<? extends SongLibraryEvent> trigger, Timer refillTime) {
+		super(name, library);
+		this.amountOfSongs = amountOfSongs;
+		this.ranking = new SongRanking(key);
+		this.trigger = trigger;
+		this.refillTime = refillTime;
+		for (Song song : library)
+			this.ranking.update(song);
+		refillPlaylist();
+	}
+
+	/**
+	 * Returns the maximum number of songs of this playlist.
+	 *
+	 * @ensures {@code \result > 0}
+	 * @return 	the maximum number of songs of this playlist.
+	 */
+	public int getAmountOfSongs() {
+		return this.amountOfSongs;
+	}
+
+	@Override
+	public void processEvent(SongLibraryEvent e) {
+		super.processEvent(e);
+		Song song = e.getSong();
+		boolean changed = false;
+		if (e instanceof SongAddedLibraryEvent || this.trigger.isInstance(e))
+			changed = this.ranking.update(song);
+		else if (e instanceof SongBatchAddedLibraryEvent batchEvent) {
+			for (Song added : batchEvent.getSongs())
+				changed |= this.ranking.update(added);
+		} else if (e instanceof SongRemovedLibraryEvent)
+			changed = this.ranking.remove(song) || size() < this.amountOfSongs;
+		if (changed)
+			refillPlaylist();
+	}
+
+	/**
+	 * Auxiliary method used to make the playlist hold the first songs of the ranking,
+	 * keeping the position of the songs that were already in the playlist.
+	 * @ensures 	{@code size() <= getAmountOfSongs()}
+	 */
+	private void refillPlaylist() {
+		long start = this.refillTime.start();
+		refill(this.ranking.top(this.amountOfSongs));
+		this.refillTime.stop(start);
+	}
+}
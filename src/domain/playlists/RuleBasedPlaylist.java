@@ -0,0 +1,75 @@
+package domain.playlists;
+
+import domain.core.MusicLibrary;
+import domain.core.Song;
+import domain.core.SongAddedLibraryEvent;
+import domain.core.SongBatchAddedLibraryEvent;
+import domain.core.SongLibraryEvent;
+import domain.core.SongPlayedLibraryEvent;
+import domain.core.SongRatedLibraryEvent;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ *         Class RuleBasedPlaylist that extends {@link SmartPlaylist}, used to
+ *         represent a {@link Playlist} with the songs of the library that
+ *         satisfy a {@link SongRule} defined by the user. Only the song of each
+ *         event is checked again, never the whole library.
+ */
+public class RuleBasedPlaylist extends SmartPlaylist {
+
+	private final SongRule rule;
+
+	/**
+	 * Constructor that creates a {@link RuleBasedPlaylist} with the songs of the
+	 * library that satisfy the given rule, in the order of the library.
+	 *
+	 * @param name		the name of the playlist.
+	 * @param library 	the {@link MusicLibrary} that manages this playlist.
+	 * @param rule		the rule the songs of this playlist satisfy.
+	 * @requires {@code name != null && library != null && rule != null}
+	 */
+	public RuleBasedPlaylist(String name, MusicLibrary library, SongRule rule) {
+		super(name, library);
+		this.rule = rule;
+		for (Song song : library)
+			if (rule.matches(song))
+				addAutomatic(song);
+	}
+
+	/**
+	 * Returns the rule the songs of this playlist satisfy.
+	 *
+	 * @ensures {@code \result != null}
+	 * @return 	the rule of this playlist.
+	 */
+	public SongRule getRule() {
+		return this.rule;
+	}
+
+	@Override
+	public void processEvent(SongLibraryEvent e) {
+		super.processEvent(e);
+		if (e instanceof SongAddedLibraryEvent || e instanceof SongRatedLibraryEvent
+				|| e instanceof SongPlayedLibraryEvent)
+			evaluate(e.getSong());
+		else if (e instanceof SongBatchAddedLibraryEvent batchEvent) {
+			for (Song added : batchEvent.getSongs())
+				evaluate(added);
+		}
+	}
+
+	/**
+	 * Auxiliary method that adds the given song to the playlist, or removes it, depending
+	 * on whether it satisfies the rule of this playlist.
+	 */
+	private void evaluate(Song song) {
+		boolean matches = this.rule.matches(song);
+		int index = indexOf(song);
+		if (matches && index == -1)
+			addAutomatic(song);
+		else if (!matches && index != -1)
+			removeAutomatic(index);
+	}
+}
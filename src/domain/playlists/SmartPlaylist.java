@@ -1,5 +1,11 @@
 package domain.playlists;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
 import domain.core.MusicLibrary;
 import domain.facade.ISong;
 
@@ -50,6 +56,30 @@ public abstract class SmartPlaylist extends AbsPlaylist {
 		removeAtIndex(index);
 	}
 
+	/**
+	 * Makes this playlist hold the given songs, keeping the position of the songs that
+	 * were already in the playlist and adding the others at the end, in the given order.
+	 * 
+	 * @param songs		the songs the playlist must hold.
+	 * @requires 		{@code songs != null}
+	 * @ensures 		{@code size() == songs.size()}
+	 */
+	protected void refill(List<? extends ISong> songs) {
+		Set<ISong> wanted = Collections.newSetFromMap(new IdentityHashMap<>());
+		wanted.addAll(songs);
+		List<Integer> toRemove = new ArrayList<>();
+		int index = 0;
+		for (ISong playlistSong : this) {
+			if (!wanted.contains(playlistSong))
+				toRemove.add(index);
+			index++;
+		}
+		for (int i = toRemove.size() - 1; i >= 0; i--)
+			removeAutomatic(toRemove.get(i));
+		for (ISong song : songs)
+			addAutomatic(song);
+	}
+
 	@Override
 	public boolean moveUpSelected(int i) {
 		return false;
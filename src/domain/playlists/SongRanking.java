@@ -0,0 +1,115 @@
+package domain.playlists;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
+
+import domain.core.Song;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ * 
+ * Class {@link SongRanking} used by the smart playlists to keep the songs of a library
+ * ranked by an integer key (e.g. the rate ordinal), from the greatest to the lowest key,
+ * breaking ties by the id of the songs, the order they were first added to the
+ * library. Songs whose key is zero or less are not ranked.
+ * 
+ * Every update costs O(log n), so the top songs never need to be sorted again.
+ */
+class SongRanking {
+
+	/**
+	 * Record with the key a song had when it was last ranked, since the key
+	 * of the song may change while the entry is in the ranking.
+	 */
+	private record Entry(Song song, int key) {}
+
+	private static final Comparator<Entry> RANK_ORDER = Comparator.comparingInt(Entry::key).reversed()
+			.thenComparingInt(e -> e.song().getId());
+
+	private final ToIntFunction<Song> keyFunction;
+	private final TreeSet<Entry> ranking = new TreeSet<>(RANK_ORDER);
+	private final Map<Song, Entry> entries = new IdentityHashMap<>();
+
+	/**
+	 * Constructor that creates an empty {@link SongRanking}.
+	 * 
+	 * @param keyFunction	the function that gives the key by which the songs are ranked.
+	 * @requires			{@code keyFunction != null}
+	 */
+	SongRanking(ToIntFunction<Song> keyFunction) {
+		this.keyFunction = keyFunction;
+	}
+
+	/**
+	 * Ranks the given song with its current key, or updates its position if it
+	 * was already ranked.
+	 * 
+	 * @param song	the song to rank.
+	 * @requires 	{@code song != null}
+	 * @return 		true if the position of the song in the ranking changed, false otherwise.
+	 */
+	boolean update(Song song) {
+		int key = this.keyFunction.applyAsInt(song);
+		Entry old = this.entries.get(song);
+		if (old != null && old.key() == key)
+			return false;
+		if (old != null) {
+			this.ranking.remove(old);
+			this.entries.remove(song);
+		}
+		if (key > 0) {
+			Entry entry = new Entry(song, key);
+			this.ranking.add(entry);
+			this.entries.put(song, entry);
+		}
+		return old != null || key > 0;
+	}
+
+	/**
+	 * Removes the given song from the ranking.
+	 * 
+	 * @param song	the song to remove.
+	 * @requires 	{@code song != null}
+	 * @return 		true if the song was ranked, false otherwise.
+	 */
+	boolean remove(Song song) {
+		Entry old = this.entries.remove(song);
+		if (old == null)
+			return false;
+		this.ranking.remove(old);
+		return true;
+	}
+
+	/**
+	 * Returns the first songs of the ranking.
+	 * 
+	 * @param amount	the maximum number of songs to return.
+	 * @requires 		{@code amount >= 0}
+	 * @ensures 		{@code \result != null && \result.size() <= amount}
+	 * @return 			the first {@code amount} songs of the ranking, from the greatest key.
+	 */
+	List<Song> top(int amount) {
+		List<Song> result = new ArrayList<>(Math.min(amount, this.ranking.size()));
+		Iterator<Entry> iterator = this.ranking.iterator();
+		while (result.size() < amount && iterator.hasNext())
+			result.add(iterator.next().song());
+		return result;
+	}
+
+	/**
+	 * Returns the number of ranked songs.
+	 * 
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of ranked songs.
+	 */
+	int size() {
+		return this.ranking.size();
+	}
+}
@@ -0,0 +1,48 @@
+package domain.playlists;
+
+import domain.facade.ISong;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ * 
+ * Interface {@link SongRule} of a rule that a song may satisfy, used to define the songs
+ * of a {@link RuleBasedPlaylist}. The rules are created by {@link SongRules} and combined
+ * with {@link #and(SongRule)} and {@link #or(SongRule)} into a tree that is built only
+ * once, so checking a song doesn't create any objects.
+ */
+public interface SongRule {
+
+	/**
+	 * Checks if the given song satisfies this rule.
+	 * 
+	 * @param song	the song to check.
+	 * @requires 	{@code song != null}
+	 * @return 		true if the song satisfies this rule, false otherwise.
+	 */
+	boolean matches(ISong song);
+
+	/**
+	 * Returns a rule satisfied by the songs that satisfy this rule and the given one.
+	 * 
+	 * @param other	the other rule.
+	 * @requires 	{@code other != null}
+	 * @ensures 	{@code \result != null}
+	 * @return 		the conjunction of this rule and the given one.
+	 */
+	default SongRule and(SongRule other) {
+		return SongRules.allOf(this, other);
+	}
+
+	/**
+	 * Returns a rule satisfied by the songs that satisfy this rule or the given one.
+	 * 
+	 * @param other	the other rule.
+	 * @requires 	{@code other != null}
+	 * @ensures 	{@code \result != null}
+	 * @return 		the disjunction of this rule and the given one.
+	 */
+	default SongRule or(SongRule other) {
+		return SongRules.anyOf(this, other);
+	}
+}
@@ -0,0 +1,239 @@
+package domain.playlists;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import domain.core.Rate;
+import domain.facade.ISong;
+import util.adts.PatternCache;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ * 
+ * Class {@link SongRules} with the factory methods of the {@link SongRule}s. Every
+ * value a rule needs (e.g. the compiled regular expression) is prepared when the rule
+ * is created, so checking a song only reads its fields.
+ */
+public final class SongRules {
+
+	private SongRules() {
+	}
+
+	/**
+	 * Returns a rule satisfied by the songs of the given genre, ignoring case.
+	 * 
+	 * @param genre	the genre.
+	 * @requires 	{@code genre != null}
+	 * @ensures 	{@code \result != null}
+	 * @return 		the rule.
+	 */
+	public static SongRule genreIs(String genre) {
+		return new GenreIs(genre);
+	}
+
+	/**
+	 * Returns a rule satisfied by the songs with an artist whose name contains the given
+	 * text, ignoring case.
+	 * 
+	 * @param text	the text.
+	 * @requires 	{@code text != null}
+	 * @ensures 	{@code \result != null}
+	 * @return 		the rule.
+	 */
+	public static SongRule artistContains(String text) {
+		return new ArtistContains(text);
+	}
+
+	/**
+	 * Returns a rule satisfied by the songs rated at least with the given rate.
+	 * 
+	 * @param rate	the minimum rate.
+	 * @requires 	{@code rate != null}
+	 * @ensures 	{@code \result != null}
+	 * @return 		the rule.
+	 */
+	public static SongRule rateAtLeast(Rate rate) {
+		return new RateAtLeast(rate);
+	}
+
+	/**
+	 * Returns a rule satisfied by the songs played more than the given number of times.
+	 * 
+	 * @param times	the number of times.
+	 * @ensures 	{@code \result != null}
+	 * @return 		the rule.
+	 */
+	public static SongRule timesPlayedMoreThan(int times) {
+		return new TimesPlayedMoreThan(times);
+	}
+
+	/**
+	 * Returns a rule satisfied by the songs whose title has a match of the given
+	 * regular expression.
+	 * 
+	 * @param regexp	the regular expression.
+	 * @requires 		{@code regexp != null}
+	 * @ensures 		{@code \result != null}
+	 * @return 			the rule.
+	 */
+	public static SongRule titleMatches(String regexp) {
+		return new TitleMatches(PatternCache.INSTANCE.compile(regexp));
+	}
+
+	/**
+	 * Returns a rule satisfied by the songs that satisfy all the given rules.
+	 * 
+	 * @param rules	the rules.
+	 * @requires 	{@code rules != null && rules.length > 0}
+	 * @ensures 	{@code \result != null}
+	 * @return 		the conjunction of the rules.
+	 */
+	public static SongRule allOf(SongRule... rules) {
+		SongRule[] flat = flatten(rules, true);
+		return flat.length == 1 ? flat[0] : new AllOf(flat);
+	}
+
+	/**
+	 * Returns a rule satisfied by the songs that satisfy at least one of the given rules.
+	 * 
+	 * @param rules	the rules.
+	 * @requires 	{@code rules != null && rules.length > 0}
+	 * @ensures 	{@code \result != null}
+	 * @return 		the disjunction of the rules.
+	 */
+	public static SongRule anyOf(SongRule... rules) {
+		SongRule[] flat = flatten(rules, false);
+		return flat.length == 1 ? flat[0] : new AnyOf(flat);
+	}
+
+	/**
+	 * Auxiliary method that puts the rules of nested conjunctions (or disjunctions) in
+	 * the same node, so chained calls of {@link SongRule#and(SongRule)} don't make the
+	 * tree deeper.
+	 */
+	private static SongRule[] flatten(SongRule[] rules, boolean conjunction) {
+		List<SongRule> flat = new ArrayList<>();
+		for (SongRule rule : rules) {
+			if (conjunction && rule instanceof AllOf all)
+				flat.addAll(List.of(all.rules));
+			else if (!conjunction && rule instanceof AnyOf any)
+				flat.addAll(List.of(any.rules));
+			else
+				flat.add(rule);
+		}
+		return flat.toArray(new SongRule[0]);
+	}
+
+	/**
+	 * Auxiliary method that checks if the given text contains the other, ignoring case,
+	 * without creating lower case copies of them.
+	 */
+	private static boolean containsIgnoreCase(String text, String other) {
+		int last = text.length() - other.length();
+		for (int i = 0; i <= last; i++)
+			if (text.regionMatches(true, i, other, 0, other.length()))
+				return true;
+		return false;
+	}
+
+	private record GenreIs(String genre) implements SongRule {
+		@Override
+		public boolean matches(ISong song) {
+			return this.genre.equalsIgnoreCase(song.getGenre());
+		}
+	}
+
+	private record ArtistContains(String text) implements SongRule {
+		@Override
+		public boolean matches(ISong song) {
+			for (int i = 0; i < song.artistCount(); i++)
+				if (containsIgnoreCase(song.artist(i), this.text))
+					return true;
+			return false;
+		}
+	}
+
+	private record RateAtLeast(Rate rate) implements SongRule {
+		@Override
+		public boolean matches(ISong song) {
+			return song.getRating().compareTo(this.rate) >= 0;
+		}
+	}
+
+	private record TimesPlayedMoreThan(int times) implements SongRule {
+		@Override
+		public boolean matches(ISong song) {
+			return song.getTimesPlayed() > this.times;
+		}
+	}
+
+	private static final class TitleMatches implements SongRule {
+
+		private final Pattern pattern;
+		// um Matcher por thread, reutilizado para todas as cancoes
+		private final ThreadLocal<Matcher> matcher;
+
+		private TitleMatches(Pattern pattern) {
+			this.pattern = pattern;
+			this.matcher = ThreadLocal.withInitial(() -> pattern.matcher(""));
+		}
+
+		@Override
+		public boolean matches(ISong song) {
+			String title = song.getSongTitle();
+			return title != null && this.matcher.get().reset(title).find();
+		}
+
+		@Override
+		public String toString() {
+			return "TitleMatches[regexp=" + this.pattern.pattern() + "]";
+		}
+	}
+
+	private static final class AllOf implements SongRule {
+
+		private final SongRule[] rules;
+
+		private AllOf(SongRule[] rules) {
+			this.rules = rules;
+		}
+
+		@Override
+		public boolean matches(ISong song) {
+			for (SongRule rule : this.rules)
+				if (!rule.matches(song))
+					return false;
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return "AllOf" + List.of(this.rules);
+		}
+	}
+
+	private static final class AnyOf implements SongRule {
+
+		private final SongRule[] rules;
+
+		private AnyOf(SongRule[] rules) {
+			this.rules = rules;
+		}
+
+		@Override
+		public boolean matches(ISong song) {
+			for (SongRule rule : this.rules)
+				if (rule.matches(song))
+					return true;
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return "AnyOf" + List.of(this.rules);
+		}
+	}
+}
@@ -6,6 +6,7 @@ module LeiTunes23 {
 
 	requires transitive java.desktop;
 	requires java.logging;
+	requires java.management;
 	requires org.junit.jupiter.api;
 	requires jl101;
 	requires mp3agic;
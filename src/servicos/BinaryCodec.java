@@ -0,0 +1,116 @@
+package servicos;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import domain.core.SongMetaInfo;
+import domain.facade.ISong;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ * 
+ * Utility class with the binary encoding of strings and {@link SongMetaInfo} shared by
+ * the files written by this package. Values are written with a {@link DataOutputStream}
+ * and read back from a {@link ByteBuffer}, usually a memory-mapped file.
+ */
+final class BinaryCodec {
+
+	/**
+	 * An utility class should not have public constructors
+	 */
+	private BinaryCodec() {
+	}
+
+	/**
+	 * Writes the given string as its length followed by its UTF-8 bytes.
+	 * 
+	 * @param out	the stream to write to.
+	 * @param s		the string to write.
+	 * @requires 	{@code out != null && s != null}
+	 * @throws IOException if the string could not be written.
+	 */
+	static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+	 * 
+	 * @param in	the buffer to read from.
+	 * @requires 	{@code in != null}
+	 * @return 		the string read.
+	 */
+	static String readString(ByteBuffer in) {
+		int length = in.getInt();
+		if (length < 0 || length > in.remaining())
+			throw new IllegalArgumentException("Invalid string length " + length);
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes the given metainfo.
+	 * 
+	 * @param out	the stream to write to.
+	 * @param info	the metainfo to write.
+	 * @requires 	{@code out != null && info != null}
+	 * @throws IOException if the metainfo could not be written.
+	 */
+	static void writeMetaInfo(DataOutputStream out, SongMetaInfo info) throws IOException {
+		writeMetaInfo(out, info.title(), info.genre(), info.album(), info.artists());
+	}
+
+	/**
+	 * Writes the metainfo of the given song, in the same format of
+	 * {@link #writeMetaInfo(DataOutputStream, SongMetaInfo)}.
+	 * 
+	 * @param out	the stream to write to.
+	 * @param song	the song whose metainfo is written.
+	 * @requires 	{@code out != null && song != null}
+	 * @throws IOException if the metainfo could not be written.
+	 */
+	static void writeMetaInfo(DataOutputStream out, ISong song) throws IOException {
+		writeMetaInfo(out, song.getSongTitle(), song.getGenre(), song.getAlbum(), song.getArtists());
+	}
+
+	/**
+	 * Auxiliary method that writes the fields of a metainfo.
+	 */
+	private static void writeMetaInfo(DataOutputStream out, String title, String genre, String album,
+			List<String> artists) throws IOException {
+		writeString(out, title);
+		writeString(out, genre);
+		writeString(out, album);
+		out.writeInt(artists.size());
+		for (String artist : artists)
+			writeString(out, artist);
+	}
+
+	/**
+	 * Reads a metainfo written by {@link #writeMetaInfo(DataOutputStream, SongMetaInfo)}.
+	 * 
+	 * @param in	the buffer to read from.
+	 * @requires 	{@code in != null}
+	 * @return 		the metainfo read.
+	 */
+	static SongMetaInfo readMetaInfo(ByteBuffer in) {
+		String title = readString(in);
+		String genre = readString(in);
+		String album = readString(in);
+		int numberOfArtists = in.getInt();
+		if (numberOfArtists < 0 || numberOfArtists > in.remaining())
+			throw new IllegalArgumentException("Invalid number of artists " + numberOfArtists);
+		List<String> artists = new ArrayList<>(numberOfArtists);
+		for (int i = 0; i < numberOfArtists; i++)
+			artists.add(readString(in));
+		return new SongMetaInfo(title, genre, artists, album);
+	}
+}
@@ -0,0 +1,247 @@
+package servicos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.mpatric.mp3agic.ID3v1Genres;
+import com.mpatric.mp3agic.InvalidDataException;
+import com.mpatric.mp3agic.UnsupportedTagException;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class ID3TagReader used to read the title, artist, album and genre of an mp3 file
+ * straight from its ID3v2 tag, at the start of the file, or from its ID3v1 tag, in the
+ * last 128 bytes of the file, using positional reads. Unlike {@link com.mpatric.mp3agic.Mp3File},
+ * the MPEG frames of the file are never read, so only a few KB are read per file.
+ *
+ * Tags that this reader does not support (unsynchronised, compressed or encrypted) are
+ * reported with an {@link UnsupportedTagException}, and malformed tags with an
+ * {@link InvalidDataException}, so that the caller can fall back to a full parser.
+ */
+final class ID3TagReader {
+
+	/**
+	 * Record with the text fields read from a tag, which may be null if the tag
+	 * does not have them.
+	 *
+	 * @param title		the title of the song.
+	 * @param artist	the artist of the song.
+	 * @param album		the album of the song.
+	 * @param genre		the description of the genre of the song.
+	 */
+	record Tag(String title, String artist, String album, String genre) {}
+
+	private static final int ID3V2_HEADER_SIZE = 10;
+	private static final int ID3V1_SIZE = 128;
+	private static final int ID3V1_FIELD_SIZE = 30;
+	private static final int UNSYNCHRONISATION = 0x80;
+	private static final int EXTENDED_HEADER = 0x40;
+	// 2.3: compression, encryption and grouping; 2.4: grouping, compression, encryption,
+	// unsynchronisation and data length. With grouping the frame starts with the group byte.
+	private static final int V23_UNSUPPORTED_FRAME_FLAGS = 0xE0;
+	private static final int V24_UNSUPPORTED_FRAME_FLAGS = 0x4F;
+	private static final String UNKNOWN_GENRE = "Unknown";
+
+	/**
+	 * An utility class should not have public constructors
+	 */
+	private ID3TagReader() {
+	}
+
+	/**
+	 * Reads the ID3v2 tag of the given file or, if it has none, its ID3v1 tag.
+	 *
+	 * @param path	the path of the file.
+	 * @requires 	{@code path != null}
+	 * @return 		the fields of the tag, or null if the file has no tag.
+	 * @throws IOException				if the file could not be read.
+	 * @throws UnsupportedTagException	if the tag uses features this reader does not support.
+	 * @throws InvalidDataException		if the tag is malformed.
+	 */
+	static Tag read(String path) throws IOException, UnsupportedTagException, InvalidDataException {
+		try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+			Tag tag = readId3v2(channel);
+			return tag != null ? tag : readId3v1(channel);
+		}
+	}
+
+	/**
+	 * Auxiliary method that reads the ID3v2 tag at the start of the file, if there is one.
+	 */
+	private static Tag readId3v2(FileChannel channel) throws IOException, UnsupportedTagException, InvalidDataException {
+		ByteBuffer header = readFully(channel, 0, ID3V2_HEADER_SIZE);
+		if (header == null || header.get(0) != 'I' || header.get(1) != 'D' || header.get(2) != '3')
+			return null;
+		int version = header.get(3);
+		int flags = header.get(5) & 0xFF;
+		if (version < 2 || version > 4)
+			throw new UnsupportedTagException("Unsupported ID3v2 version " + version);
+		if ((flags & UNSYNCHRONISATION) != 0)
+			throw new UnsupportedTagException("Unsynchronised ID3v2 tag");
+		// um tamanho invalido nunca leva a ler (nem alocar) para la do fim do ficheiro
+		long end = Math.min(channel.size(), ID3V2_HEADER_SIZE + synchsafe(header, 6));
+		long position = ID3V2_HEADER_SIZE;
+		if (version > 2 && (flags & EXTENDED_HEADER) != 0)
+			position += extendedHeaderSize(channel, version);
+
+		int idSize = version == 2 ? 3 : 4;
+		int frameHeaderSize = version == 2 ? 6 : 10;
+		String[] ids = version == 2 ? new String[] {"TT2", "TP1", "TAL", "TCO"}
+									: new String[] {"TIT2", "TPE1", "TALB", "TCON"};
+		String[] values = new String[ids.length];
+		while (position + frameHeaderSize <= end) {
+			ByteBuffer frameHeader = readFully(channel, position, frameHeaderSize);
+			if (frameHeader == null || frameHeader.get(0) == 0)
+				break; // padding
+			String id = new String(frameHeader.array(), 0, idSize, StandardCharsets.ISO_8859_1);
+			long size;
+			if (version == 2)
+				size = ((frameHeader.get(3) & 0xFF) << 16) | ((frameHeader.get(4) & 0xFF) << 8) | (frameHeader.get(5) & 0xFF);
+			else if (version == 3)
+				size = frameHeader.getInt(4) & 0xFFFFFFFFL;
+			else
+				size = synchsafe(frameHeader, 4);
+			position += frameHeaderSize;
+			if (size < 0 || position + size > end)
+				throw new InvalidDataException("Frame " + id + " exceeds the tag");
+			int index = indexOf(ids, id);
+			if (index != -1 && values[index] == null) {
+				int frameFlags = version == 2 ? 0 : frameHeader.get(9) & 0xFF;
+				int unsupported = version == 3 ? V23_UNSUPPORTED_FRAME_FLAGS : V24_UNSUPPORTED_FRAME_FLAGS;
+				if ((frameFlags & unsupported) != 0)
+					throw new UnsupportedTagException("Unsupported flags in frame " + id);
+				ByteBuffer data = readFully(channel, position, (int) size);
+				if (data == null)
+					throw new InvalidDataException("Truncated frame " + id);
+				values[index] = decodeText(data);
+			}
+			position += size;
+		}
+		return new Tag(values[0], values[1], values[2], genreDescription(values[3]));
+	}
+
+	/**
+	 * Auxiliary method that reads the ID3v1 tag at the end of the file, if there is one.
+	 */
+	private static Tag readId3v1(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size < ID3V1_SIZE)
+			return null;
+		ByteBuffer tag = readFully(channel, size - ID3V1_SIZE, ID3V1_SIZE);
+		if (tag == null || tag.get(0) != 'T' || tag.get(1) != 'A' || tag.get(2) != 'G')
+			return null;
+		String title = latin1Field(tag, 3);
+		String artist = latin1Field(tag, 3 + ID3V1_FIELD_SIZE);
+		String album = latin1Field(tag, 3 + 2 * ID3V1_FIELD_SIZE);
+		int genre = tag.get(ID3V1_SIZE - 1) & 0xFF;
+		String description = genre < ID3v1Genres.GENRES.length ? ID3v1Genres.GENRES[genre] : UNKNOWN_GENRE;
+		return new Tag(title, artist, album, description);
+	}
+
+	/**
+	 * Auxiliary method that returns the size of the extended header of an ID3v2.3 or
+	 * ID3v2.4 tag, including its size field.
+	 */
+	private static long extendedHeaderSize(FileChannel channel, int version) throws IOException, InvalidDataException {
+		ByteBuffer size = readFully(channel, ID3V2_HEADER_SIZE, 4);
+		if (size == null)
+			throw new InvalidDataException("Truncated extended header");
+		// em 2.3 o tamanho nao inclui o proprio campo, em 2.4 inclui
+		return version == 3 ? 4 + (size.getInt(0) & 0xFFFFFFFFL) : synchsafe(size, 0);
+	}
+
+	/**
+	 * Auxiliary method that decodes the text of a text frame, given its encoding byte.
+	 */
+	private static String decodeText(ByteBuffer data) throws InvalidDataException {
+		if (data.remaining() == 0)
+			return null;
+		Charset charset;
+		switch (data.get(0)) {
+			case 0 -> charset = StandardCharsets.ISO_8859_1;
+			case 1 -> charset = StandardCharsets.UTF_16;
+			case 2 -> charset = StandardCharsets.UTF_16BE;
+			case 3 -> charset = StandardCharsets.UTF_8;
+			default -> throw new InvalidDataException("Invalid text encoding " + data.get(0));
+		}
+		String text = new String(data.array(), 1, data.remaining() - 1, charset);
+		int terminator = text.indexOf('\0');
+		return terminator == -1 ? text : text.substring(0, terminator);
+	}
+
+	/**
+	 * Auxiliary method that turns the text of a genre frame, which may be an ID3v1 genre
+	 * number like "(17)" or "17", into its description.
+	 */
+	private static String genreDescription(String text) {
+		if (text == null)
+			return null;
+		String trimmed = text.trim();
+		if (trimmed.isEmpty())
+			return null;
+		int close = trimmed.indexOf(')');
+		String number = trimmed.charAt(0) == '(' && close > 0 ? trimmed.substring(1, close) : trimmed;
+		try {
+			int genre = Integer.parseInt(number);
+			if (genre >= 0 && genre < ID3v1Genres.GENRES.length)
+				return ID3v1Genres.GENRES[genre];
+		} catch (NumberFormatException e) {
+			// not a genre number, so it is a description
+		}
+		if (trimmed.charAt(0) == '(' && close > 0)
+			return trimmed.substring(close + 1);
+		return trimmed;
+	}
+
+	/**
+	 * Auxiliary method that reads a fixed size field of an ID3v1 tag, without the
+	 * trailing nulls and spaces.
+	 */
+	private static String latin1Field(ByteBuffer tag, int offset) {
+		int end = offset + ID3V1_FIELD_SIZE;
+		while (end > offset && (tag.get(end - 1) & 0xFF) <= ' ')
+			end--;
+		return new String(tag.array(), offset, end - offset, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Auxiliary method that decodes a 28 bit synchsafe integer.
+	 */
+	private static long synchsafe(ByteBuffer buffer, int offset) {
+		long value = 0;
+		for (int i = 0; i < 4; i++)
+			value = (value << 7) | (buffer.get(offset + i) & 0x7F);
+		return value;
+	}
+
+	/**
+	 * Auxiliary method that reads exactly the given number of bytes at the given
+	 * position, returning null if the file ends before.
+	 */
+	private static ByteBuffer readFully(FileChannel channel, long position, int size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0)
+				return null;
+		}
+		return buffer.flip();
+	}
+
+	/**
+	 * Auxiliary method that returns the index of the given id in the given array, or -1.
+	 */
+	private static int indexOf(String[] ids, String id) {
+		for (int i = 0; i < ids.length; i++) {
+			if (ids[i].equals(id))
+				return i;
+		}
+		return -1;
+	}
+}
@@ -1,54 +1,163 @@
 package servicos;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 import domain.player.Player;
 import javazoom.jl.decoder.JavaLayerException;
+import util.metrics.Metrics;
+import util.metrics.Timer;
 
 public class JLPlayer extends javazoom.jl.player.Player {
    
-    private boolean isPlaying;
-    private boolean stop;
-    private boolean end;
-    private Thread player;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final Timer FIRST_FRAME_TIME = Metrics.INSTANCE.timer("leitunes_player_first_frame_seconds",
+            "Time from loading a song until its first frame is decoded");
+
+    // o estado e partilhado entre a thread do motor e quem controla o player
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+    private volatile boolean isPlaying;
+    private volatile boolean stop;
+    private volatile boolean end;
+    private volatile boolean discarded;
+
+    private final AtomicLong framesDecoded = new AtomicLong();
+    private final AtomicLong playingNanos = new AtomicLong();
+    private volatile long playingSince = -1;
+    private volatile long finalCpuNanos = -1;
+    private volatile long loadedAt = -1;
+
+    private final Thread player;
 	private final Player iPlayer;
 
     public JLPlayer (java.io.InputStream stream, Player iPlay) throws JavaLayerException {
     	super (stream);
     	this.iPlayer = iPlay;
     	
-    	player = new Thread() {
-    		@Override
-            public void run() {
-                try { 
-                	while (!stop && !end) {
-                	  while (isPlaying && !stop && !end) {
-                		 if (!decodeFrame ())
-                			 end = true;
-                	  }
-                	}
-                }
-                catch (Exception e) { 
-                	System.out.println(e); 
+    	player = new Thread(this::runEngine, "LEITunes-player");
+    	player.setDaemon(true);
+    	player.start();
+    }
+
+    /**
+     * Body of the engine thread, that decodes frames while playing and blocks, without
+     * using the CPU, while paused.
+     */
+    private void runEngine() {
+        try {
+            while (awaitPlaying()) {
+                playingSince = System.nanoTime();
+                while (isPlaying && !stop) {
+                    if (!decodeFrame ()) {
+                        end = true;
+                        break;
+                    }
+                    if (framesDecoded.incrementAndGet() == 1 && loadedAt != -1)
+                        FIRST_FRAME_TIME.stop(loadedAt);
                 }
-                if (stop) 
-                	iPlayer.hasStopedSong();
-                else
-                	iPlayer.hasEndedSong();
+                playingNanos.addAndGet(System.nanoTime() - playingSince);
+                playingSince = -1;
             }
-        };
-        player.start();
+        }
+        catch (Exception e) {
+            System.out.println(e);
+        }
+        finally {
+            finalCpuNanos = currentThreadCpuTime();
+        }
+        if (discarded)
+            return;
+        if (stop)
+            iPlayer.hasStopedSong();
+        else
+            iPlayer.hasEndedSong();
+    }
+
+    /**
+     * Blocks until the stream is played, stopped or has ended.
+     *
+     * @return true if the stream is playing, false if it was stopped or has ended.
+     */
+    private boolean awaitPlaying() throws InterruptedException {
+        lock.lock();
+        try {
+            while (!isPlaying && !stop && !end)
+                stateChanged.await();
+            return !stop && !end;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the state of the stream and wakes up the engine thread.
+     */
+    private void signal(Runnable change) {
+        lock.lock();
+        try {
+            change.run();
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks this stream as loaded to be played, so the time from the given instant until
+     * its first frame is decoded is measured.
+     *
+     * @param start the instant the stream started to be loaded, from {@link System#nanoTime()}
+     */
+    public void loaded (long start) {
+        loadedAt = start;
     }
     
     @Override
     public void play () {
-    	isPlaying = true;
+    	signal(() -> isPlaying = true);
     }
     
     public void still () {
-    	isPlaying = false;
+    	signal(() -> isPlaying = false);
     }
     
     public void stop () {
-    	stop = true;
+    	signal(() -> stop = true);
     	super.close();
     }
+
+    /**
+     * Stops this stream without notifying that it was stopped, used for streams that
+     * were prepared in advance but will not be played.
+     */
+    public void discard () {
+        discarded = true;
+        stop();
+    }
+
+    /**
+     * Returns the metrics of the playback of this stream so far.
+     *
+     * @ensures {@code \result != null}
+     * @return 	the frames decoded, the time spent playing and the CPU time of the
+     * 			engine thread of this stream.
+     */
+    public PlaybackStats getStats() {
+        long since = playingSince;
+        long playing = playingNanos.get() + (since == -1 ? 0 : System.nanoTime() - since);
+        long cpu = player.isAlive() ? threadCpuTime(player) : finalCpuNanos;
+        return new PlaybackStats(framesDecoded.get(), playing, cpu);
+    }
+
+    private static long currentThreadCpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long threadCpuTime(Thread thread) {
+        return THREADS.isThreadCpuTimeSupported() ? THREADS.getThreadCpuTime(thread.getId()) : -1;
+    }
 }
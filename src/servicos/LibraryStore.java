@@ -0,0 +1,462 @@
+package servicos;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import domain.core.MusicLibrary;
+import domain.core.Rate;
+import domain.core.Song;
+import domain.core.SongAddedLibraryEvent;
+import domain.core.SongBatchAddedLibraryEvent;
+import domain.core.SongLibraryEvent;
+import domain.core.SongMetaInfo;
+import domain.core.SongPlayedLibraryEvent;
+import domain.core.SongRatedLibraryEvent;
+import domain.core.SongRemovedLibraryEvent;
+import domain.facade.ISong;
+import domain.playlists.ManualPlaylist;
+import domain.playlists.Playlist;
+import domain.playlists.PlaylistList;
+import util.observer.Listener;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class {@link LibraryStore} that implements {@link Listener}, used to persist the songs
+ * of a {@link MusicLibrary} (metainfo, filename, {@link Rate} and play count) and the
+ * {@link ManualPlaylist}s of a {@link PlaylistList} in a directory.
+ *
+ * The state is kept in two files: a snapshot with the whole state and an append-only log
+ * with the changes made after the snapshot. Changes are buffered and appended to the log
+ * by {@link #commit()}, with a single fsync per commit. The songs of the library are kept
+ * up to date through its events, so a song rated or played is written again. When the
+ * log grows bigger than the snapshot it is compacted into a new snapshot, written to a
+ * temporary file and atomically moved over the old one. Every record carries a CRC32,
+ * so a record torn by a crash is ignored on load, and records are idempotent, so
+ * replaying a log over a newer snapshot gives the same state. Both files are read with
+ * memory-mapped I/O.
+ */
+public class LibraryStore implements Listener<SongLibraryEvent>, Closeable {
+
+	/**
+	 * State of a song as read from the store, before the song is created.
+	 */
+	private record SongRecord(SongMetaInfo info, String filename, Rate rate, int playCount) {}
+
+	/**
+	 * State of a manual playlist as read from the store: its name and the keys of its songs.
+	 */
+	private record PlaylistRecord(String name, int[] keys) {}
+
+	private static final String SNAPSHOT_FILE = "library.snap";
+	private static final String LOG_FILE = "library.log";
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+	private static final int MAGIC = 0x4C545331; // "LTS1"
+	private static final int HEADER_SIZE = 4;
+	private static final int RECORD_OVERHEAD = 1 + 4 + 4;
+	private static final byte SONG_RECORD = 1;
+	private static final byte REMOVE_RECORD = 2;
+	private static final byte PLAYLISTS_RECORD = 3;
+	// number of changes buffered before a commit is forced
+	private static final int DEFAULT_COMMIT_BATCH = 1024;
+	// the log is never compacted while it is smaller than this
+	private static final long MIN_COMPACTION_SIZE = 1L << 20;
+
+	private final Logger logger = Logger.getLogger("LEITunes");
+	private final Path snapshotPath;
+	private final Path logPath;
+	// a chave de cada musica guardada, que e o seu id
+	private final Map<Song, Integer> stored = new IdentityHashMap<>();
+	private final Set<Song> pendingSongs = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final List<Integer> pendingRemovals = new ArrayList<>();
+	private final FileChannel log;
+	private MusicLibrary library;
+	private PlaylistList playlists;
+	private byte[] lastPlaylists = new byte[0];
+	private int commitBatch = DEFAULT_COMMIT_BATCH;
+	private long snapshotSize = 0;
+	private IOException failure = null;
+
+	/**
+	 * Constructor that creates a {@link LibraryStore} that keeps its files in the given
+	 * directory, creating it if needed.
+	 *
+	 * @param directory		the directory of the store files.
+	 * @requires 			{@code directory != null}
+	 * @throws IOException	if the directory or the log could not be opened.
+	 */
+	public LibraryStore(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+		this.logPath = directory.resolve(LOG_FILE);
+		this.log = openLog();
+	}
+
+	/**
+	 * Loads the stored songs into the given library and the stored playlists into the given
+	 * list of playlists, then starts recording the changes made to both.
+	 *
+	 * @param library		the library where the songs are added.
+	 * @param playlists		the list of playlists where the manual playlists are added.
+	 * @requires 			{@code library != null && playlists != null && library.size() == 0}
+	 * @throws IOException	if the store files could not be read.
+	 */
+	public void load(MusicLibrary library, PlaylistList playlists) throws IOException {
+		// as chaves sao os ids das musicas, atribuidos pela ordem da biblioteca
+		Map<Integer, SongRecord> songs = new TreeMap<>();
+		List<PlaylistRecord> playlistRecords = new ArrayList<>();
+		this.snapshotSize = replay(this.snapshotPath, songs, playlistRecords);
+		long validLog = replay(this.logPath, songs, playlistRecords);
+		// descarta o fim de um registo incompleto para os proximos registos serem lidos
+		if (validLog >= HEADER_SIZE && validLog < this.log.size()) {
+			this.log.truncate(validLog);
+			this.log.force(true);
+		}
+
+		Map<Integer, Song> byKey = new LinkedHashMap<>();
+		for (Map.Entry<Integer, SongRecord> entry : songs.entrySet()) {
+			SongRecord r = entry.getValue();
+			Song song = new Song(entry.getKey(), r.info(), r.filename(), r.rate(), r.playCount());
+			library.add(song);
+			byKey.put(entry.getKey(), song);
+			this.stored.put(song, entry.getKey());
+		}
+		for (PlaylistRecord record : playlistRecords) {
+			ManualPlaylist playlist = new ManualPlaylist(record.name(), library);
+			playlists.add(playlist);
+			for (int key : record.keys()) {
+				Song song = byKey.get(key);
+				if (song != null)
+					playlist.add(song);
+			}
+		}
+		this.library = library;
+		this.playlists = playlists;
+		this.lastPlaylists = encodePlaylists();
+		library.registerListener(this);
+	}
+
+	@Override
+	public void processEvent(SongLibraryEvent e) {
+		Song song = e.getSong();
+		if (e instanceof SongAddedLibraryEvent)
+			store(song);
+		else if (e instanceof SongBatchAddedLibraryEvent batchEvent)
+			batchEvent.getSongs().forEach(this::store);
+		else if (e instanceof SongRatedLibraryEvent || e instanceof SongPlayedLibraryEvent)
+			this.pendingSongs.add(song);
+		else if (e instanceof SongRemovedLibraryEvent) {
+			Integer removed = this.stored.remove(song);
+			this.pendingSongs.remove(song);
+			if (removed != null)
+				this.pendingRemovals.add(removed);
+		}
+		// depois de uma falha so se volta a tentar num commit pedido explicitamente
+		if (this.failure == null && this.pendingSongs.size() + this.pendingRemovals.size() >= this.commitBatch) {
+			try {
+				commit();
+			} catch (IOException ex) {
+				// os outros listeners do evento tem de o receber na mesma
+				this.failure = ex;
+				this.logger.severe(() -> "Could not save the library, the changes are kept until the next commit: " + ex);
+			}
+		}
+	}
+
+	/**
+	 * Auxiliary method that buffers a song added to the library, keyed by its id.
+	 */
+	private void store(Song song) {
+		this.stored.put(song, song.getId());
+		this.pendingSongs.add(song);
+	}
+
+	/**
+	 * Changes the number of buffered changes that forces a commit.
+	 *
+	 * @param commitBatch	the number of changes buffered before a commit is forced.
+	 * @requires 			{@code commitBatch > 0}
+	 */
+	public void setCommitBatch(int commitBatch) {
+		this.commitBatch = commitBatch;
+	}
+
+	/**
+	 * Appends every buffered change to the log, together with the manual playlists, if
+	 * they changed, and forces them to disk with a single fsync. Compacts the store if the
+	 * log became bigger than the snapshot. If the changes could not be written, they stay
+	 * buffered for the next commit and the log is left as it was.
+	 *
+	 * A commit forced by the events of the library that fails doesn't stop the event from
+	 * reaching the other listeners: the error is logged and the changes are buffered until
+	 * this method is called again.
+	 *
+	 * @requires 			the store was loaded.
+	 * @throws IOException	if the changes could not be written.
+	 */
+	public void commit() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		for (int key : this.pendingRemovals)
+			writeRecord(out, REMOVE_RECORD, payload -> payload.writeInt(key));
+		for (Song song : this.pendingSongs) {
+			int key = this.stored.get(song);
+			writeRecord(out, SONG_RECORD, payload -> writeSong(payload, key, song));
+		}
+		byte[] currentPlaylists = encodePlaylists();
+		boolean playlistsChanged = !Arrays.equals(currentPlaylists, this.lastPlaylists);
+		if (playlistsChanged)
+			writeRecord(out, PLAYLISTS_RECORD, payload -> payload.write(currentPlaylists));
+		if (bytes.size() > 0) {
+			long end = this.log.size();
+			try {
+				ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+				while (buffer.hasRemaining())
+					this.log.write(buffer);
+				this.log.force(false);
+			} catch (IOException e) {
+				// um registo escrito a meio impediria a leitura dos seguintes
+				try {
+					this.log.truncate(end);
+				} catch (IOException suppressed) {
+					e.addSuppressed(suppressed);
+				}
+				throw e;
+			}
+		}
+		if (playlistsChanged)
+			this.lastPlaylists = currentPlaylists;
+		this.pendingSongs.clear();
+		this.pendingRemovals.clear();
+		this.failure = null;
+		if (this.log.size() > Math.max(MIN_COMPACTION_SIZE, this.snapshotSize))
+			compact();
+	}
+
+	/**
+	 * Writes the whole state of the library and of the manual playlists to a new snapshot
+	 * and empties the log.
+	 *
+	 * @requires 			the store was loaded.
+	 * @throws IOException	if the snapshot could not be written.
+	 */
+	public void compact() throws IOException {
+		Path temporary = this.snapshotPath.resolveSibling(SNAPSHOT_FILE + TEMPORARY_SUFFIX);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		for (Song song : this.library) {
+			Integer key = this.stored.get(song);
+			if (key != null)
+				writeRecord(out, SONG_RECORD, payload -> writeSong(payload, key, song));
+		}
+		byte[] currentPlaylists = encodePlaylists();
+		writeRecord(out, PLAYLISTS_RECORD, payload -> payload.write(currentPlaylists));
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+			channel.force(true);
+		}
+		Files.move(temporary, this.snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		this.snapshotSize = bytes.size();
+		this.lastPlaylists = currentPlaylists;
+		this.pendingSongs.clear();
+		this.pendingRemovals.clear();
+		// o log so e esvaziado depois do snapshot estar no disco
+		this.log.truncate(HEADER_SIZE);
+		this.log.force(true);
+	}
+
+	/**
+	 * Commits the buffered changes, compacts the store and closes the log.
+	 *
+	 * @throws IOException	if the changes could not be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (this.library != null) {
+				this.library.unregisterListener(this);
+				commit();
+				compact();
+			}
+		} finally {
+			this.log.close();
+		}
+	}
+
+	/**
+	 * Auxiliary interface used to write the payload of a record.
+	 */
+	private interface PayloadWriter {
+		void write(DataOutputStream payload) throws IOException;
+	}
+
+	/**
+	 * Auxiliary method that writes a record: its type, the size of its payload, the payload
+	 * and the CRC32 of the payload.
+	 */
+	private static void writeRecord(DataOutputStream out, byte type, PayloadWriter writer) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		writer.write(new DataOutputStream(bytes));
+		byte[] payload = bytes.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		out.writeByte(type);
+		out.writeInt(payload.length);
+		out.write(payload);
+		out.writeInt((int) crc.getValue());
+	}
+
+	/**
+	 * Auxiliary method that writes the payload of a song record.
+	 */
+	private static void writeSong(DataOutputStream out, int key, Song song) throws IOException {
+		out.writeInt(key);
+		BinaryCodec.writeString(out, song.getFilename());
+		BinaryCodec.writeMetaInfo(out, song);
+		out.writeByte(song.getRating().ordinal());
+		out.writeInt(song.getTimesPlayed());
+	}
+
+	/**
+	 * Auxiliary method that encodes the payload of the playlists record: the name and
+	 * the song keys of every manual playlist.
+	 */
+	private byte[] encodePlaylists() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		List<Playlist> manual = new ArrayList<>();
+		for (Playlist playlist : this.playlists) {
+			if (playlist instanceof ManualPlaylist)
+				manual.add(playlist);
+		}
+		out.writeInt(manual.size());
+		for (Playlist playlist : manual) {
+			BinaryCodec.writeString(out, playlist.getName());
+			List<Integer> keys = new ArrayList<>();
+			for (ISong song : playlist) {
+				Integer key = this.stored.get(song);
+				if (key != null)
+					keys.add(key);
+			}
+			out.writeInt(keys.size());
+			for (int key : keys)
+				out.writeInt(key);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Auxiliary method that applies every valid record of the given file, stopping at
+	 * the first torn or corrupted record.
+	 *
+	 * @return the offset where the valid records of the file end.
+	 */
+	private long replay(Path path, Map<Integer, SongRecord> songs, List<PlaylistRecord> playlists) throws IOException {
+		if (!Files.exists(path))
+			return 0;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_SIZE)
+				return 0;
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (buffer.getInt() != MAGIC) {
+				this.logger.severe(() -> "Ignoring unknown store file " + path);
+				return 0;
+			}
+			long valid = buffer.position();
+			while (buffer.remaining() >= RECORD_OVERHEAD) {
+				byte type = buffer.get();
+				int length = buffer.getInt();
+				// comparado assim para um tamanho corrompido nao dar overflow
+				if (length < 0 || length > buffer.remaining() - 4)
+					break;
+				ByteBuffer payload = buffer.slice(buffer.position(), length);
+				buffer.position(buffer.position() + length);
+				CRC32 crc = new CRC32();
+				crc.update(payload.duplicate());
+				if ((int) crc.getValue() != buffer.getInt())
+					break;
+				try {
+					applyRecord(type, payload, songs, playlists);
+				} catch (IllegalArgumentException | BufferUnderflowException e) {
+					this.logger.severe(() -> "Ignoring malformed record in " + path);
+					break;
+				}
+				valid = buffer.position();
+			}
+			if (valid < size)
+				this.logger.warning(() -> "Ignoring incomplete records at the end of " + path);
+			return valid;
+		}
+	}
+
+	/**
+	 * Auxiliary method that applies a record to the state being loaded.
+	 */
+	private static void applyRecord(byte type, ByteBuffer payload, Map<Integer, SongRecord> songs,
+			List<PlaylistRecord> playlists) {
+		if (type == SONG_RECORD) {
+			int key = payload.getInt();
+			String filename = BinaryCodec.readString(payload);
+			SongMetaInfo info = BinaryCodec.readMetaInfo(payload);
+			int ordinal = payload.get();
+			if (ordinal < 0 || ordinal >= Rate.values().length)
+				throw new IllegalArgumentException("Invalid rate " + ordinal);
+			Rate rate = Rate.values()[ordinal];
+			int playCount = payload.getInt();
+			songs.put(key, new SongRecord(info, filename, rate, playCount));
+		} else if (type == REMOVE_RECORD)
+			songs.remove(payload.getInt());
+		else if (type == PLAYLISTS_RECORD) {
+			playlists.clear();
+			int numberOfPlaylists = payload.getInt();
+			for (int i = 0; i < numberOfPlaylists; i++) {
+				String name = BinaryCodec.readString(payload);
+				int[] keys = new int[payload.getInt()];
+				for (int j = 0; j < keys.length; j++)
+					keys[j] = payload.getInt();
+				playlists.add(new PlaylistRecord(name, keys));
+			}
+		}
+	}
+
+	/**
+	 * Auxiliary method that opens the log for appending, writing its header if it is new.
+	 */
+	private FileChannel openLog() throws IOException {
+		FileChannel channel = FileChannel.open(this.logPath, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		if (channel.size() < HEADER_SIZE) {
+			channel.truncate(0);
+			channel.write(ByteBuffer.allocate(HEADER_SIZE).putInt(0, MAGIC));
+			channel.force(true);
+		}
+		channel.position(channel.size());
+		return channel;
+	}
+}
@@ -9,6 +9,9 @@ import com.mpatric.mp3agic.Mp3File;
 import com.mpatric.mp3agic.UnsupportedTagException;
 
 import domain.core.SongMetaInfo;
+import util.metrics.Counter;
+import util.metrics.Metrics;
+import util.metrics.Timer;
 
 /**
  * @author 58180 Rodrigo Correia
@@ -22,8 +25,40 @@ public class MP3MetaInfoFactory implements IMetaInfoFactory {
 	// name used when some song does not contains some meta field.
 	private static final String UNKNOWN_NAME = "unknown";
 
+	private static final Timer PARSE_TIME = Metrics.INSTANCE.timer("leitunes_tag_parse_seconds",
+			"Time taken to read the tags of a mp3 file");
+	private static final Counter FULL_PARSES = Metrics.INSTANCE.counter("leitunes_tag_full_parses_total",
+			"Number of mp3 files whose tags could only be read by parsing the whole file");
+
+	/**
+	 * Loads the metainfo of the given mp3 file, reading only its tags with the
+	 * {@link ID3TagReader}. Only if the tags are malformed or not supported by that
+	 * reader is the whole file parsed with {@link Mp3File}.
+	 */
 	@Override
-	public SongMetaInfo load(String path) {	
+	public SongMetaInfo load(String path) {
+		long start = PARSE_TIME.start();
+		try {
+			ID3TagReader.Tag tag = ID3TagReader.read(path);
+			if (tag == null)
+				return null;
+			return toMetaInfo(tag.title(), tag.genre(), tag.artist(), tag.album());
+		} catch (UnsupportedTagException | InvalidDataException e) {
+			FULL_PARSES.inc();
+			return loadFullFile(path);
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			PARSE_TIME.stop(start);
+		}
+		return null;
+	}
+
+	/**
+	 * Auxiliary method that loads the metainfo of the given mp3 file by parsing the whole
+	 * file with mp3agic.
+	 */
+	private static SongMetaInfo loadFullFile(String path) {
 		try {
 			Mp3File mp3 = new Mp3File(path);
 			ID3v1 tag = null;
@@ -31,22 +66,29 @@ public class MP3MetaInfoFactory implements IMetaInfoFactory {
 				tag = mp3.getId3v2Tag();
 			else if (mp3.hasId3v1Tag())
 				tag = mp3.getId3v1Tag();
-			if (tag != null) {
-				String title = tag.getTitle() != null ? tag.getTitle() : UNKNOWN_NAME;
-				String genre = tag.getGenreDescription() != null ? tag.getGenreDescription() : UNKNOWN_NAME;
-				String artist = tag.getArtist() != null ? tag.getArtist() : UNKNOWN_NAME;
-				String[] artistsSplited = artist.split(";");
-				for(int i = 0; i < artistsSplited.length; i++)
-					artistsSplited[i] = artistsSplited[i].trim();
-				String album = tag.getAlbum() != null ? tag.getAlbum() : UNKNOWN_NAME;
-				return new SongMetaInfo(title, genre, Arrays.asList(artistsSplited), album);
-			}
+			if (tag != null)
+				return toMetaInfo(tag.getTitle(), tag.getGenreDescription(), tag.getArtist(), tag.getAlbum());
 		} catch (UnsupportedTagException | InvalidDataException | IOException e) {
 			e.printStackTrace();
 		}
 		return null;
 	}
 
+	/**
+	 * Auxiliary method that creates the metainfo from the fields of a tag, using
+	 * {@value #UNKNOWN_NAME} for the missing fields and splitting the artists by ';'.
+	 */
+	private static SongMetaInfo toMetaInfo(String title, String genre, String artist, String album) {
+		String artists = artist != null ? artist : UNKNOWN_NAME;
+		String[] artistsSplited = artists.split(";");
+		for(int i = 0; i < artistsSplited.length; i++)
+			artistsSplited[i] = artistsSplited[i].trim();
+		return new SongMetaInfo(title != null ? title : UNKNOWN_NAME,
+								genre != null ? genre : UNKNOWN_NAME,
+								Arrays.asList(artistsSplited),
+								album != null ? album : UNKNOWN_NAME);
+	}
+
 	@Override
 	public boolean canLoad(String path) {
 		String[] extensionSplit = path.split("\\.");
@@ -0,0 +1,240 @@
+package servicos;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import domain.core.SongMetaInfo;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class {@link MetaInfoCache} used to keep the {@link SongMetaInfo} already loaded from
+ * files, keyed by the canonical path of the file together with its size and last modified
+ * time, so a file is only loaded again if it changed.
+ *
+ * The entries are kept in a bounded, least recently used, in-memory map and can be saved
+ * to, and loaded from, a compact binary file. The capacity starts small and is grown with
+ * {@link #ensureCapacity(int)} as the library grows, and a cache loaded from a file keeps
+ * room for every entry in it. This class is thread-safe.
+ */
+public class MetaInfoCache {
+
+	/**
+	 * Record with the metainfo of a file and the size and last modified time the file
+	 * had when it was loaded.
+	 */
+	private record Entry(long size, long lastModified, SongMetaInfo info) {}
+
+	private static final int MAGIC = 0x4C544D31; // "LTM1"
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+	// number of entries kept in memory when no capacity is given, enough for a small library
+	private static final int DEFAULT_CAPACITY = 4096;
+
+	private final Logger logger = Logger.getLogger("LEITunes");
+	private final Path file;
+	private int capacity;
+	private final Map<String, Entry> entries;
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * Constructor that creates an in-memory {@link MetaInfoCache}, that is never saved.
+	 */
+	public MetaInfoCache() {
+		this(null, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor that creates a {@link MetaInfoCache} saved in the given file, loading
+	 * the entries already in it, if it exists.
+	 *
+	 * @param file	the file where the cache is saved.
+	 * @requires 	{@code file != null}
+	 */
+	public MetaInfoCache(Path file) {
+		this(file, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor that creates a {@link MetaInfoCache} saved in the given file, loading
+	 * the entries already in it, if it exists.
+	 *
+	 * @param file		the file where the cache is saved, or null if it is never saved.
+	 * @param capacity	the maximum number of entries kept, grown if the file has more.
+	 * @requires 		{@code capacity > 0}
+	 */
+	public MetaInfoCache(Path file, int capacity) {
+		this.file = file;
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > MetaInfoCache.this.capacity;
+			}
+		};
+		if (file != null && Files.exists(file))
+			readFile();
+	}
+
+	/**
+	 * Returns the cached metainfo of the file with the given canonical path, if the file
+	 * still has the given size and last modified time.
+	 *
+	 * @param canonicalPath	the canonical path of the file.
+	 * @param size			the current size of the file.
+	 * @param lastModified	the current last modified time of the file, in milliseconds.
+	 * @requires 			{@code canonicalPath != null}
+	 * @return 				the cached metainfo, or null if it is not cached or the file changed.
+	 */
+	public synchronized SongMetaInfo get(String canonicalPath, long size, long lastModified) {
+		Entry entry = this.entries.get(canonicalPath);
+		if (entry == null || entry.size() != size || entry.lastModified() != lastModified) {
+			if (entry != null)
+				this.entries.remove(canonicalPath);
+			this.misses++;
+			return null;
+		}
+		this.hits++;
+		return entry.info();
+	}
+
+	/**
+	 * Caches the metainfo of the file with the given canonical path.
+	 *
+	 * @param canonicalPath	the canonical path of the file.
+	 * @param size			the size of the file when it was loaded.
+	 * @param lastModified	the last modified time of the file when it was loaded, in milliseconds.
+	 * @param info			the metainfo loaded from the file.
+	 * @requires 			{@code canonicalPath != null && info != null}
+	 */
+	public synchronized void put(String canonicalPath, long size, long lastModified, SongMetaInfo info) {
+		this.entries.put(canonicalPath, new Entry(size, lastModified, info));
+	}
+
+	/**
+	 * Returns the maximum number of entries kept by this cache.
+	 *
+	 * @ensures {@code \result > 0}
+	 * @return 	the capacity of this cache.
+	 */
+	public synchronized int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Grows the capacity of this cache to the given number of entries, if it is smaller,
+	 * e.g. to keep the metainfo of every song of a library that is growing.
+	 *
+	 * @param capacity	the minimum number of entries kept.
+	 * @ensures 		{@code getCapacity() >= capacity}
+	 */
+	public synchronized void ensureCapacity(int capacity) {
+		this.capacity = Math.max(this.capacity, capacity);
+	}
+
+	/**
+	 * Returns the number of cached entries.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of cached entries.
+	 */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Returns the number of lookups that found a valid entry.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of cache hits.
+	 */
+	public synchronized long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Returns the number of lookups that did not find a valid entry.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of cache misses.
+	 */
+	public synchronized long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * Saves every entry to the file of this cache, if it has one, replacing the file
+	 * atomically.
+	 *
+	 * @throws IOException	if the file could not be written.
+	 */
+	public void save() throws IOException {
+		if (this.file == null)
+			return;
+		List<Map.Entry<String, Entry>> snapshot;
+		synchronized (this) {
+			snapshot = new ArrayList<>(this.entries.entrySet());
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeInt(snapshot.size());
+		for (Map.Entry<String, Entry> entry : snapshot) {
+			BinaryCodec.writeString(out, entry.getKey());
+			out.writeLong(entry.getValue().size());
+			out.writeLong(entry.getValue().lastModified());
+			BinaryCodec.writeMetaInfo(out, entry.getValue().info());
+		}
+		Path temporary = this.file.resolveSibling(this.file.getFileName() + TEMPORARY_SUFFIX);
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+			channel.force(true);
+		}
+		Files.move(temporary, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Auxiliary method that loads the entries of the file of this cache. A damaged file is
+	 * ignored, since every entry can be loaded again from the song files.
+	 */
+	private void readFile() {
+		try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+			ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (in.remaining() < 8 || in.getInt() != MAGIC)
+				throw new IllegalArgumentException("Unknown file format");
+			int numberOfEntries = in.getInt();
+			// cada entrada ocupa pelo menos 4 bytes, o que limita um numero corrompido
+			if (numberOfEntries < 0 || numberOfEntries > in.remaining() / 4)
+				throw new IllegalArgumentException("Invalid number of entries " + numberOfEntries);
+			ensureCapacity(numberOfEntries);
+			for (int i = 0; i < numberOfEntries; i++) {
+				String path = BinaryCodec.readString(in);
+				long size = in.getLong();
+				long lastModified = in.getLong();
+				SongMetaInfo info = BinaryCodec.readMetaInfo(in);
+				this.entries.put(path, new Entry(size, lastModified, info));
+			}
+		} catch (IOException | IllegalArgumentException | BufferUnderflowException e) {
+			this.logger.warning(() -> "Ignoring damaged meta-info cache " + this.file + ": " + e);
+		}
+	}
+}
@@ -1,12 +1,17 @@
 package servicos;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
 
 import domain.core.SongMetaInfo;
 
 /**
- * Class that allows to load {@link SongMetaInfo}.
+ * Class that allows to load {@link SongMetaInfo}. The metainfo already loaded is kept
+ * in a {@link MetaInfoCache}, so files that did not change are not parsed again.
  * 
  * @author 58180 Rodrigo Correia
  * @author 58188 Laura Cunha
@@ -14,13 +19,35 @@ import domain.core.SongMetaInfo;
 public class MetaInfoLoader {
 	
 	private final List<IMetaInfoFactory> factories = new ArrayList<>();
+	private final MetaInfoCache cache;
 	
 	/**
-	 * Constructor that creats a {@link MetaInfoLoader}.
+	 * Constructor that creats a {@link MetaInfoLoader} with an in-memory cache.
 	 */
 	public MetaInfoLoader() {
+		this(new MetaInfoCache());
+	}
+
+	/**
+	 * Constructor that creats a {@link MetaInfoLoader} that uses the given cache.
+	 * 
+	 * @param cache	the cache of the metainfo already loaded.
+	 * @requires 	{@code cache != null}
+	 */
+	public MetaInfoLoader(MetaInfoCache cache) {
+		this.cache = cache;
 		factories.add(new MP3MetaInfoFactory());
 	}
+
+	/**
+	 * Returns the cache of the metainfo already loaded.
+	 * 
+	 * @ensures {@code \result != null}
+	 * @return 	the cache of this loader.
+	 */
+	public MetaInfoCache getCache() {
+		return this.cache;
+	}
 	
 	/**
 	 * Method that loads the {@link MetaInfo} of the given path.
@@ -33,8 +60,49 @@ public class MetaInfoLoader {
 	public SongMetaInfo load(String path) {
 		for (IMetaInfoFactory factory : factories) {
 			if(factory.canLoad(path))
-				return factory.load(path);
+				return loadCached(factory, path);
 		}
 		return null;
 	}
+
+	/**
+	 * Auxiliary method that returns the cached metainfo of the given path, if the file did
+	 * not change since it was cached, and otherwise loads it with the given factory.
+	 */
+	private SongMetaInfo loadCached(IMetaInfoFactory factory, String path) {
+		String canonicalPath;
+		BasicFileAttributes attributes;
+		try {
+			Path realPath = Path.of(path).toRealPath();
+			canonicalPath = realPath.toString();
+			attributes = Files.readAttributes(realPath, BasicFileAttributes.class);
+		} catch (IOException | RuntimeException e) {
+			// o ficheiro nao existe ou nao pode ser lido, a fabrica trata do erro
+			return factory.load(path);
+		}
+		long size = attributes.size();
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		SongMetaInfo info = this.cache.get(canonicalPath, size, lastModified);
+		if (info == null) {
+			info = factory.load(path);
+			if (info != null)
+				this.cache.put(canonicalPath, size, lastModified, info);
+		}
+		return info;
+	}
+
+	/**
+	 * Check if the given path can be loaded by some of the known factories.
+	 * 
+	 * @param path 	the given path to be loaded.
+	 * @requires 	{@code path != null}
+	 * @return 		true if the path can be loaded, and false otherwise.
+	 */
+	public boolean canLoad(String path) {
+		for (IMetaInfoFactory factory : factories) {
+			if(factory.canLoad(path))
+				return true;
+		}
+		return false;
+	}
 }
@@ -0,0 +1,25 @@
+package servicos;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Record with the metrics of the playback of a stream by a {@link JLPlayer}.
+ *
+ * @param framesDecoded	the number of mp3 frames decoded so far.
+ * @param playingNanos	the time, in nanoseconds, that the stream spent playing.
+ * @param cpuNanos		the CPU time, in nanoseconds, used by the thread that decodes
+ * 						the stream, or -1 if it is not supported by the JVM.
+ */
+public record PlaybackStats(long framesDecoded, long playingNanos, long cpuNanos) {
+
+	/**
+	 * Returns the average number of frames decoded per second of playing.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the decoded frames per second, or 0 if the stream has not played yet.
+	 */
+	public double framesPerSecond() {
+		return this.playingNanos == 0 ? 0 : this.framesDecoded * 1e9 / this.playingNanos;
+	}
+}
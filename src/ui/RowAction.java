@@ -1,49 +1,79 @@
 package ui;
 
-import java.util.List;
-
-import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableItem;
 
 import domain.facade.ISong;
 
+/**
+ * Fonte dos dados da tabela, que e virtual: so as linhas visiveis sao preenchidas,
+ * quando a tabela as pede, a partir da posicao de cada cancao.
+ */
 abstract class RowAction {
-	
+
 	private Table table;
 	private int pos;
 	protected Object criteria;
-	
+
 	RowAction (Table table, Object criteria, int pos) {
 		this.table = table;
 		this.criteria = criteria;
 		this.pos = pos;
 	}
-	
+
+	/**
+	 * Mostra as cancoes desta fonte na tabela. Nenhuma linha e preenchida aqui.
+	 */
 	void fillTable () {
-		table.removeAll();
-		fillData ();
+		table.deselectAll();
+		table.setItemCount(0);
+		table.setItemCount(size());
 		packColumns ();
 	}
-	
-	abstract void fillData ();
-	
-	public int getPos () {
-		return pos;
+
+	/**
+	 * Atualiza a tabela depois de alteracoes nas cancoes: as linhas passam a estar por
+	 * preencher e so as visiveis sao pedidas de novo.
+	 */
+	void refreshTable () {
+		table.setItemCount(size());
+		table.clearAll();
 	}
-	
-	void fillRow (ISong s, String n) {
-		TableItem item = new TableItem (table, SWT.NONE);
-		item.setText (0, n);		
-		addSongRow(s, item);
+
+	/**
+	 * Numero de cancoes a mostrar.
+	 */
+	abstract int size ();
+
+	/**
+	 * Cancao na posicao dada.
+	 */
+	abstract ISong get (int i);
+
+	/**
+	 * Seleciona a cancao na posicao dada, na biblioteca ou na playlist de onde vem.
+	 */
+	abstract void selectSong (int i);
+
+	/**
+	 * Texto da primeira coluna da linha na posicao dada.
+	 */
+	String number (int i) {
+		return "";
 	}
-	
-	void fillRow (ISong s, int i) {
-		fillRow (s, i + "");
+
+	public int getPos () {
+		return pos;
 	}
-	
-	void fillRow (ISong s) {
-		fillRow (s, "");
+
+	/**
+	 * Preenche a linha dada, chamado quando a tabela a vai mostrar.
+	 */
+	void fillRow (TableItem item, int i) {
+		if (i < 0 || i >= size())
+			return;
+		item.setText (0, number(i));
+		addSongRow(get(i), item);
 	}
 
 	/**
@@ -52,28 +82,28 @@ abstract class RowAction {
 	 */
 	private void addSongRow(ISong s, TableItem item) {
 		item.setText (1, s.getSongTitle());
-		
+
 		String authorsStr = "";
-		List<String> authors = s.getArtists();
-		if (authors.size() == 1) {
-			authorsStr = authors.get(0);
-		} else if (authors.size() == 2) {
-			authorsStr = authors.get(0) + " and " + authors.get(1);
-		} else if (authors.size() > 2) {
-			authorsStr = authors.get(0) + "et al.";
+		int authors = s.artistCount();
+		if (authors == 1) {
+			authorsStr = s.artist(0);
+		} else if (authors == 2) {
+			authorsStr = s.artist(0) + " and " + s.artist(1);
+		} else if (authors > 2) {
+			authorsStr = s.artist(0) + "et al.";
 		}
 		item.setText (2, authorsStr);
 
 		item.setText (3, s.getAlbum() == null ? "" : s.getAlbum());
 		item.setText (4, s.getGenre() == null ? "" : s.getGenre());
-		item.setText (5, s.getRating() + "");		
+		item.setText (5, s.getRating() + "");
 		item.setText (6, s.getTimesPlayed() + "");
 	}
-	
+
 	private void packColumns () {
 		for (int i = 0; i < table.getColumnCount(); i++) {
 			table.getColumn (i).pack ();
-		}	
+		}
 	}
-	
-}
\ No newline at end of file
+
+}
@@ -1,10 +1,14 @@
 package ui;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.SelectionAdapter;
@@ -20,6 +24,7 @@ import org.eclipse.swt.widgets.Sash;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.swt.widgets.TreeColumn;
 import org.eclipse.swt.widgets.TreeItem;
@@ -27,7 +32,6 @@ import org.eclipse.swt.widgets.TreeItem;
 import domain.facade.ISong;
 import domain.facade.MusicLibraryController;
 import domain.facade.PlaylistListController;
-import domain.playlists.AbsPlaylist;
 import domain.playlists.Playlist;
 import domain.playlists.SmartPlaylist;
 
@@ -53,15 +57,70 @@ public class UI {
 	 */
 	private Map<TreeItem, RowAction> selections = new HashMap<>();
 
+	/**
+	 * Nos das facetas da biblioteca, preenchidos so quando sao expandidos
+	 */
+	private Map<TreeItem, FacetNode> facets = new HashMap<>();
+
+	/**
+	 * Elementos mostrados na tabela
+	 */
+	private RowAction current;
+
+	private Display display;
+
+	/**
+	 * Indica se ja ha uma atualizacao da tabela por fazer, para juntar as alteracoes
+	 * seguidas da biblioteca numa so atualizacao
+	 */
+	private final AtomicBoolean refreshPending = new AtomicBoolean();
+
 	private MusicLibraryController songsLibraryController;
 	private PlaylistListController playlistsController;
 
 	private boolean selectedPlaylist;
 
+	/**
+	 * Intervalo, em milissegundos, entre gravacoes automaticas das alteracoes
+	 */
+	private static final int AUTOSAVE_MILLIS = 5000;
+
+	/**
+	 * Janela, em milissegundos, em que as alteracoes seguidas do rate de uma musica
+	 * sao juntas num so evento
+	 */
+	private static final int RATE_WINDOW_MILLIS = 300;
+
+	/**
+	 * Grava as alteracoes da biblioteca, chamado periodicamente na thread da interface,
+	 * ou null se nada e gravado
+	 */
+	private final Runnable autosave;
+
 	public UI(PlaylistListController playlistListController,
 			MusicLibraryController musicLibraryController) {
+		this(playlistListController, musicLibraryController, null);
+	}
+
+	/**
+	 * Cria a interface, que grava as alteracoes da biblioteca a cada poucos segundos,
+	 * na thread da interface, para nao se perderem se a aplicacao for morta.
+	 *
+	 * @param autosave grava as alteracoes da biblioteca, ou null se nada e gravado
+	 */
+	public UI(PlaylistListController playlistListController,
+			MusicLibraryController musicLibraryController, Runnable autosave) {
 		this.playlistsController = playlistListController;
 		this.songsLibraryController = musicLibraryController;
+		this.autosave = autosave;
+	}
+
+	/**
+	 * Grava as alteracoes e agenda a proxima gravacao.
+	 */
+	private void autosave() {
+		autosave.run();
+		display.timerExec(AUTOSAVE_MILLIS, this::autosave);
 	}
 
 	/**
@@ -73,11 +132,12 @@ public class UI {
 		@Override
 		public void widgetDefaultSelected(SelectionEvent event) {
 			int position = ((Table) event.getSource()).getSelectionIndex();
+			if (current == null)
+				return;
+			current.selectSong(position);
 			if (selectedPlaylist) {
-				playlistsController.selectSong(position);
 				playlistsController.play();
 			} else {
-				songsLibraryController.selectSong(position);
 				songsLibraryController.play();
 			}
 		}
@@ -85,12 +145,8 @@ public class UI {
 		@Override
 		public void widgetSelected(SelectionEvent event) {
 			int position = ((Table) event.getSource()).getSelectionIndex();
-			if (selectedPlaylist) {
-				playlistsController.selectSong(position);
-					}
-			else {
-				songsLibraryController.selectSong(position);
-				}
+			if (current != null)
+				current.selectSong(position);
 		}
 	}
 
@@ -104,16 +160,124 @@ public class UI {
 		public void handleEvent(Event e) {
 			for (TreeItem item : tree.getSelection()) {
 				RowAction a = selections.get(item);
+				if (a == null)
+					continue;
 				if (a.getPos() != 0) {
 					playlistsController.selectPlaylist(a.getPos() - 1);
 					selectedPlaylist = true;
 				} else
 					selectedPlaylist = false;
+				current = a;
 				a.fillTable();
 			}
 		}
 	}
 
+	/**
+	 * Preenche os nos das facetas da biblioteca quando sao expandidos.
+	 */
+	private class TreeExpandController implements Listener {
+		@Override
+		public void handleEvent(Event e) {
+			FacetNode node = facets.get(e.item);
+			if (node != null)
+				node.expand();
+		}
+	}
+
+	/**
+	 * Preenche os valores das facetas da arvore (virtual) quando sao mostrados.
+	 */
+	private class TreeDataController implements Listener {
+		@Override
+		public void handleEvent(Event e) {
+			TreeItem item = (TreeItem) e.item;
+			FacetNode node = item.getParentItem() == null ? null : facets.get(item.getParentItem());
+			if (node != null)
+				node.fillItem(item, e.index);
+		}
+	}
+
+	/**
+	 * No de uma faceta da biblioteca (generos, autores ou albuns). Os valores da faceta,
+	 * ja contados pela biblioteca, so sao pedidos quando o no e expandido, e de novo em
+	 * cada expansao, para mostrar os valores atuais. So sao criados os itens dos valores
+	 * que sao mostrados, por isso uma faceta com muitos valores abre logo.
+	 */
+	private class FacetNode {
+
+		private final TreeItem item;
+		private final Supplier<Map<String, Integer>> values;
+		private final Function<String, List<ISong>> songsOf;
+		private List<Map.Entry<String, Integer>> shown = List.of();
+
+		FacetNode (TreeItem item, Supplier<Map<String, Integer>> values, Function<String, List<ISong>> songsOf) {
+			this.item = item;
+			this.values = values;
+			this.songsOf = songsOf;
+			// filho provisorio, para o no poder ser expandido
+			item.setItemCount(1);
+		}
+
+		void expand () {
+			shown = new ArrayList<>(values.get().entrySet());
+			selections.keySet().removeIf(child -> child.isDisposed() || child.getParentItem() == item);
+			item.clearAll(true);
+			item.setItemCount(shown.size());
+		}
+
+		void fillItem (TreeItem child, int index) {
+			if (index >= shown.size())
+				return;
+			Map.Entry<String, Integer> entry = shown.get(index);
+			child.setText(entry.getKey() + " (" + entry.getValue() + ")");
+			selections.put(child, new FacetRowAction(entry.getKey(), songsOf));
+		}
+	}
+
+	/**
+	 * Mostra as cancoes com um valor de uma faceta da biblioteca (um genero, autor ou
+	 * album), pedidas de novo a biblioteca sempre que a tabela e preenchida.
+	 */
+	private class FacetRowAction extends RowAction {
+
+		private final Function<String, List<ISong>> songsOf;
+		private List<ISong> songs = List.of();
+
+		FacetRowAction (String value, Function<String, List<ISong>> songsOf) {
+			super(table, value, 0);
+			this.songsOf = songsOf;
+		}
+
+		@Override
+		void fillTable () {
+			songs = songsOf.apply((String) criteria);
+			super.fillTable();
+		}
+
+		@Override
+		void refreshTable () {
+			songs = songsOf.apply((String) criteria);
+			super.refreshTable();
+		}
+
+		@Override
+		int size () {
+			return songs.size();
+		}
+
+		@Override
+		ISong get (int i) {
+			return songs.get(i);
+		}
+
+		@Override
+		void selectSong (int i) {
+			if (i >= 0 && i < songs.size())
+				songsLibraryController.selectSong(songs.get(i));
+		}
+	}
+
 	/**
 	 * @author fmartins
 	 *
@@ -134,17 +298,49 @@ public class UI {
 
 
 
+	/**
+	 * Preenche as linhas da tabela virtual quando vao ser mostradas.
+	 */
+	private class TableDataController implements Listener {
+		@Override
+		public void handleEvent(Event e) {
+			if (current != null)
+				current.fillRow((TableItem) e.item, e.index);
+		}
+	}
+
+	/**
+	 * Pede a atualizacao da tabela na thread da interface, depois de uma alteracao
+	 * da biblioteca, que pode vir de qualquer thread.
+	 */
+	private void scheduleRefresh() {
+		if (!refreshPending.compareAndSet(false, true))
+			return;
+		display.asyncExec(() -> {
+			refreshPending.set(false);
+			if (!table.isDisposed() && current != null)
+				current.refreshTable();
+		});
+	}
+
 	public void run() {
-		loadSongsAndPlaylists();
+		// as musicas de exemplo so sao carregadas se nada foi guardado antes
+		if (songsLibraryController.numberOfSongs() == 0)
+			loadSongsAndPlaylists();
 
 		// cria a janela
-		Display display = new Display();
+		display = new Display();
 		Shell shell = new Shell(display);
 		shell.setLayout(new FormLayout());
 		shell.setSize(800, 640); //640x480
 
 		// cria os elementos da janela
 		createGUIControls(shell);
+		songsLibraryController.registerListener(e -> scheduleRefresh());
+		// os rates juntos sao emitidos na thread da interface assim que a janela acaba
+		songsLibraryController.setRateCoalescingWindow(RATE_WINDOW_MILLIS, display::asyncExec);
+		if (autosave != null)
+			display.timerExec(AUTOSAVE_MILLIS, this::autosave);
 
 		// despacha os eventos
 		shell.open();
@@ -152,6 +348,8 @@ public class UI {
 			if (!display.readAndDispatch())
 				display.sleep();
 		}
+		// emite os rates pendentes antes de o display deixar de correr tarefas
+		songsLibraryController.setRateCoalescingWindow(0, display::asyncExec);
 		display.dispose();
 
 		/*		// play the selected music from the library
@@ -183,9 +381,18 @@ public class UI {
 		// Object filling the table with the music library
 		RowAction fillSongsLibrary = new RowAction (table, null, 0) {
 			@Override
-			void fillData() {
-				for (ISong s : songsLibraryController.getMatches(".*")) 
-					fillRow (s);
+			int size() {
+				return songsLibraryController.numberOfSongs();
+			}
+
+			@Override
+			ISong get(int i) {
+				return songsLibraryController.getSong(i);
+			}
+
+			@Override
+			void selectSong(int i) {
+				songsLibraryController.selectSong(i);
 			}
 		};
 
@@ -194,20 +401,12 @@ public class UI {
 		root.setText("Library");
 		selections.put(root, fillSongsLibrary);
 
-		//		TreeItem treeItem = new TreeItem(root, 0);
-		//		treeItem.setText("Genres");
-		//		selections.put(treeItem, fillSongsLibrary);
-		//		addGenresItems(treeItem, songsLibraryController.getGenres());
-		//		
-		//		treeItem = new TreeItem(root, 0);
-		//		treeItem.setText("Authors");
-		//		selections.put(treeItem, fillSongsLibrary);
-		//		addAuthorItems(treeItem, songsLibraryController.getAuthors());
-		//		
-		//		treeItem = new TreeItem(root, 0);
-		//		treeItem.setText("Albums");
-		//		selections.put(treeItem, fillSongsLibrary);
-		//		addAlbumsItems(treeItem, songsLibraryController.getAlbums());	
+		addFacetItem(root, "Genres", fillSongsLibrary,
+				songsLibraryController::getGenres, songsLibraryController::getSongsOfGenre);
+		addFacetItem(root, "Authors", fillSongsLibrary,
+				songsLibraryController::getAuthors, songsLibraryController::getSongsOfAuthor);
+		addFacetItem(root, "Albums", fillSongsLibrary,
+				songsLibraryController::getAlbums, songsLibraryController::getSongsOfAlbum);
 
 		// Smart playlists
 		TreeItem smartPlaylists = new TreeItem(tree, 0);
@@ -227,12 +426,23 @@ public class UI {
 			tItem.setText(value);
 			selections.put(tItem, new RowAction (table, playlist, i) {
 				@Override
-				void fillData() {
-					int j = 1;
-					for (Iterator<ISong> it = ((AbsPlaylist) criteria).iterator(); it.hasNext(); j++) {
-						ISong s = it.next();
-						fillRow (s, j);
-					}
+				int size() {
+					return ((Playlist) criteria).size();
+				}
+
+				@Override
+				ISong get(int i) {
+					return ((Playlist) criteria).get(i);
+				}
+
+				@Override
+				void selectSong(int i) {
+					playlistsController.selectSong(i);
+				}
+
+				@Override
+				String number(int i) {
+					return (i + 1) + "";
 				}
 			});
 		}		
@@ -242,6 +452,17 @@ public class UI {
 	}
 
 
+	/**
+	 * Cria o no de uma faceta da biblioteca (generos, autores ou albuns).
+	 */
+	private void addFacetItem(TreeItem root, String text, RowAction fillSongsLibrary,
+			Supplier<Map<String, Integer>> values, Function<String, List<ISong>> songsOf) {
+		TreeItem facetItem = new TreeItem(root, 0);
+		facetItem.setText(text);
+		selections.put(facetItem, fillSongsLibrary);
+		facets.put(facetItem, new FacetNode(facetItem, values, songsOf));
+	}
+
 	/**
 	 * Cria os elementos graficos (widgets) a desenhar no ecra.
 	 *
@@ -258,8 +479,10 @@ public class UI {
 		sash.addSelectionListener(new SashController());
 
 		// arvore com os elementos do documento
-		tree = new Tree(shell, SWT.BORDER);
+		tree = new Tree(shell, SWT.BORDER | SWT.VIRTUAL);
 		tree.addListener(SWT.Selection, new TreeSelectionController());	
+		tree.addListener(SWT.Expand, new TreeExpandController());
+		tree.addListener(SWT.SetData, new TreeDataController());
 		data = new FormData();
 		data.top = new FormAttachment(0, 0);      // liga ao topo da janela
 		data.bottom = new FormAttachment(100, 0); // liga ao fundo da janela
@@ -270,6 +493,7 @@ public class UI {
 		// a lista das musicas
 		table = new Table (shell, SWT.BORDER | SWT.FULL_SELECTION | SWT.VIRTUAL);
 		table.addSelectionListener(new TableSelectionController ());
+		table.addListener(SWT.SetData, new TableDataController());
 		table.setLinesVisible (true);
 		table.setHeaderVisible (true);
 		data = new FormData();
@@ -311,8 +535,8 @@ public class UI {
 		playlistsController.createPlaylist("Relax");
 
 		// add musics 
-		addToPlaylist(2, Arrays.asList(0,2,5,7), playlistsController, songsLibraryController); 
-		addToPlaylist(3, Arrays.asList(9,2,8), playlistsController, songsLibraryController); 
+		addToPlaylist(3, Arrays.asList(0,2,5,7), playlistsController, songsLibraryController); 
+		addToPlaylist(4, Arrays.asList(9,2,8), playlistsController, songsLibraryController); 
 
 	}
 
@@ -2,6 +2,7 @@ package util.adts;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
 
 /**
  * @author 58180 Rodrigo Correia
@@ -67,6 +68,20 @@ public abstract class AbsQListWithSelection<E> implements QListWithSelection<E>
 		return this.list.iterator();
 	}
 
+	/**
+	 * Returns a {@link Spliterator} over the elements of this list, with the same
+	 * characteristics of the spliterator of the list created by {@link #createList()}.
+	 * For array based lists it is {@link Spliterator#SIZED} and {@link Spliterator#SUBSIZED},
+	 * allowing streams over this list to be split evenly when run in parallel.
+	 * 
+	 * @ensures {@code \result != null}
+	 * @return 	a {@link Spliterator} over the elements of this list.
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return this.list.spliterator();
+	}
+
 	@Override
 	public void select(int i) {
 		this.selectedIndex = i;
@@ -0,0 +1,466 @@
+package util.adts;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class {@link IndexedTreeList} of a {@link java.util.List} kept in a balanced (AVL) tree
+ * where each node knows the size of its subtree, so the element at a given position is
+ * found going down the tree. Getting, setting, inserting and removing at any position
+ * take O(log n), and so does moving an element to another position, unlike an
+ * {@link java.util.ArrayList} that shifts O(n) elements when the list changes in the
+ * middle. Going through the list with an iterator takes O(1) per element.
+ *
+ * Each node also knows its parent, so {@link #addNode(int, Object)} returns the node of
+ * an inserted element and {@link #indexOfNode(Node)} finds its current position in
+ * O(log n), however the list changes around it.
+ *
+ * This class is not thread-safe.
+ *
+ * @param <E> A generic representing type of the elements of this list.
+ */
+public final class IndexedTreeList<E> extends AbstractList<E> {
+
+	/**
+	 * A node of the tree, with the height and the number of elements of its subtree.
+	 * A node keeps the same element while it is in the list, unless the element is
+	 * replaced with {@link IndexedTreeList#set(int, Object)}.
+	 *
+	 * @param <E> A generic representing type of the element of the node.
+	 */
+	public static final class Node<E> {
+		private E value;
+		private Node<E> parent;
+		private Node<E> left;
+		private Node<E> right;
+		private int height = 1;
+		// 0 quando o no ja foi removido da lista
+		private int size = 1;
+
+		private Node(E value) {
+			this.value = value;
+		}
+
+		/**
+		 * Returns the element of this node.
+		 *
+		 * @return 	the element of this node.
+		 */
+		public E getValue() {
+			return this.value;
+		}
+	}
+
+	private Node<E> root;
+	// o no removido por delete e o no inserido por insert, para nao alocar um objeto por operacao
+	private Node<E> removed;
+	private Node<E> added;
+
+	/**
+	 * Constructor that creates an empty {@link IndexedTreeList}.
+	 */
+	public IndexedTreeList() {}
+
+	/**
+	 * Constructor that creates an {@link IndexedTreeList} with the elements of the given
+	 * collection, in the order of its iterator, in O(n).
+	 *
+	 * @param elements	the elements of the list.
+	 * @requires 		{@code elements != null}
+	 */
+	@SuppressWarnings("unchecked")
+	public IndexedTreeList(Collection<? extends E> elements) {
+		Object[] values = elements.toArray();
+		this.root = build((E[]) values, 0, values.length);
+		if (this.root != null)
+			this.root.parent = null;
+	}
+
+	@Override
+	public int size() {
+		return size(this.root);
+	}
+
+	@Override
+	public E get(int index) {
+		Objects.checkIndex(index, size());
+		return nodeAt(index).value;
+	}
+
+	@Override
+	public E set(int index, E element) {
+		Objects.checkIndex(index, size());
+		Node<E> node = nodeAt(index);
+		E old = node.value;
+		node.value = element;
+		return old;
+	}
+
+	@Override
+	public void add(int index, E element) {
+		addNode(index, element);
+	}
+
+	/**
+	 * Inserts the given element at the given position, like {@link #add(int, Object)},
+	 * and returns the node that keeps it, whose position is given by
+	 * {@link #indexOfNode(Node)}.
+	 *
+	 * @param index		the position of the element.
+	 * @param element	the element to insert.
+	 * @requires 		{@code 0 <= index <= size()}
+	 * @ensures 		{@code get(index) == element && \result.getValue() == element}
+	 * @return 			the node of the inserted element.
+	 */
+	public Node<E> addNode(int index, E element) {
+		Objects.checkIndex(index, size() + 1);
+		this.root = insert(this.root, index, element);
+		this.root.parent = null;
+		this.modCount++;
+		Node<E> node = this.added;
+		this.added = null;
+		return node;
+	}
+
+	/**
+	 * Returns the current position of the given node, in O(log n).
+	 *
+	 * @param node	a node returned by {@link #addNode(int, Object)} of this list.
+	 * @requires 	{@code node != null}
+	 * @ensures 	{@code \result == -1 || get(\result) == node.getValue()}
+	 * @return 		the position of the node, or -1 if it was removed from this list.
+	 */
+	public int indexOfNode(Node<E> node) {
+		if (node.size == 0)
+			return -1;
+		int index = size(node.left);
+		for (Node<E> n = node; n.parent != null; n = n.parent)
+			if (n == n.parent.right)
+				index += size(n.parent.left) + 1;
+		return index;
+	}
+
+	@Override
+	public E remove(int index) {
+		Objects.checkIndex(index, size());
+		this.root = delete(this.root, index);
+		if (this.root != null)
+			this.root.parent = null;
+		this.modCount++;
+		Node<E> node = this.removed;
+		this.removed = null;
+		// o no removido fica desligado da arvore
+		node.parent = node.left = node.right = null;
+		node.size = 0;
+		return node.value;
+	}
+
+	/**
+	 * Moves the element at the given position to another position, in O(log n).
+	 *
+	 * @param from	the position of the element.
+	 * @param to	the position of the element after the move.
+	 * @requires 	{@code 0 <= from < size() && 0 <= to < size()}
+	 * @ensures 	{@code get(to) == \old get(from)}
+	 */
+	public void move(int from, int to) {
+		Objects.checkIndex(to, size());
+		add(to, remove(from));
+	}
+
+	@Override
+	public void clear() {
+		// os nos da lista ficam marcados como removidos
+		Deque<Node<E>> path = new ArrayDeque<>();
+		for (Node<E> node = this.root; node != null || !path.isEmpty(); node = node.right) {
+			for (; node != null; node = node.left)
+				path.push(node);
+			node = path.pop();
+			node.size = 0;
+		}
+		this.root = null;
+		this.modCount++;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new TreeIterator(0);
+	}
+
+	@Override
+	public ListIterator<E> listIterator(int index) {
+		Objects.checkIndex(index, size() + 1);
+		return new TreeIterator(index);
+	}
+
+	/**
+	 * Auxiliary method that returns the node at the given position.
+	 */
+	private Node<E> nodeAt(int index) {
+		Node<E> node = this.root;
+		int i = index;
+		while (true) {
+			int leftSize = size(node.left);
+			if (i < leftSize)
+				node = node.left;
+			else if (i == leftSize)
+				return node;
+			else {
+				i -= leftSize + 1;
+				node = node.right;
+			}
+		}
+	}
+
+	/**
+	 * Auxiliary method that builds a perfectly balanced tree with the given values.
+	 */
+	private static <E> Node<E> build(E[] values, int from, int to) {
+		if (from >= to)
+			return null;
+		int middle = (from + to) >>> 1;
+		Node<E> node = new Node<>(values[middle]);
+		node.left = build(values, from, middle);
+		node.right = build(values, middle + 1, to);
+		update(node);
+		return node;
+	}
+
+	/**
+	 * Auxiliary method that inserts the given value at the given position of a subtree,
+	 * returning the new root of the subtree.
+	 */
+	private Node<E> insert(Node<E> node, int index, E value) {
+		if (node == null)
+			return this.added = new Node<>(value);
+		int leftSize = size(node.left);
+		if (index <= leftSize)
+			node.left = insert(node.left, index, value);
+		else
+			node.right = insert(node.right, index - leftSize - 1, value);
+		return balance(node);
+	}
+
+	/**
+	 * Auxiliary method that removes the value at the given position of a subtree, keeping
+	 * it in {@link #removed}, and returns the new root of the subtree.
+	 */
+	private Node<E> delete(Node<E> node, int index) {
+		int leftSize = size(node.left);
+		if (index < leftSize)
+			node.left = delete(node.left, index);
+		else if (index > leftSize)
+			node.right = delete(node.right, index - leftSize - 1);
+		else {
+			this.removed = node;
+			if (node.left == null)
+				return node.right;
+			if (node.right == null)
+				return node.left;
+			// o no sucessor ocupa o lugar do no removido, para os nos nao mudarem de valor
+			Node<E> successor = node.right;
+			while (successor.left != null)
+				successor = successor.left;
+			successor.right = deleteFirst(node.right);
+			successor.left = node.left;
+			return balance(successor);
+		}
+		return balance(node);
+	}
+
+	/**
+	 * Auxiliary method that unlinks the first node of a subtree, returning the new root
+	 * of the subtree.
+	 */
+	private static <E> Node<E> deleteFirst(Node<E> node) {
+		if (node.left == null)
+			return node.right;
+		node.left = deleteFirst(node.left);
+		return balance(node);
+	}
+
+	/**
+	 * Auxiliary method that restores the balance of a node whose subtrees differ in
+	 * height by at most 2, returning the new root of the subtree.
+	 */
+	private static <E> Node<E> balance(Node<E> node) {
+		update(node);
+		int factor = height(node.left) - height(node.right);
+		if (factor > 1) {
+			if (height(node.left.left) < height(node.left.right))
+				node.left = rotateLeft(node.left);
+			return rotateRight(node);
+		}
+		if (factor < -1) {
+			if (height(node.right.right) < height(node.right.left))
+				node.right = rotateRight(node.right);
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	private static <E> Node<E> rotateRight(Node<E> node) {
+		Node<E> left = node.left;
+		node.left = left.right;
+		left.right = node;
+		update(node);
+		update(left);
+		return left;
+	}
+
+	private static <E> Node<E> rotateLeft(Node<E> node) {
+		Node<E> right = node.right;
+		node.right = right.left;
+		right.left = node;
+		update(node);
+		update(right);
+		return right;
+	}
+
+	private static <E> void update(Node<E> node) {
+		if (node.left != null)
+			node.left.parent = node;
+		if (node.right != null)
+			node.right.parent = node;
+		node.height = 1 + Math.max(height(node.left), height(node.right));
+		node.size = 1 + size(node.left) + size(node.right);
+	}
+
+	private static int height(Node<?> node) {
+		return node == null ? 0 : node.height;
+	}
+
+	private static int size(Node<?> node) {
+		return node == null ? 0 : node.size;
+	}
+
+	/**
+	 * Iterator that keeps the path from the root to the next node, so going forward
+	 * takes O(1) amortized. Going backward and changing the list through the iterator
+	 * take O(log n).
+	 */
+	private final class TreeIterator implements ListIterator<E> {
+
+		private final Deque<Node<E>> path = new ArrayDeque<>();
+		private int nextIndex;
+		private int lastReturned = -1;
+		private int expectedModCount = modCount;
+
+		private TreeIterator(int index) {
+			seek(index);
+		}
+
+		/**
+		 * Positions this iterator before the element at the given position.
+		 */
+		private void seek(int index) {
+			this.path.clear();
+			this.nextIndex = index;
+			Node<E> node = root;
+			int i = index;
+			while (node != null) {
+				int leftSize = size(node.left);
+				if (i <= leftSize) {
+					this.path.push(node);
+					if (i == leftSize)
+						return;
+					node = node.left;
+				} else {
+					i -= leftSize + 1;
+					node = node.right;
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.nextIndex < size();
+		}
+
+		@Override
+		public E next() {
+			checkForComodification();
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Node<E> node = this.path.pop();
+			for (Node<E> n = node.right; n != null; n = n.left)
+				this.path.push(n);
+			this.lastReturned = this.nextIndex++;
+			return node.value;
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return this.nextIndex > 0;
+		}
+
+		@Override
+		public E previous() {
+			checkForComodification();
+			if (!hasPrevious())
+				throw new NoSuchElementException();
+			seek(this.nextIndex - 1);
+			this.lastReturned = this.nextIndex;
+			return this.path.peek().value;
+		}
+
+		@Override
+		public int nextIndex() {
+			return this.nextIndex;
+		}
+
+		@Override
+		public int previousIndex() {
+			return this.nextIndex - 1;
+		}
+
+		@Override
+		public void remove() {
+			if (this.lastReturned < 0)
+				throw new IllegalStateException();
+			checkForComodification();
+			IndexedTreeList.this.remove(this.lastReturned);
+			int index = this.lastReturned < this.nextIndex ? this.nextIndex - 1 : this.nextIndex;
+			afterChange(index);
+		}
+
+		@Override
+		public void set(E e) {
+			if (this.lastReturned < 0)
+				throw new IllegalStateException();
+			checkForComodification();
+			IndexedTreeList.this.set(this.lastReturned, e);
+		}
+
+		@Override
+		public void add(E e) {
+			checkForComodification();
+			IndexedTreeList.this.add(this.nextIndex, e);
+			afterChange(this.nextIndex + 1);
+		}
+
+		/**
+		 * Positions this iterator again after a change made through it.
+		 */
+		private void afterChange(int index) {
+			this.lastReturned = -1;
+			this.expectedModCount = modCount;
+			seek(index);
+		}
+
+		private void checkForComodification() {
+			if (modCount != this.expectedModCount)
+				throw new ConcurrentModificationException();
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package util.adts;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Singleton PatternCache used to keep a bounded, least recently used, cache of
+ * compiled regular expressions. This cache is thread-safe and keeps a count
+ * of hits and misses.
+ */
+public enum PatternCache {
+
+	/**
+	 * The singleton cache
+	 */
+	INSTANCE;
+
+	// maximum number of compiled patterns kept in the cache
+	private static final int DEFAULT_CAPACITY = 256;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private int capacity = DEFAULT_CAPACITY;
+	private final Map<String, Pattern> patterns = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+			return size() > capacity;
+		}
+	};
+
+	/**
+	 * Returns the compiled {@link Pattern} of the given regular expression, compiling
+	 * it only if it is not already in the cache.
+	 *
+	 * @param regexp	the regular expression to compile.
+	 * @requires 		{@code regexp != null}
+	 * @ensures 		{@code \result != null && \result.pattern().equals(regexp)}
+	 * @return 			the compiled pattern of the given regular expression.
+	 */
+	public Pattern compile(String regexp) {
+		synchronized (this.patterns) {
+			Pattern pattern = this.patterns.get(regexp);
+			if (pattern != null) {
+				this.hits.incrementAndGet();
+				return pattern;
+			}
+		}
+		// compiled outside the lock so other threads are not blocked
+		Pattern pattern = Pattern.compile(regexp);
+		this.misses.incrementAndGet();
+		synchronized (this.patterns) {
+			this.patterns.putIfAbsent(regexp, pattern);
+		}
+		return pattern;
+	}
+
+	/**
+	 * Changes the maximum number of patterns kept in the cache, evicting the least
+	 * recently used ones if needed.
+	 *
+	 * @param capacity	the new capacity of the cache.
+	 * @requires 		{@code capacity > 0}
+	 * @ensures 		{@code size() <= capacity}
+	 */
+	public void setCapacity(int capacity) {
+		synchronized (this.patterns) {
+			this.capacity = capacity;
+			Iterator<Map.Entry<String, Pattern>> iterator = this.patterns.entrySet().iterator();
+			while (this.patterns.size() > capacity && iterator.hasNext()) {
+				iterator.next();
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Returns the maximum number of patterns kept in the cache.
+	 *
+	 * @ensures {@code \result > 0}
+	 * @return 	the capacity of the cache.
+	 */
+	public int getCapacity() {
+		synchronized (this.patterns) {
+			return this.capacity;
+		}
+	}
+
+	/**
+	 * Returns the number of patterns currently in the cache.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of patterns currently in the cache.
+	 */
+	public int size() {
+		synchronized (this.patterns) {
+			return this.patterns.size();
+		}
+	}
+
+	/**
+	 * Returns the number of times a pattern was found in the cache.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of cache hits.
+	 */
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Returns the number of times a pattern had to be compiled.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of cache misses.
+	 */
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	/**
+	 * Removes every pattern from the cache and resets the counters.
+	 *
+	 * @ensures {@code size() == 0 && getHits() == 0 && getMisses() == 0}
+	 */
+	public void clear() {
+		synchronized (this.patterns) {
+			this.patterns.clear();
+			this.hits.set(0);
+			this.misses.set(0);
+		}
+	}
+}
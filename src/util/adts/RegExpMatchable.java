@@ -1,5 +1,7 @@
 package util.adts;
 
+import java.util.regex.Pattern;
+
 /**
  * @author malopes
  *
@@ -15,4 +17,11 @@ public interface RegExpMatchable {
 	 * @return true if this object matches regexp, false otherwise.
 	 */
 	boolean matches (String regexp);
+
+	/**
+	 * @param pattern an already compiled regular expression used to check the matches
+	 * @requires pattern != null
+	 * @return true if this object matches pattern, false otherwise.
+	 */
+	boolean matches (Pattern pattern);
 }
@@ -0,0 +1,38 @@
+package util.adts;
+
+import java.util.List;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class TreeQListWithSelection that extends {@link AbsQListWithSelection} and
+ * provides an implemention based in an {@link IndexedTreeList}, where getting, adding
+ * and removing the selected element take O(log n), for large lists that change often.
+ *
+ * @param <E> A generic representing type of the elements of this list.
+ */
+public final class TreeQListWithSelection<E> extends AbsQListWithSelection<E> {
+
+	/**
+	 * Empty constructor of this class that just calls the super() constructor of
+	 * the super class.
+	 */
+	public TreeQListWithSelection() {}
+
+	/**
+	 * Constructor that creates a {@link TreeQListWithSelection} with the elements of the
+	 * provided list. This method is marked package-protected and is only used for JUnit
+	 * tests.
+	 *
+	 * @param initList the list to initialize this class with.
+	 */
+	TreeQListWithSelection(List<E> initList) {
+		super(new IndexedTreeList<>(initList));
+	}
+
+	@Override
+	protected List<E> createList() {
+		return new IndexedTreeList<>();
+	}
+}
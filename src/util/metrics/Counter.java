@@ -0,0 +1,47 @@
+package util.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class {@link Counter} of a metric that only grows, like the number of times something
+ * happened. Incrementing it allocates nothing and does not block, even when several
+ * threads increment it at the same time.
+ */
+public final class Counter extends Metric {
+
+	private final LongAdder value = new LongAdder();
+
+	Counter(String name, String help, String labelName, String labelValue) {
+		super(name, help, labelName, labelValue);
+	}
+
+	/**
+	 * Increments this counter by one.
+	 */
+	public void inc() {
+		this.value.increment();
+	}
+
+	/**
+	 * Increments this counter by the given amount.
+	 *
+	 * @param amount	the amount.
+	 * @requires 		{@code amount >= 0}
+	 */
+	public void add(long amount) {
+		this.value.add(amount);
+	}
+
+	/**
+	 * Returns the value of this counter.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the value of this counter.
+	 */
+	public long get() {
+		return this.value.sum();
+	}
+}
@@ -0,0 +1,129 @@
+package util.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class {@link Histogram} of a metric that records the distribution of non negative
+ * values, like the sizes of the results of the searches. The values are counted in
+ * buckets whose bounds are powers of two, so recording a value is a few atomic
+ * increments, allocates nothing and does not block. The percentiles are therefore
+ * approximated by the upper bound of their bucket.
+ */
+public sealed class Histogram extends Metric permits Timer {
+
+	/**
+	 * The number of buckets: bucket 0 has the value 0 and bucket {@code i > 0} has the
+	 * values from {@code 2^(i-1)} to {@code 2^i - 1}.
+	 */
+	static final int BUCKETS = 64;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	Histogram(String name, String help, String labelName, String labelValue) {
+		super(name, help, labelName, labelValue);
+	}
+
+	/**
+	 * Records the given value. Negative values are recorded as 0.
+	 *
+	 * @param value	the value.
+	 */
+	public void record(long value) {
+		long v = Math.max(0, value);
+		this.buckets.incrementAndGet(bucketOf(v));
+		this.count.increment();
+		this.sum.add(v);
+		long current = this.max.get();
+		while (v > current && !this.max.compareAndSet(current, v))
+			current = this.max.get();
+	}
+
+	/**
+	 * Returns the number of values recorded.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of values recorded.
+	 */
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	/**
+	 * Returns the sum of the values recorded.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the sum of the values recorded.
+	 */
+	public long getSum() {
+		return this.sum.sum();
+	}
+
+	/**
+	 * Returns the greatest value recorded.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the greatest value recorded, or 0 if none was recorded.
+	 */
+	public long getMax() {
+		return this.max.get();
+	}
+
+	/**
+	 * Returns the number of values recorded in the given bucket.
+	 *
+	 * @param bucket	the bucket.
+	 * @requires 		{@code 0 <= bucket < 64}
+	 * @return 			the number of values in the bucket.
+	 */
+	public long getBucketCount(int bucket) {
+		return this.buckets.get(bucket);
+	}
+
+	/**
+	 * Returns an approximation, by excess, of the given percentile of the values
+	 * recorded: the upper bound of the bucket where it is, but never more than the
+	 * greatest value recorded.
+	 *
+	 * @param percentile	the percentile, between 0 and 1 (e.g. 0.99).
+	 * @requires 			{@code 0 <= percentile <= 1}
+	 * @return 				the approximated percentile, or 0 if no value was recorded.
+	 */
+	public long getPercentile(double percentile) {
+		long total = 0;
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = this.buckets.get(i);
+			total += counts[i];
+		}
+		long rank = (long) Math.ceil(percentile * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank && seen > 0)
+				return Math.min(upperBound(i), getMax());
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the bucket of the given value.
+	 */
+	static int bucketOf(long value) {
+		return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+	}
+
+	/**
+	 * Returns the greatest value of the given bucket.
+	 */
+	static long upperBound(int bucket) {
+		return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+	}
+}
@@ -0,0 +1,77 @@
+package util.metrics;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Abstract class {@link Metric} of the metrics kept by {@link Metrics}. A metric has a
+ * name, a description and, optionally, one label that tells apart metrics with the same
+ * name (e.g. the timers of each listener).
+ */
+public abstract sealed class Metric permits Counter, Histogram {
+
+	private final String name;
+	private final String help;
+	private final String labelName;
+	private final String labelValue;
+
+	/**
+	 * Constructor used by the subclasses.
+	 *
+	 * @param name			the name of the metric.
+	 * @param help			the description of the metric.
+	 * @param labelName		the name of the label, or null if the metric has none.
+	 * @param labelValue	the value of the label, or null if the metric has none.
+	 * @requires 			{@code name != null && help != null &&
+	 * 						(labelName == null) == (labelValue == null)}
+	 */
+	Metric(String name, String help, String labelName, String labelValue) {
+		this.name = name;
+		this.help = help;
+		this.labelName = labelName;
+		this.labelValue = labelValue;
+	}
+
+	/**
+	 * Returns the name of this metric.
+	 *
+	 * @return the name of this metric.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Returns the description of this metric.
+	 *
+	 * @return the description of this metric.
+	 */
+	public String getHelp() {
+		return this.help;
+	}
+
+	/**
+	 * Returns the name of the label of this metric.
+	 *
+	 * @return the name of the label, or null if this metric has no label.
+	 */
+	public String getLabelName() {
+		return this.labelName;
+	}
+
+	/**
+	 * Returns the value of the label of this metric.
+	 *
+	 * @return the value of the label, or null if this metric has no label.
+	 */
+	public String getLabelValue() {
+		return this.labelValue;
+	}
+
+	/**
+	 * Returns the key of the metric with the given name and label in {@link Metrics}.
+	 */
+	static String key(String name, String labelName, String labelValue) {
+		return labelName == null ? name : name + '{' + labelName + "=\"" + labelValue + "\"}";
+	}
+}
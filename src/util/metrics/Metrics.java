@@ -0,0 +1,270 @@
+package util.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Enum {@link Metrics} used as a singleton registry of the {@link Counter}s,
+ * {@link Histogram}s and {@link Timer}s of the application. A metric is created the first
+ * time it is asked for, and the same object is returned afterwards, so the hot paths keep
+ * their metrics in fields and only record values.
+ *
+ * The values of every metric can be exported as JSON or in the text format of Prometheus,
+ * to be read by other tools. This class is thread-safe.
+ */
+public enum Metrics {
+
+	INSTANCE;
+
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the counter with the given name, creating it if needed.
+	 *
+	 * @param name	the name of the counter.
+	 * @param help	the description of the counter.
+	 * @requires 	{@code name != null && help != null}
+	 * @return 		the counter.
+	 * @throws IllegalArgumentException	if there is another kind of metric with the name.
+	 */
+	public Counter counter(String name, String help) {
+		return counter(name, help, null, null);
+	}
+
+	/**
+	 * Returns the counter with the given name and label, creating it if needed.
+	 *
+	 * @param name			the name of the counter.
+	 * @param help			the description of the counter.
+	 * @param labelName		the name of the label.
+	 * @param labelValue	the value of the label.
+	 * @requires 			{@code name != null && help != null && labelName != null && labelValue != null}
+	 * @return 				the counter.
+	 * @throws IllegalArgumentException	if there is another kind of metric with the name.
+	 */
+	public Counter counter(String name, String help, String labelName, String labelValue) {
+		return get(Counter.class, name, labelName, labelValue, () -> new Counter(name, help, labelName, labelValue));
+	}
+
+	/**
+	 * Returns the histogram with the given name, creating it if needed.
+	 *
+	 * @param name	the name of the histogram.
+	 * @param help	the description of the histogram.
+	 * @requires 	{@code name != null && help != null}
+	 * @return 		the histogram.
+	 * @throws IllegalArgumentException	if there is another kind of metric with the name.
+	 */
+	public Histogram histogram(String name, String help) {
+		return histogram(name, help, null, null);
+	}
+
+	/**
+	 * Returns the histogram with the given name and label, creating it if needed.
+	 *
+	 * @param name			the name of the histogram.
+	 * @param help			the description of the histogram.
+	 * @param labelName		the name of the label.
+	 * @param labelValue	the value of the label.
+	 * @requires 			{@code name != null && help != null && labelName != null && labelValue != null}
+	 * @return 				the histogram.
+	 * @throws IllegalArgumentException	if there is another kind of metric with the name.
+	 */
+	public Histogram histogram(String name, String help, String labelName, String labelValue) {
+		return get(Histogram.class, name, labelName, labelValue, () -> new Histogram(name, help, labelName, labelValue));
+	}
+
+	/**
+	 * Returns the timer with the given name, creating it if needed.
+	 *
+	 * @param name	the name of the timer.
+	 * @param help	the description of the timer.
+	 * @requires 	{@code name != null && help != null}
+	 * @return 		the timer.
+	 * @throws IllegalArgumentException	if there is another kind of metric with the name.
+	 */
+	public Timer timer(String name, String help) {
+		return timer(name, help, null, null);
+	}
+
+	/**
+	 * Returns the timer with the given name and label, creating it if needed.
+	 *
+	 * @param name			the name of the timer.
+	 * @param help			the description of the timer.
+	 * @param labelName		the name of the label.
+	 * @param labelValue	the value of the label.
+	 * @requires 			{@code name != null && help != null && labelName != null && labelValue != null}
+	 * @return 				the timer.
+	 * @throws IllegalArgumentException	if there is another kind of metric with the name.
+	 */
+	public Timer timer(String name, String help, String labelName, String labelValue) {
+		return get(Timer.class, name, labelName, labelValue, () -> new Timer(name, help, labelName, labelValue));
+	}
+
+	/**
+	 * Auxiliary method that returns the metric of the given kind with the given name and
+	 * label, creating it if there is none.
+	 */
+	private <M extends Metric> M get(Class<M> kind, String name, String labelName, String labelValue, Supplier<M> factory) {
+		Metric metric = this.metrics.computeIfAbsent(Metric.key(name, labelName, labelValue), k -> factory.get());
+		if (metric.getClass() != kind)
+			throw new IllegalArgumentException("Metric " + name + " is not a " + kind.getSimpleName());
+		return kind.cast(metric);
+	}
+
+	/**
+	 * Returns the metrics created so far, sorted by name and label.
+	 *
+	 * @ensures {@code \result != null}
+	 * @return 	the list of the metrics.
+	 */
+	public List<Metric> getMetrics() {
+		List<Metric> list = new ArrayList<>(this.metrics.values());
+		list.sort(Comparator.comparing((Metric m) -> Metric.key(m.getName(), m.getLabelName(), m.getLabelValue())));
+		return list;
+	}
+
+	/**
+	 * Returns the values of every metric in the text format of Prometheus. The timers are
+	 * exported in seconds.
+	 *
+	 * @ensures {@code \result != null}
+	 * @return 	the values of the metrics.
+	 */
+	public String toPrometheus() {
+		StringBuilder sb = new StringBuilder();
+		String lastName = null;
+		for (Metric metric : getMetrics()) {
+			String name = metric.getName();
+			if (!name.equals(lastName)) {
+				sb.append("# HELP ").append(name).append(' ').append(metric.getHelp()).append('\n');
+				sb.append("# TYPE ").append(name).append(metric instanceof Counter ? " counter\n" : " histogram\n");
+				lastName = name;
+			}
+			String label = metric.getLabelName() == null ? "" : metric.getLabelName() + "=\"" + escape(metric.getLabelValue()) + "\"";
+			if (metric instanceof Counter counter) {
+				sb.append(name).append(label.isEmpty() ? "" : "{" + label + "}").append(' ').append(counter.get()).append('\n');
+				continue;
+			}
+			Histogram histogram = (Histogram) metric;
+			String separator = label.isEmpty() ? "" : label + ",";
+			long cumulative = 0;
+			int last = lastBucket(histogram);
+			for (int i = 0; i <= last; i++) {
+				cumulative += histogram.getBucketCount(i);
+				sb.append(name).append("_bucket{").append(separator).append("le=\"")
+					.append(format(histogram, Histogram.upperBound(i))).append("\"} ").append(cumulative).append('\n');
+			}
+			String labels = label.isEmpty() ? "" : "{" + label + "}";
+			sb.append(name).append("_bucket{").append(separator).append("le=\"+Inf\"} ").append(histogram.getCount()).append('\n');
+			sb.append(name).append("_sum").append(labels).append(' ').append(format(histogram, histogram.getSum())).append('\n');
+			sb.append(name).append("_count").append(labels).append(' ').append(histogram.getCount()).append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the values of every metric as a JSON object with an array of metrics. The
+	 * histograms have their count, sum, mean, greatest value, percentiles 50, 90 and 99,
+	 * and the non empty buckets. The timers are exported in seconds.
+	 *
+	 * @ensures {@code \result != null}
+	 * @return 	the values of the metrics.
+	 */
+	public String toJson() {
+		StringBuilder sb = new StringBuilder("{\"metrics\":[");
+		boolean first = true;
+		for (Metric metric : getMetrics()) {
+			if (!first)
+				sb.append(',');
+			first = false;
+			sb.append("\n{\"name\":\"").append(escape(metric.getName())).append('"');
+			if (metric.getLabelName() != null)
+				sb.append(",\"labels\":{\"").append(escape(metric.getLabelName())).append("\":\"")
+					.append(escape(metric.getLabelValue())).append("\"}");
+			if (metric instanceof Counter counter) {
+				sb.append(",\"type\":\"counter\",\"value\":").append(counter.get()).append('}');
+				continue;
+			}
+			Histogram histogram = (Histogram) metric;
+			long count = histogram.getCount();
+			sb.append(",\"type\":\"").append(histogram instanceof Timer ? "timer" : "histogram").append('"');
+			sb.append(",\"count\":").append(count);
+			sb.append(",\"sum\":").append(format(histogram, histogram.getSum()));
+			sb.append(",\"mean\":").append(count == 0 ? "0" : format(histogram, (double) histogram.getSum() / count));
+			sb.append(",\"max\":").append(format(histogram, histogram.getMax()));
+			sb.append(",\"p50\":").append(format(histogram, histogram.getPercentile(0.5)));
+			sb.append(",\"p90\":").append(format(histogram, histogram.getPercentile(0.9)));
+			sb.append(",\"p99\":").append(format(histogram, histogram.getPercentile(0.99)));
+			sb.append(",\"buckets\":{");
+			boolean firstBucket = true;
+			for (int i = 0; i <= lastBucket(histogram); i++) {
+				long bucketCount = histogram.getBucketCount(i);
+				if (bucketCount == 0)
+					continue;
+				if (!firstBucket)
+					sb.append(',');
+				firstBucket = false;
+				sb.append('"').append(format(histogram, Histogram.upperBound(i))).append("\":").append(bucketCount);
+			}
+			sb.append("}}");
+		}
+		return sb.append("\n]}\n").toString();
+	}
+
+	/**
+	 * Writes the values of every metric to the given file, as JSON if its name ends with
+	 * {@code .json}, otherwise in the text format of Prometheus. The file is replaced
+	 * at once, so it is never read half written.
+	 *
+	 * @param file			the file.
+	 * @requires 			{@code file != null}
+	 * @throws IOException	if the file could not be written.
+	 */
+	public void export(Path file) throws IOException {
+		String text = file.getFileName().toString().endsWith(".json") ? toJson() : toPrometheus();
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		Files.writeString(tmp, text, StandardCharsets.UTF_8);
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Auxiliary method that returns the last bucket with values of the given histogram.
+	 */
+	private static int lastBucket(Histogram histogram) {
+		return Histogram.bucketOf(histogram.getMax());
+	}
+
+	/**
+	 * Auxiliary method that formats a value of the given histogram, in seconds if it is
+	 * a timer.
+	 */
+	private static String format(Histogram histogram, double value) {
+		if (histogram instanceof Timer)
+			return String.format(Locale.ROOT, "%.9f", value / NANOS_PER_SECOND);
+		return value == Math.rint(value) ? Long.toString((long) value) : String.format(Locale.ROOT, "%.3f", value);
+	}
+
+	/**
+	 * Auxiliary method that escapes the quotes and backslashes of a text.
+	 */
+	private static String escape(String text) {
+		return text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+}
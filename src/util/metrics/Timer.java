@@ -0,0 +1,42 @@
+package util.metrics;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * Class {@link Timer} of a {@link Histogram} of durations, in nanoseconds. A duration is
+ * measured with
+ * <pre>
+ * long start = timer.start();
+ * ...
+ * timer.stop(start);
+ * </pre>
+ * which allocates nothing. The durations are exported in seconds.
+ */
+public final class Timer extends Histogram {
+
+	Timer(String name, String help, String labelName, String labelValue) {
+		super(name, help, labelName, labelValue);
+	}
+
+	/**
+	 * Returns the start of a duration, to be given to {@link #stop(long)}.
+	 *
+	 * @return the current time, in nanoseconds.
+	 */
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records the duration from the given start until now.
+	 *
+	 * @param start	the start of the duration, returned by {@link #start()}.
+	 * @return 		the duration, in nanoseconds.
+	 */
+	public long stop(long start) {
+		long nanos = System.nanoTime() - start;
+		record(nanos);
+		return nanos;
+	}
+}
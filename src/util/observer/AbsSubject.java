@@ -1,7 +1,7 @@
 package util.observer;
 
-import java.util.ArrayList;
-import java.util.List;
+import util.metrics.Metrics;
+import util.metrics.Timer;
 
 /**
  * @author antonialopes
@@ -11,25 +11,81 @@ import java.util.List;
  * Represents objects that are being observed by a list of 
  * listeners of events of type E.
  * 
+ * Listeners can be registered and unregistered from any thread,
+ * even while an event is being emitted.
+ * 
  */
 public abstract class AbsSubject<E extends Event> implements Subject<E> {
 	
-	protected List<Listener<E>> listeners = new ArrayList<>();
+	// um timer por classe de listener, obtido sem alocar depois da primeira vez
+	private static final ClassValue<Timer> LISTENER_TIMERS = new ClassValue<>() {
+		@Override
+		protected Timer computeValue(Class<?> type) {
+			// as lambdas da mesma classe partilham o timer, o nome delas muda em cada execucao
+			String name = type.getName();
+			int lambda = name.indexOf("$$Lambda");
+			if (lambda >= 0)
+				name = name.substring(0, lambda + "$$Lambda".length());
+			return Metrics.INSTANCE.timer("leitunes_listener_seconds",
+					"Time taken by the listeners to process the events", "listener", name);
+		}
+	};
+	
+	private final ListenerRegistry<E> listeners = new ListenerRegistry<>();
+	
+	private volatile EventDispatcher<E> dispatcher = null;
 	
 	protected  AbsSubject() {}
 	
 	/**
-	 * Emits a given event to the listeners
+	 * Emits a given event to the listeners, on the caller's thread or, if this subject
+	 * has a dispatcher, asynchronously through it
 	 * 
 	 * @param e event that occurred
 	 */
 	@Override
 	public void emitEvent(E e) {
-		for (Listener<E> o : listeners) {
+		EventDispatcher<E> d = dispatcher;
+		if (d != null) {
+			d.submit(e, listeners.snapshot());
+			return;
+		}
+		for (Listener<E> o : listeners.snapshot()) {
+			Timer timer = timerOf(o);
+			long start = timer.start();
 			o.processEvent(e);
+			timer.stop(start);
 		}
 	}
 	
+	/**
+	 * Returns the timer of the time taken by the listeners of the class of the given one
+	 * 
+	 * @param listener the listener
+	 * @return the timer of the class of the listener
+	 */
+	static Timer timerOf(Listener<?> listener) {
+		return LISTENER_TIMERS.get(listener.getClass());
+	}
+	
+	/**
+	 * Sets the dispatcher used to deliver the events asynchronously
+	 * 
+	 * @param dispatcher the dispatcher, or null to deliver the events synchronously
+	 */
+	public void setDispatcher(EventDispatcher<E> dispatcher) {
+		this.dispatcher = dispatcher;
+	}
+	
+	/**
+	 * Returns the dispatcher used to deliver the events asynchronously
+	 * 
+	 * @return the dispatcher, or null if the events are delivered synchronously
+	 */
+	public EventDispatcher<E> getDispatcher() {
+		return dispatcher;
+	}
+	
 	/**
 	 * Registers a new listener
 	 * 
@@ -37,7 +93,7 @@ public abstract class AbsSubject<E extends Event> implements Subject<E> {
 	 */
 	@Override
 	public void registerListener(Listener<E> obs) {
-		listeners.add(obs);
+		listeners.register(obs);
 	}
 	
 	/**
@@ -47,7 +103,7 @@ public abstract class AbsSubject<E extends Event> implements Subject<E> {
 	 */
 	@Override
 	public void unregisterListener(Listener<E> obs) {
-		listeners.remove(obs);
+		listeners.unregister(obs);
 	}
 
 }
@@ -0,0 +1,393 @@
+package util.observer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import util.metrics.Timer;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * @param <E>
+ *
+ * Delivers the events emitted by an {@link AbsSubject} asynchronously: the events are
+ * put in a bounded queue and delivered, in the order they were emitted, by a dedicated
+ * thread. Consecutive events for the same listeners are delivered together, in batches
+ * of at most {@code maxBatchSize} events, through {@link Listener#processEvents(List)}.
+ *
+ * When the queue is full, the {@link Policy} of the dispatcher decides what happens
+ * to a new event. The time each event took to be processed by each listener, since it
+ * was emitted, is recorded in {@link ListenerStats}.
+ *
+ * Listeners of a subject with a dispatcher are called from the dispatcher thread, so
+ * they must not be read concurrently from other threads without synchronization, or
+ * they must only be read after {@link #flush()}.
+ */
+public class EventDispatcher<E extends Event> implements AutoCloseable {
+
+	/**
+	 * What happens to an event emitted when the queue is full.
+	 */
+	public enum Policy {
+		/**
+		 * The thread that emits the event waits until there is room in the queue.
+		 */
+		BLOCK,
+		/**
+		 * The oldest event in the queue is discarded.
+		 */
+		DROP_OLDEST,
+		/**
+		 * An event always replaces, in its position, an event of the same class still in
+		 * the queue with the same key, even when the queue is not full, so an event is
+		 * never lost behind an event of another kind (e.g. a song added and then rated).
+		 * An event that can't replace another waits for room in the queue.
+		 */
+		COALESCE
+	}
+
+	/**
+	 * Record with the delivery metrics of one listener.
+	 *
+	 * @param events			the number of events delivered to the listener.
+	 * @param batches			the number of batches delivered to the listener.
+	 * @param meanLatencyNanos	the mean time, in nanoseconds, from the emission of an event
+	 * 							until the listener finished processing it.
+	 * @param maxLatencyNanos	the maximum time, in nanoseconds, from the emission of an
+	 * 							event until the listener finished processing it.
+	 */
+	public record ListenerStats(long events, long batches, long meanLatencyNanos, long maxLatencyNanos) {}
+
+	/**
+	 * An event waiting in the queue, with the listeners registered when it was emitted.
+	 */
+	private final class Pending {
+		private E event;
+		private final List<Listener<E>> listeners;
+		private final long emittedAt;
+		private final Object key;
+
+		private Pending(E event, List<Listener<E>> listeners, Object key) {
+			this.event = event;
+			this.listeners = listeners;
+			this.emittedAt = System.nanoTime();
+			this.key = key;
+		}
+	}
+
+	/**
+	 * The key under which an event is coalesced: its class and the key given for it.
+	 */
+	private record Key(Class<?> type, Object key) {}
+
+	/**
+	 * The delivery metrics of one listener, only updated by the dispatcher thread.
+	 */
+	private static final class Latency {
+		private long events;
+		private long batches;
+		private long totalNanos;
+		private long maxNanos;
+	}
+
+	private final Logger logger = Logger.getLogger("LEITunes");
+	private final int capacity;
+	private final int maxBatchSize;
+	private final Policy policy;
+	private final Function<? super E, ?> coalesceKey;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private final Condition idle = lock.newCondition();
+	private final Deque<Pending> queue = new ArrayDeque<>();
+	private final Map<Object, Pending> queuedByKey = new HashMap<>();
+	private final Map<Listener<E>, Latency> latencies = new IdentityHashMap<>();
+	private final ExecutorService executor;
+	private boolean delivering = false;
+	private boolean closed = false;
+	private long dropped = 0;
+	private long coalesced = 0;
+
+	/**
+	 * Constructor that creates an {@link EventDispatcher} that never coalesces events.
+	 *
+	 * @param capacity		the maximum number of events waiting to be delivered.
+	 * @param maxBatchSize	the maximum number of events delivered at once to a listener.
+	 * @param policy		what happens to an event emitted when the queue is full.
+	 * @requires 			{@code capacity > 0 && maxBatchSize > 0 && policy != null}
+	 */
+	public EventDispatcher(int capacity, int maxBatchSize, Policy policy) {
+		this(capacity, maxBatchSize, policy, e -> null);
+	}
+
+	/**
+	 * Constructor that creates an {@link EventDispatcher}.
+	 *
+	 * @param capacity		the maximum number of events waiting to be delivered.
+	 * @param maxBatchSize	the maximum number of events delivered at once to a listener.
+	 * @param policy		what happens to an event emitted when the queue is full.
+	 * @param coalesceKey	the function that gives the key of an event, used by the
+	 * 						{@link Policy#COALESCE} policy, or null if the event can't
+	 * 						be coalesced. Only events of the same class are coalesced.
+	 * @requires 			{@code capacity > 0 && maxBatchSize > 0 && policy != null && coalesceKey != null}
+	 */
+	public EventDispatcher(int capacity, int maxBatchSize, Policy policy, Function<? super E, ?> coalesceKey) {
+		this.capacity = capacity;
+		this.maxBatchSize = maxBatchSize;
+		this.policy = policy;
+		this.coalesceKey = coalesceKey;
+		this.executor = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "LEITunes-events");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor.execute(this::deliverLoop);
+	}
+
+	/**
+	 * Queues the given event to be delivered to the given listeners.
+	 *
+	 * @param e			the event.
+	 * @param listeners	the listeners registered when the event was emitted, which are
+	 * 					not changed afterwards.
+	 * @requires 		{@code e != null && listeners != null}
+	 * @throws IllegalStateException if the dispatcher was closed.
+	 */
+	void submit(E e, List<Listener<E>> listeners) {
+		Object key = this.policy == Policy.COALESCE ? keyOf(e) : null;
+		this.lock.lock();
+		try {
+			if (this.closed)
+				throw new IllegalStateException("The dispatcher was closed");
+			if (key != null) {
+				Pending queued = this.queuedByKey.get(key);
+				if (queued != null && queued.listeners == listeners) {
+					queued.event = e;
+					this.coalesced++;
+					return;
+				}
+			}
+			while (this.queue.size() >= this.capacity) {
+				if (this.policy == Policy.DROP_OLDEST) {
+					forget(this.queue.pollFirst());
+					this.dropped++;
+				} else {
+					this.notFull.awaitUninterruptibly();
+					if (this.closed)
+						throw new IllegalStateException("The dispatcher was closed");
+				}
+			}
+			Pending pending = new Pending(e, listeners, key);
+			this.queue.addLast(pending);
+			if (key != null)
+				this.queuedByKey.put(key, pending);
+			this.notEmpty.signal();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Auxiliary method that returns the key under which the given event is coalesced,
+	 * or null if it can't be coalesced.
+	 */
+	private Object keyOf(E e) {
+		Object key = this.coalesceKey.apply(e);
+		return key == null ? null : new Key(e.getClass(), key);
+	}
+
+	/**
+	 * Waits until every event emitted before this call was delivered.
+	 *
+	 * @throws InterruptedException	if the thread was interrupted while waiting.
+	 */
+	public void flush() throws InterruptedException {
+		this.lock.lock();
+		try {
+			while (!this.queue.isEmpty() || this.delivering)
+				this.idle.await();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Delivers the events still in the queue and stops the dispatcher thread. Events
+	 * can't be emitted through this dispatcher afterwards. If the thread is interrupted
+	 * while waiting, it returns with the interrupt flag set, without waiting for the
+	 * remaining events, which are still delivered.
+	 */
+	@Override
+	public void close() {
+		this.lock.lock();
+		try {
+			this.closed = true;
+			this.notEmpty.signalAll();
+			this.notFull.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
+		this.executor.shutdown();
+		try {
+			this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the number of events discarded by the {@link Policy#DROP_OLDEST} policy.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of discarded events.
+	 */
+	public long getDropped() {
+		this.lock.lock();
+		try {
+			return this.dropped;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of events replaced by newer ones by the {@link Policy#COALESCE} policy.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of replaced events.
+	 */
+	public long getCoalesced() {
+		this.lock.lock();
+		try {
+			return this.coalesced;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the delivery metrics of every listener that received some event.
+	 *
+	 * @ensures {@code \result != null}
+	 * @return 	an unmodifiable map with the metrics of each listener.
+	 */
+	public Map<Listener<E>, ListenerStats> getStats() {
+		Map<Listener<E>, ListenerStats> stats = new IdentityHashMap<>();
+		synchronized (this.latencies) {
+			for (Map.Entry<Listener<E>, Latency> entry : this.latencies.entrySet()) {
+				Latency l = entry.getValue();
+				stats.put(entry.getKey(), new ListenerStats(l.events, l.batches,
+						l.events == 0 ? 0 : l.totalNanos / l.events, l.maxNanos));
+			}
+		}
+		return Collections.unmodifiableMap(stats);
+	}
+
+	/**
+	 * Body of the dispatcher thread.
+	 */
+	private void deliverLoop() {
+		List<Pending> batch = new ArrayList<>(this.maxBatchSize);
+		while (takeBatch(batch)) {
+			deliver(batch);
+			batch.clear();
+			this.lock.lock();
+			try {
+				this.delivering = false;
+				if (this.queue.isEmpty())
+					this.idle.signalAll();
+			} finally {
+				this.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Waits for events and removes from the queue the next events with the same listeners.
+	 *
+	 * @return false if the dispatcher was closed and every event was delivered.
+	 */
+	private boolean takeBatch(List<Pending> batch) {
+		this.lock.lock();
+		try {
+			while (this.queue.isEmpty()) {
+				if (this.closed)
+					return false;
+				this.notEmpty.awaitUninterruptibly();
+			}
+			List<Listener<E>> listeners = this.queue.peekFirst().listeners;
+			while (batch.size() < this.maxBatchSize && !this.queue.isEmpty()
+					&& this.queue.peekFirst().listeners == listeners) {
+				Pending pending = this.queue.pollFirst();
+				forget(pending);
+				batch.add(pending);
+			}
+			this.delivering = true;
+			this.notFull.signalAll();
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Delivers a batch of events with the same listeners to each of them.
+	 */
+	private void deliver(List<Pending> batch) {
+		List<E> events = new ArrayList<>(batch.size());
+		for (Pending pending : batch)
+			events.add(pending.event);
+		List<E> view = Collections.unmodifiableList(events);
+		for (Listener<E> listener : batch.get(0).listeners) {
+			Timer timer = AbsSubject.timerOf(listener);
+			long start = timer.start();
+			try {
+				listener.processEvents(view);
+			} catch (RuntimeException e) {
+				this.logger.log(Level.WARNING, "Listener " + listener + " failed to process events", e);
+			}
+			timer.stop(start);
+			record(listener, batch, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Records the latency of a batch of events delivered to the given listener.
+	 */
+	private void record(Listener<E> listener, List<Pending> batch, long now) {
+		synchronized (this.latencies) {
+			Latency latency = this.latencies.computeIfAbsent(listener, l -> new Latency());
+			latency.batches++;
+			for (Pending pending : batch) {
+				long nanos = now - pending.emittedAt;
+				latency.events++;
+				latency.totalNanos += nanos;
+				latency.maxNanos = Math.max(latency.maxNanos, nanos);
+			}
+		}
+	}
+
+	/**
+	 * Removes an event that left the queue from the events that can be coalesced.
+	 */
+	private void forget(Pending pending) {
+		if (pending.key != null && this.queuedByKey.get(pending.key) == pending)
+			this.queuedByKey.remove(pending.key);
+	}
+}
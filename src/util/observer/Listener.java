@@ -1,5 +1,7 @@
 package util.observer;
 
+import java.util.List;
+
 /**
  * @author antonialopes
  * 
@@ -15,5 +17,16 @@ public interface Listener<E extends Event> {
 	 * @param e the event to process
 	 */
 	public void processEvent(E e);
+
+	/**
+	 * Processes the given events, in order. Used by an {@link EventDispatcher} to
+	 * deliver events in batches; by default processes each event on its own.
+	 * 
+	 * @param events the events to process
+	 */
+	public default void processEvents(List<E> events) {
+		for (E e : events)
+			processEvent(e);
+	}
 	
 }
@@ -0,0 +1,97 @@
+package util.observer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author 58180 Rodrigo Correia
+ * @author 58188 Laura Cunha
+ *
+ * @param <E>
+ *
+ * Thread-safe registry of the listeners of a subject. Registering and unregistering a
+ * listener are O(1) and take no locks. Emitting iterates over an immutable snapshot of
+ * the listeners, in registration order, which is only rebuilt after the registry changed,
+ * so listeners can be registered and unregistered while an event is being emitted.
+ *
+ * A listener is registered at most once.
+ */
+public class ListenerRegistry<E extends Event> {
+
+	/**
+	 * An immutable list of the listeners, and the version of the registry it reflects.
+	 */
+	private record Snapshot<E extends Event>(long version, List<Listener<E>> listeners) {}
+
+	private final Map<Listener<E>, Long> members = new ConcurrentHashMap<>();
+	private final AtomicLong sequence = new AtomicLong();
+	private final AtomicLong version = new AtomicLong();
+	private final AtomicReference<Snapshot<E>> snapshot =
+			new AtomicReference<>(new Snapshot<>(0, Collections.emptyList()));
+
+	/**
+	 * Registers the given listener, if it is not registered.
+	 *
+	 * @param listener	the listener to register.
+	 * @requires 		{@code listener != null}
+	 * @return 			true if the listener was not registered.
+	 */
+	public boolean register(Listener<E> listener) {
+		boolean added = this.members.putIfAbsent(listener, this.sequence.incrementAndGet()) == null;
+		if (added)
+			this.version.incrementAndGet();
+		return added;
+	}
+
+	/**
+	 * Unregisters the given listener, if it is registered.
+	 *
+	 * @param listener	the listener to unregister.
+	 * @return 			true if the listener was registered.
+	 */
+	public boolean unregister(Listener<E> listener) {
+		boolean removed = listener != null && this.members.remove(listener) != null;
+		if (removed)
+			this.version.incrementAndGet();
+		return removed;
+	}
+
+	/**
+	 * Returns the number of registered listeners.
+	 *
+	 * @ensures {@code \result >= 0}
+	 * @return 	the number of registered listeners.
+	 */
+	public int size() {
+		return this.members.size();
+	}
+
+	/**
+	 * Returns the registered listeners, in registration order. The same list is returned
+	 * while the registry does not change.
+	 *
+	 * @ensures {@code \result != null}
+	 * @return 	an immutable list of the registered listeners.
+	 */
+	public List<Listener<E>> snapshot() {
+		Snapshot<E> current = this.snapshot.get();
+		long v = this.version.get();
+		if (current.version() == v)
+			return current.listeners();
+		// a versao e lida antes de copiar, por isso uma alteracao durante a copia
+		// obriga a copiar de novo no proximo pedido
+		List<Map.Entry<Listener<E>, Long>> entries = new ArrayList<>(this.members.entrySet());
+		entries.sort(Map.Entry.comparingByValue());
+		List<Listener<E>> listeners = new ArrayList<>(entries.size());
+		for (Map.Entry<Listener<E>, Long> entry : entries)
+			listeners.add(entry.getKey());
+		Snapshot<E> rebuilt = new Snapshot<>(v, Collections.unmodifiableList(listeners));
+		this.snapshot.compareAndSet(current, rebuilt);
+		return rebuilt.listeners();
+	}
+}
@@ -0,0 +1,108 @@
+package domain.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FacetIndexTests {
+
+	private MusicLibrary library;
+	private Song darkside;
+	private Song meuFado;
+	private Song fadoTordo;
+
+	@BeforeEach
+	void setup() {
+		library = new MusicLibrary();
+		darkside = new Song(new SongMetaInfo("Darkside", "Pop", Arrays.asList("Alan Walker", "Au/Ra"), "Different World"), "darkside.mp3");
+		meuFado = new Song(new SongMetaInfo("Meu Fado", "Fado", Arrays.asList("Mariza"), "Transparente"), "meufado.mp3");
+		fadoTordo = new Song(new SongMetaInfo("Fado Tordo", "Fado", Arrays.asList("Ana Moura", "Mariza"), "Para Além da Saudade"), "fadotordo.mp3");
+		library.add(darkside);
+		library.add(meuFado);
+		library.add(fadoTordo);
+	}
+
+	@Test
+	@DisplayName("Checks values: each facet has its values sorted, with the number of songs of each one")
+	public void testValues() {
+		assertEquals(Map.of("Fado", 2, "Pop", 1), library.getFacetValues(Facet.GENRE));
+		assertEquals(List.of("Fado", "Pop"), new ArrayList<>(library.getFacetValues(Facet.GENRE).keySet()));
+		assertEquals(List.of("Alan Walker", "Ana Moura", "Au/Ra", "Mariza"),
+				new ArrayList<>(library.getFacetValues(Facet.ARTIST).keySet()));
+		assertEquals(2, library.getFacetValues(Facet.ARTIST).get("Mariza"));
+		assertEquals(3, library.getFacetValues(Facet.ALBUM).size());
+	}
+
+	@Test
+	@DisplayName("Checks songs: the songs of a value are returned in library order")
+	public void testSongs() {
+		assertEquals(List.of(meuFado, fadoTordo), library.getFacetSongs(Facet.GENRE, "Fado"));
+		assertEquals(List.of(meuFado, fadoTordo), library.getFacetSongs(Facet.ARTIST, "Mariza"));
+		assertEquals(List.of(darkside), library.getFacetSongs(Facet.ALBUM, "Different World"));
+		assertTrue(library.getFacetSongs(Facet.GENRE, "fado").isEmpty());
+	}
+
+	@Test
+	@DisplayName("Checks songs: a removed song added again comes last, like in the library")
+	public void testSongsAfterReadd() {
+		library.select(1);
+		library.remove();
+		library.add(meuFado);
+		assertEquals(List.of(fadoTordo, meuFado), library.getFacetSongs(Facet.GENRE, "Fado"));
+		assertEquals(List.of(fadoTordo, meuFado), library.getFacetSongs(Facet.ARTIST, "Mariza"));
+		library.select(0);
+		library.remove();
+		assertEquals(List.of(fadoTordo, meuFado), library.getFacetSongs(Facet.GENRE, "Fado"));
+	}
+
+	@Test
+	@DisplayName("Checks updates: added and removed songs update the values and their counts")
+	public void testUpdates() {
+		library.select(1);
+		library.remove();
+		assertEquals(List.of(fadoTordo), library.getFacetSongs(Facet.ARTIST, "Mariza"));
+		assertFalse(library.getFacetValues(Facet.ALBUM).containsKey("Transparente"));
+
+		Song baile = new Song(new SongMetaInfo("Baile", "Pop", Arrays.asList("Mariza"), "Transparente"), "baile.mp3");
+		library.addAll(List.of(baile));
+		assertEquals(List.of(darkside, baile), library.getFacetSongs(Facet.GENRE, "Pop"));
+		assertEquals(Map.of("Fado", 1, "Pop", 2), library.getFacetValues(Facet.GENRE));
+		assertEquals(2, library.indexOf(baile));
+	}
+
+	@Test
+	@DisplayName("Checks indexOf: the position of a song follows the removals and adds of the library")
+	public void testIndexOf() {
+		assertEquals(1, library.indexOf(meuFado));
+		library.select(0);
+		library.remove();
+		assertEquals(-1, library.indexOf(darkside));
+		assertEquals(0, library.indexOf(meuFado));
+		assertEquals(1, library.indexOf(fadoTordo));
+		library.add(darkside);
+		assertEquals(2, library.indexOf(darkside));
+		Song copy = new Song(new SongMetaInfo("Meu Fado", "Fado", Arrays.asList("Mariza"), "Transparente"), "meufado.mp3");
+		assertEquals(-1, library.indexOf(copy)); // igual, mas nao e a musica da biblioteca
+	}
+
+	@Test
+	@DisplayName("Checks many songs: the songs of a big genre are kept in order")
+	public void testManySongs() {
+		for (int i = 0; i < 1000; i++)
+			library.add(new Song(new SongMetaInfo("Song " + i, i % 2 == 0 ? "Jazz" : "Rock",
+					Arrays.asList("Artist " + i), "Album"), "song" + i + ".mp3"));
+		List<Song> jazz = library.getFacetSongs(Facet.GENRE, "Jazz").stream().map(Song.class::cast).toList();
+		assertEquals(500, jazz.size());
+		for (int i = 1; i < jazz.size(); i++)
+			assertTrue(jazz.get(i - 1).getId() < jazz.get(i).getId());
+		assertEquals(1000, library.getFacetValues(Facet.ALBUM).get("Album"));
+		assertEquals(1004, library.getFacetValues(Facet.ARTIST).size());
+	}
+}
@@ -0,0 +1,162 @@
+package domain.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import domain.facade.ISong;
+import domain.playlists.MostLikedSongsPlaylist;
+
+public class RateCoalescerTests {
+
+	private MusicLibrary library;
+	private Song first;
+	private Song second;
+	private List<SongLibraryEvent> events;
+
+	@BeforeEach
+	void setup() {
+		library = new MusicLibrary();
+		first = new Song(new SongMetaInfo("Fado Tordo", "Pop", Arrays.asList("Mariza"), "Transparente"), "a.mp3");
+		second = new Song(new SongMetaInfo("Meu Fado Meu", "Pop", Arrays.asList("Mariza"), "Transparente"), "b.mp3");
+		library.add(first);
+		library.add(second);
+		events = new ArrayList<>();
+		library.registerListener(events::add);
+	}
+
+	@AfterEach
+	void tearDown() {
+		library.setRateCoalescingWindow(0);
+	}
+
+	@Test
+	@DisplayName("Checks that without a window every rate change is emitted")
+	public void testDisabled() {
+		assertEquals(0, library.getRateCoalescingWindow());
+		library.select(0);
+		library.incRateSelected();
+		library.incRateSelected();
+		assertEquals(2, events.size());
+	}
+
+	@Test
+	@DisplayName("Checks that the changes of the same song are collapsed into one event with the first old and last new rate")
+	public void testCollapse() {
+		library.setRateCoalescingWindow(60_000);
+		library.select(0);
+		for (int i = 0; i < 10; i++)
+			library.incRateSelected();
+		library.select(1);
+		library.incRateSelected();
+		library.decRateSelected();
+		library.select(0);
+		library.decRateSelected();
+		assertTrue(events.isEmpty());
+		library.flushRateChanges();
+		assertEquals(1, events.size());
+		SongRatedLibraryEvent event = (SongRatedLibraryEvent) events.get(0);
+		assertSame(first, event.getSong());
+		assertEquals(Rate.UNRATED, event.getOldRate());
+		assertEquals(first.getRating(), event.getNewRate());
+	}
+
+	@Test
+	@DisplayName("Checks that the pending changes are emitted before a song is removed")
+	public void testFlushBeforeRemove() {
+		library.setRateCoalescingWindow(60_000);
+		library.select(1);
+		library.incRateSelected();
+		library.remove();
+		assertEquals(2, events.size());
+		assertTrue(events.get(0) instanceof SongRatedLibraryEvent);
+		assertTrue(events.get(1) instanceof SongRemovedLibraryEvent);
+	}
+
+	@Test
+	@DisplayName("Checks that, without an executor, the pending changes are emitted on the next change after the window ends")
+	public void testWindowEndsLazily() throws InterruptedException {
+		library.setRateCoalescingWindow(20);
+		library.select(0);
+		library.incRateSelected();
+		library.incRateSelected();
+		Thread.sleep(100);
+		assertTrue(events.isEmpty());
+		library.select(1);
+		assertEquals(1, events.size());
+	}
+
+	@Test
+	@DisplayName("Checks that the pending changes are emitted on the thread of the executor when the window ends")
+	public void testWindowEndsOnOwner() throws InterruptedException {
+		BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+		List<Thread> threads = new ArrayList<>();
+		library.registerListener(e -> threads.add(Thread.currentThread()));
+		library.setRateCoalescingWindow(20, tasks::add);
+		library.select(0);
+		library.incRateSelected();
+		library.incRateSelected();
+		Runnable task = tasks.poll(5, TimeUnit.SECONDS);
+		assertNotNull(task);
+		assertTrue(events.isEmpty());
+		task.run();
+		assertEquals(1, events.size());
+		assertEquals(Arrays.asList(Thread.currentThread()), threads);
+	}
+
+	@Test
+	@DisplayName("Checks that a song rated and then removed across the end of the window is not rated again")
+	public void testRemoveAcrossWindow() throws InterruptedException {
+		MostLikedSongsPlaylist mostLiked = new MostLikedSongsPlaylist(library);
+		library.registerListener(mostLiked);
+		BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+		library.setRateCoalescingWindow(20, tasks::add);
+		library.select(1);
+		library.incRateSelected();
+		library.incRateSelected();
+		Runnable task = tasks.poll(5, TimeUnit.SECONDS);
+		assertNotNull(task);
+		// a remocao chega ao dono antes da tarefa do fim da janela
+		library.remove();
+		task.run();
+		assertEquals(2, events.size());
+		assertTrue(events.get(0) instanceof SongRatedLibraryEvent);
+		assertTrue(events.get(1) instanceof SongRemovedLibraryEvent);
+		for (ISong song : mostLiked)
+			assertNotSame(second, song);
+	}
+
+	@Test
+	@DisplayName("Checks that the changes are emitted without holding the lock of the coalescer")
+	public void testDeliverOutsideLock() throws InterruptedException {
+		List<Thread> helpers = new ArrayList<>();
+		library.registerListener(e -> {
+			// o listener espera por outra thread que volta a usar a biblioteca
+			Thread helper = new Thread(library::flushRateChanges);
+			helpers.add(helper);
+			helper.start();
+			try {
+				helper.join(5000);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		library.setRateCoalescingWindow(60_000);
+		library.select(0);
+		library.incRateSelected();
+		library.flushRateChanges();
+		assertEquals(1, events.size());
+		assertEquals(1, helpers.size());
+		assertFalse(helpers.get(0).isAlive());
+	}
+}
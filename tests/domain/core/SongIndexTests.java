@@ -0,0 +1,122 @@
+package domain.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SongIndexTests {
+
+	private MusicLibrary library;
+	private SongIndex index;
+	private Song darkside;
+	private Song meuFado;
+	private Song fadoTordo;
+
+	@BeforeEach
+	void setup() {
+		library = new MusicLibrary();
+		index = new SongIndex();
+		library.registerListener(index);
+		darkside = new Song(new SongMetaInfo("Darkside", "Pop", Arrays.asList("Alan Walker", "Au/Ra"), "Different World"), "darkside.mp3");
+		meuFado = new Song(new SongMetaInfo("Meu Fado", "Fado", Arrays.asList("Mariza"), "Transparente"), "meufado.mp3");
+		fadoTordo = new Song(new SongMetaInfo("Fado Tordo", "Fado", Arrays.asList("Ana Moura"), "Para Além da Saudade"), "fadotordo.mp3");
+		library.add(darkside);
+		library.add(meuFado);
+		library.add(fadoTordo);
+	}
+
+	@Test
+	@DisplayName("Checks exact: only songs with the given token are returned, by the order of their ids")
+	public void testExact() {
+		assertEquals(List.of(meuFado, fadoTordo), index.exact("fado"));
+		assertEquals(List.of(darkside), index.exact("WALKER"));
+		assertTrue(index.exact("walk").isEmpty());
+	}
+
+	@Test
+	@DisplayName("Checks prefix: songs with a token starting with the given prefix are returned")
+	public void testPrefix() {
+		assertEquals(List.of(darkside, fadoTordo), index.prefix("A"));
+		assertEquals(List.of(meuFado), index.prefix("ma"));
+		assertEquals(List.of(darkside, meuFado, fadoTordo), index.prefix(""));
+	}
+
+	@Test
+	@DisplayName("Checks query: terms of a clause are intersected and clauses are united")
+	public void testQuery() {
+		assertEquals(List.of(meuFado), index.query("fado mari*"));
+		assertEquals(List.of(darkside, fadoTordo), index.query("au/ra OR moura"));
+		assertTrue(index.query("fado walker").isEmpty());
+	}
+
+	@Test
+	@DisplayName("Checks remove: removed songs are no longer returned by the index")
+	public void testRemove() {
+		library.select(1);
+		library.remove();
+		assertEquals(List.of(fadoTordo), index.exact("fado"));
+		assertTrue(index.exact("mariza").isEmpty());
+	}
+
+	@Test
+	@DisplayName("Checks candidates: only songs containing the literal of the expression are candidates")
+	public void testCandidates() {
+		assertEquals(List.of(meuFado, fadoTordo), index.candidates(".*ado.*"));
+		assertNull(index.candidates(".*"));
+		assertNull(index.candidates("Fado|Pop"));
+	}
+
+	@Test
+	@DisplayName("Checks longestRequiredLiteral: optional chars, groups and escapes are not literals")
+	public void testLongestRequiredLiteral() {
+		assertEquals("omine", SongIndex.longestRequiredLiteral(".*omine Ha*"));
+		assertEquals("Dark", SongIndex.longestRequiredLiteral("^Darks?ide"));
+		assertEquals("side", SongIndex.longestRequiredLiteral("(Darkness)?side\\w+id"));
+		assertEquals("bc", SongIndex.longestRequiredLiteral("[abc]+bc\\x41"));
+		assertNull(SongIndex.longestRequiredLiteral("(?x)d a r k"));
+		assertNull(SongIndex.longestRequiredLiteral("a{2}"));
+	}
+
+	@Test
+	@DisplayName("Checks getMatches: the prefiltered search gives the same result as the full search")
+	public void testGetMatches() {
+		assertIterableEquals(List.of(meuFado, fadoTordo), library.getMatches(".*ado.*"));
+		assertIterableEquals(List.of(darkside), library.getMatches("(?i)WALK"));
+		assertIterableEquals(List.of(darkside, meuFado, fadoTordo), library.getMatches(".*"));
+		library.setParallelSearchThreshold(1);
+		assertIterableEquals(List.of(meuFado, fadoTordo), library.getMatches(".*ado.*"));
+		assertIterableEquals(List.of(darkside, fadoTordo), library.getMatches(".*(Pop|Moura).*"));
+	}
+
+	@Test
+	@DisplayName("Checks that a removed song added again comes last in the searches, like in the library")
+	public void testLibraryOrderAfterReadd() {
+		library.select(1);
+		library.remove();
+		library.add(meuFado);
+		assertSame(meuFado, library.get(2));
+		assertIterableEquals(List.of(fadoTordo, meuFado), library.getMatches(".*ado.*"));
+		assertIterableEquals(List.of(fadoTordo, meuFado), library.getTokenMatches("fado"));
+		assertIterableEquals(List.of(darkside, fadoTordo, meuFado), library.getTokenMatches("fado OR walker"));
+	}
+
+	@Test
+	@DisplayName("Checks that tokens of many songs and tokens of a single song are combined in the same queries")
+	public void testManySongs() {
+		for (int i = 0; i < 200; i++)
+			library.add(new Song(new SongMetaInfo("Fado " + i, "Fado", Arrays.asList("Mariza"), "Concerto"), "fado" + i + ".mp3"));
+		assertEquals(202, index.exact("fado").size());
+		assertEquals(201, index.query("fado mariza").size());
+		assertEquals(List.of(library.get(3 + 150)), index.query("mariza 150"));
+		assertEquals(List.of(meuFado, library.get(3 + 150)), index.query("meu OR 150"));
+		library.select(3 + 150);
+		library.remove();
+		assertEquals(List.of(), index.query("mariza 150"));
+		assertEquals(200, index.query("fado mariza").size());
+	}
+}
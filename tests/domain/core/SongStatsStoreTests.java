@@ -0,0 +1,82 @@
+package domain.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SongStatsStoreTests {
+
+	private MusicLibrary library;
+	private SongStatsStore stats;
+	private Song darkside;
+	private Song faded;
+	private Song alone;
+	private Song onMyWay;
+
+	@BeforeEach
+	void setup() {
+		library = new MusicLibrary();
+		stats = library.getStats();
+		// faded e on my way foram tocadas o mesmo numero de vezes
+		darkside = new Song(new SongMetaInfo("Darkside", "Pop", Arrays.asList("Alan Walker", "Au/Ra", "Tomine Harket"),
+				"Different World"), "Darkside Song", Rate.GOOD, 1);
+		faded = new Song(new SongMetaInfo("Faded", "Electronic", Arrays.asList("Alan Walker"), "Different World"),
+				"Faded Song", Rate.VERY_GOOD, 4);
+		alone = new Song(new SongMetaInfo("Alone", "Electronic", Arrays.asList("Alan Walker"), "Different World"),
+				"Alone Song", Rate.GOOD, 0);
+		onMyWay = new Song(new SongMetaInfo("On My Way", "Pop", Arrays.asList("Alan Walker", "Sabrina Carpenter", "Farruko"),
+				"World of Walker"), "On My Way Song", Rate.UNRATED, 4);
+		library.addAll(List.of(darkside, faded, alone, onMyWay));
+	}
+
+	@Test
+	@DisplayName("Checks that the stats of a song added to the library are read and written through the store")
+	public void testReadThrough() {
+		assertEquals(4, stats.size());
+		assertEquals(1, darkside.getTimesPlayed());
+		assertEquals(Rate.GOOD, darkside.getRating());
+		darkside.incTimesPlayed();
+		darkside.incRating();
+		alone.decRating();
+		assertEquals(2, darkside.getTimesPlayed());
+		assertEquals(Rate.VERY_GOOD, darkside.getRating());
+		assertEquals(2 + 4 + 0 + 4, stats.getTotalPlays());
+		int[] histogram = stats.getRateHistogram();
+		assertEquals(2, histogram[Rate.VERY_GOOD.ordinal()]);
+		assertEquals(1, histogram[Rate.OK.ordinal()]);
+		assertEquals(1, histogram[Rate.UNRATED.ordinal()]);
+		assertEquals(0, histogram[Rate.GOOD.ordinal()]);
+	}
+
+	@Test
+	@DisplayName("Checks that a song removed from the library keeps its stats")
+	public void testDetach() {
+		faded.incRating();
+		faded.decRating();
+		library.select(library.indexOf(faded));
+		library.remove();
+		assertEquals(3, stats.size());
+		assertEquals(Rate.GOOD, faded.getRating());
+		assertEquals(4, faded.getTimesPlayed());
+		faded.incTimesPlayed();
+		assertEquals(5, faded.getTimesPlayed());
+		assertEquals(1 + 0 + 4, stats.getTotalPlays());
+	}
+
+	@Test
+	@DisplayName("Checks getMostPlayed: the songs played at least once, by play count and then by id")
+	public void testMostPlayed() {
+		assertEquals(List.of(faded, onMyWay, darkside), stats.getMostPlayed(10));
+		assertEquals(List.of(faded, onMyWay), stats.getMostPlayed(2));
+		onMyWay.incTimesPlayed();
+		alone.incTimesPlayed();
+		assertEquals(List.of(onMyWay, faded), stats.getMostPlayed(2));
+		assertEquals(List.of(onMyWay, faded, darkside, alone), stats.getMostPlayed(4));
+		assertEquals(List.of(), stats.getMostPlayed(0));
+	}
+}
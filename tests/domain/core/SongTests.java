@@ -132,11 +132,82 @@ public class SongTests {
 		assertTrue(song.equals(song2));//equals
 		assertFalse(song.equals(song3)); //fileName
 		assertFalse(song.equals(null)); //null
-		assertFalse(song.equals(song4)); // rate
-		assertFalse(song.equals(song5)); // playCount
+		assertTrue(song.equals(song4)); // rate is not compared
+		assertTrue(song.equals(song5)); // playCount is not compared
 		assertFalse(song.equals(song6)); // metaInfo
 	}
+
+	@Test
+	@DisplayName("Check artists by position: the artists are returned in order without copying the list")
+	public void testArtistByPosition() {
+		assertEquals(3, song.artistCount());
+		assertEquals("Au/Ra", song.artist(1));
+		assertSame(song.getArtists(), song.getArtists());
+		assertThrows(UnsupportedOperationException.class, () -> song.getArtists().add("Someone"));
+		assertEquals("[Darkside, Different World, Pop, [Alan Walker; Au/Ra; Tomine Harket]] --- 0 -- 0", song.toString());
+	}
+
+	@Test
+	@DisplayName("Check equals with ids: songs are equal if they have the same filename and metainfo, whatever their ids")
+	public void testEqualsWithIds() {
+		Song same = new Song(0, metaInfo, "Darkside Song", Rate.GOOD, 0);
+		Song other = new Song(7, metaInfo, "Darkside Song", Rate.UNRATED, 0);
+		Song copy = new Song(7, metaInfo, "Darkside Song", Rate.UNRATED, 3);
+		Song renamed = new Song(7, metaInfo, "Renamed", Rate.UNRATED, 0);
+		assertEquals(Song.NO_ID, song.getId());
+		assertTrue(song.equals(other));
+		assertTrue(song.equals(same));
+		assertTrue(same.equals(other)); // transitive: both are equal to song
+		assertTrue(other.equals(copy));
+		assertFalse(other.equals(renamed)); // same id, different filename
+		assertEquals(song.hashCode(), same.hashCode());
+		assertEquals(other.hashCode(), copy.hashCode());
+	}
+
+	@Test
+	@DisplayName("Check id: the library gives each song a different id that never changes")
+	public void testId() {
+		MusicLibrary library = new MusicLibrary();
+		Song restored = new Song(10, metaInfo, "Restored", Rate.UNRATED, 0);
+		library.add(song);
+		library.add(restored);
+		Song next = new Song(metaInfo, "Next");
+		library.add(next);
+		assertEquals(0, song.getId());
+		assertEquals(10, restored.getId());
+		assertEquals(11, next.getId());
+		int hash = song.hashCode();
+		song.incRating();
+		song.incTimesPlayed();
+		assertEquals(hash, song.hashCode());
+		assertThrows(IllegalStateException.class, () -> restored.assignId(3));
+	}
 	
+	@Test
+	@DisplayName("Check id: a song moved to another library gets a new id if its id is already used there")
+	public void testIdInAnotherLibrary() {
+		MusicLibrary first = new MusicLibrary();
+		MusicLibrary second = new MusicLibrary();
+		Song alpha = new Song(new SongMetaInfo("Alpha", "Rock", Arrays.asList("Nobody"), "First"), "alpha.mp3");
+		first.add(alpha);
+		second.add(song);
+		assertEquals(0, alpha.getId());
+		assertEquals(0, song.getId());
+		first.select(0);
+		first.remove();
+		alpha.incRating();
+		second.add(alpha);
+		assertEquals(1, alpha.getId());
+		assertEquals(0, second.indexOf(song));
+		assertEquals(1, second.indexOf(alpha));
+		assertIterableEquals(List.of(alpha), second.getTokenMatches("alpha"));
+		assertEquals(List.of(alpha), second.getFacetSongs(Facet.GENRE, "Rock"));
+		assertEquals(2, second.getStats().size());
+		alpha.incRating();
+		assertEquals(Rate.BAD, alpha.getRating());
+		assertEquals(Rate.UNRATED, song.getRating());
+	}
+
 	@Test
 	@DisplayName("Check hash code: if two song are equals the hashcode of them shoud be equals too")
 	public void testHashCode() {
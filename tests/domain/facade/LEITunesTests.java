@@ -0,0 +1,51 @@
+package domain.facade;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import domain.core.Rate;
+
+public class LEITunesTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	@DisplayName("Checks commit: the committed changes survive an application that is never closed")
+	public void testCommitWithoutClose() throws IOException {
+		LEITunes killed = new LEITunes(directory);
+		MusicLibraryController library = killed.getMusicLibraryController();
+		library.addSong("songs/Fado Tordo.mp3");
+		library.selectSong(0);
+		library.incRateSelected();
+		library.incRateSelected();
+		killed.commit();
+
+		LEITunes restarted = new LEITunes(directory);
+		MusicLibraryController restored = restarted.getMusicLibraryController();
+		assertEquals(1, restored.numberOfSongs());
+		assertEquals(Rate.BAD, restored.getSong(0).getRating());
+		restarted.close();
+	}
+
+	@Test
+	@DisplayName("Checks close: the metainfo cache is saved even if the store could not be closed")
+	public void testCloseSavesCacheOnFailure() throws IOException {
+		LEITunes leiTunes = new LEITunes(directory);
+		leiTunes.getMusicLibraryController().addSong("songs/MeuFado.mp3");
+		leiTunes.close();
+		Path cache = directory.resolve("metainfo.cache");
+		assertTrue(Files.exists(cache));
+		Files.delete(cache);
+		// o log do store ja foi fechado, por isso fechar de novo falha
+		assertThrows(IOException.class, leiTunes::close);
+		assertTrue(Files.exists(cache));
+	}
+}
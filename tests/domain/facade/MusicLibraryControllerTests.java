@@ -0,0 +1,110 @@
+package domain.facade;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import domain.core.MusicLibrary;
+import domain.core.Song;
+import domain.core.SongAddedLibraryEvent;
+import domain.core.SongBatchAddedLibraryEvent;
+import domain.core.SongMetaInfo;
+import servicos.MetaInfoLoader;
+
+public class MusicLibraryControllerTests {
+
+	// mais do que dois lotes de 512 musicas
+	private static final int COPIES = 220;
+
+	@TempDir
+	Path directory;
+
+	private MusicLibrary library;
+	private MusicLibraryController controller;
+
+	@BeforeEach
+	void setup() throws IOException {
+		library = new MusicLibrary();
+		controller = new MusicLibraryController(library);
+		List<Path> songs;
+		try (Stream<Path> files = Files.list(Path.of("songs"))) {
+			songs = files.filter(p -> p.toString().endsWith(".mp3")).toList();
+		}
+		// ligacoes para os ficheiros de songs/, espalhadas por varias pastas
+		for (int i = 0; i < COPIES; i++) {
+			Path folder = Files.createDirectories(directory.resolve("album" + (i % 7)));
+			for (Path song : songs)
+				Files.createSymbolicLink(folder.resolve(i + " " + song.getFileName()), song.toAbsolutePath());
+		}
+		Files.writeString(directory.resolve("notes.txt"), "not a song");
+		Files.write(directory.resolve("broken.mp3"), new byte[] {1, 2, 3});
+	}
+
+	@Test
+	@DisplayName("Checks import: the songs are the ones of a sequential load, in the same order")
+	public void testSameAsSequential() throws IOException {
+		ImportProgress progress = controller.addSongs(directory, p -> {});
+
+		List<String> expectedFiles = new ArrayList<>();
+		List<SongMetaInfo> expectedInfos = new ArrayList<>();
+		MetaInfoLoader loader = new MetaInfoLoader();
+		try (Stream<Path> walk = Files.walk(directory)) {
+			for (Path file : walk.filter(Files::isRegularFile).map(Path::toString).sorted().map(Path::of).toList()) {
+				if (!loader.canLoad(file.toString()))
+					continue;
+				SongMetaInfo info = loader.load(file.toString());
+				if (info != null) {
+					expectedFiles.add(file.toString());
+					expectedInfos.add(info);
+				}
+			}
+		}
+
+		assertEquals(expectedFiles.size(), library.size());
+		for (int i = 0; i < library.size(); i++) {
+			Song song = library.get(i);
+			assertEquals(expectedFiles.get(i), song.getFilename());
+			assertEquals(expectedInfos.get(i), new SongMetaInfo(song.getSongTitle(), song.getGenre(),
+					song.getArtists(), song.getAlbum()));
+		}
+		assertTrue(progress.isDone());
+		assertEquals(5 * COPIES + 1, progress.total());
+		assertEquals(library.size(), progress.imported());
+		assertEquals(progress.total(), progress.imported() + progress.failed());
+	}
+
+	@Test
+	@DisplayName("Checks batches: each batch emits a single event and reports the progress")
+	public void testBatches() throws IOException {
+		List<Integer> batchSizes = new ArrayList<>();
+		List<SongAddedLibraryEvent> singleEvents = new ArrayList<>();
+		library.registerListener(e -> {
+			if (e instanceof SongBatchAddedLibraryEvent batch)
+				batchSizes.add(batch.getSongs().size());
+			else if (e instanceof SongAddedLibraryEvent added)
+				singleEvents.add(added);
+		});
+		List<ImportProgress> reports = new ArrayList<>();
+		ImportProgress last = controller.addSongs(directory, reports::add);
+
+		assertTrue(singleEvents.isEmpty());
+		assertEquals(3, batchSizes.size());
+		assertEquals(512, batchSizes.get(0));
+		assertEquals(512, batchSizes.get(1));
+		assertEquals(library.size(), batchSizes.stream().mapToInt(Integer::intValue).sum());
+		assertEquals(3, reports.size());
+		assertFalse(reports.get(0).isDone());
+		assertEquals(last, reports.get(2));
+		assertTrue(reports.get(0).processed() < reports.get(1).processed());
+	}
+}
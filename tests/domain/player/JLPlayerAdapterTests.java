@@ -0,0 +1,110 @@
+package domain.player;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javazoom.jl.player.AudioDevice;
+import javazoom.jl.player.AudioDeviceFactory;
+import javazoom.jl.player.FactoryRegistry;
+import javazoom.jl.player.NullAudioDevice;
+import util.metrics.Counter;
+import util.metrics.Metrics;
+
+public class JLPlayerAdapterTests {
+
+	private static final String FADO = "songs/Fado Tordo.mp3";
+	private static final String MEU_FADO = "songs/MeuFado.mp3";
+	private static final String EXSULTATE = "songs/Exsultate.mp3";
+
+	/**
+	 * Gives an audio device that plays nothing, so the tests run without a sound card.
+	 */
+	private static final class SilentFactory extends AudioDeviceFactory {
+		@Override
+		public AudioDevice createAudioDevice() {
+			return new NullAudioDevice();
+		}
+	}
+
+	private JLPlayerAdapter player;
+	private Counter hits;
+	private Counter misses;
+	private Counter discards;
+
+	@BeforeAll
+	static void silence() {
+		FactoryRegistry.systemRegistry().addFactory(new SilentFactory());
+	}
+
+	@BeforeEach
+	void setup() {
+		player = JLPlayerAdapter.INSTANCE;
+		player.setPrefetchDepth(2);
+		hits = Metrics.INSTANCE.counter("leitunes_player_prefetch_total", "", "result", "hit");
+		misses = Metrics.INSTANCE.counter("leitunes_player_prefetch_total", "", "result", "miss");
+		discards = Metrics.INSTANCE.counter("leitunes_player_prefetch_discarded_total", "");
+	}
+
+	@AfterEach
+	void tearDown() {
+		player.stop();
+		player.prefetch(List.of());
+		player.setPrefetchDepth(1);
+	}
+
+	@Test
+	@DisplayName("Checks that loading a prepared song takes its player and keeps the songs prepared after it")
+	public void testHit() {
+		player.prefetch(List.of(FADO, MEU_FADO, EXSULTATE));
+		assertEquals(List.of(FADO, MEU_FADO), player.getPrefetched());
+		long hitsBefore = hits.get();
+		long discardsBefore = discards.get();
+		assertTrue(player.load(FADO));
+		assertEquals(hitsBefore + 1, hits.get());
+		assertEquals(discardsBefore, discards.get());
+		assertEquals(List.of(MEU_FADO), player.getPrefetched());
+	}
+
+	@Test
+	@DisplayName("Checks that loading a song that was not prepared discards every prepared song")
+	public void testMiss() {
+		player.prefetch(List.of(FADO, MEU_FADO));
+		long missesBefore = misses.get();
+		long discardsBefore = discards.get();
+		assertTrue(player.load(EXSULTATE));
+		assertEquals(missesBefore + 1, misses.get());
+		assertEquals(discardsBefore + 2, discards.get());
+		assertTrue(player.getPrefetched().isEmpty());
+	}
+
+	@Test
+	@DisplayName("Checks that the prepared songs that are no longer hinted are discarded")
+	public void testDiscard() {
+		player.prefetch(List.of(FADO, MEU_FADO));
+		long discardsBefore = discards.get();
+		player.prefetch(List.of(MEU_FADO, EXSULTATE));
+		assertEquals(discardsBefore + 1, discards.get());
+		assertEquals(List.of(MEU_FADO, EXSULTATE), player.getPrefetched());
+		player.setPrefetchDepth(0);
+		player.prefetch(List.of(MEU_FADO, EXSULTATE));
+		assertEquals(discardsBefore + 3, discards.get());
+		assertTrue(player.getPrefetched().isEmpty());
+	}
+
+	@Test
+	@DisplayName("Checks that a song whose preparation failed is opened again when loaded")
+	public void testFailedPreparation() {
+		player.prefetch(List.of("songs/missing.mp3"));
+		long missesBefore = misses.get();
+		assertFalse(player.load("songs/missing.mp3"));
+		assertEquals(missesBefore + 1, misses.get());
+		assertTrue(player.load(FADO));
+	}
+}
@@ -0,0 +1,106 @@
+package domain.playlists;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import domain.core.MusicLibrary;
+import domain.core.Song;
+import domain.core.SongMetaInfo;
+import domain.facade.ISong;
+
+public class ManualPlaylistTests {
+
+	private MusicLibrary library;
+	private ManualPlaylist playlist;
+	private Song barcoNegro;
+	private Song foiDeus;
+	private Song casaPortuguesa;
+	private Song gaivota;
+	private Song povo;
+
+	@BeforeEach
+	void setup() {
+		library = new MusicLibrary();
+		playlist = new ManualPlaylist("Fados da Amalia", library);
+		library.registerListener(playlist);
+		barcoNegro = add("Barco Negro");
+		foiDeus = add("Foi Deus");
+		casaPortuguesa = add("Uma Casa Portuguesa");
+		gaivota = add("Gaivota");
+		povo = add("Povo que Lavas no Rio");
+	}
+
+	private Song add(String title) {
+		Song song = new Song(new SongMetaInfo(title, "Fado", Arrays.asList("Amalia Rodrigues"), "Amalia"), title + ".mp3");
+		library.add(song);
+		playlist.add(song);
+		return song;
+	}
+
+	@Test
+	@DisplayName("Checks add: a song already in the playlist is not added again")
+	public void testAddRepeated() {
+		assertFalse(playlist.add(casaPortuguesa));
+		assertEquals(5, playlist.size());
+		assertEquals(4, playlist.getIndexSelected());
+	}
+
+	@Test
+	@DisplayName("Checks indexOf: positions stay right after moving and removing songs")
+	public void testIndexOf() {
+		playlist.select(4);
+		playlist.moveUpSelected(0);
+		playlist.select(2);
+		playlist.remove();
+		List<ISong> expected = List.of(povo, barcoNegro, casaPortuguesa, gaivota);
+		for (int i = 0; i < expected.size(); i++) {
+			assertSame(expected.get(i), playlist.get(i));
+			assertEquals(i, playlist.indexOf(expected.get(i)));
+		}
+		assertEquals(-1, playlist.indexOf(foiDeus));
+		assertTrue(playlist.add(foiDeus));
+		assertEquals(4, playlist.indexOf(foiDeus));
+	}
+
+	@Test
+	@DisplayName("Checks that a song removed from the library is removed from the playlist, keeping the selection")
+	public void testLibraryRemove() {
+		playlist.select(3);
+		library.select(library.indexOf(foiDeus));
+		library.remove();
+		assertEquals(4, playlist.size());
+		assertFalse(playlist.contains(foiDeus));
+		assertSame(gaivota, playlist.getSelected());
+		assertEquals(2, playlist.getIndexSelected());
+		assertEquals(3, playlist.indexOf(povo));
+	}
+
+	@Test
+	@DisplayName("Checks iterator: the songs can't be removed through it, so the playlist stays consistent")
+	public void testReadOnlyIterator() {
+		Iterator<ISong> it = playlist.iterator();
+		assertSame(barcoNegro, it.next());
+		assertThrows(UnsupportedOperationException.class, it::remove);
+		assertEquals(5, playlist.size());
+		assertFalse(playlist.add(barcoNegro));
+	}
+
+	@Test
+	@DisplayName("Checks get: the songs are returned by position, in the order of the playlist")
+	public void testGet() {
+		playlist.select(3);
+		playlist.moveUpSelected(1);
+		Iterator<ISong> it = playlist.iterator();
+		for (int i = 0; i < playlist.size(); i++)
+			assertSame(it.next(), playlist.get(i));
+		assertSame(gaivota, playlist.get(1));
+		assertSame(foiDeus, playlist.get(2));
+	}
+}
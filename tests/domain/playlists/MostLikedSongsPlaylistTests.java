@@ -0,0 +1,100 @@
+package domain.playlists;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import domain.core.MusicLibrary;
+import domain.core.Rate;
+import domain.core.Song;
+import domain.core.SongMetaInfo;
+
+public class MostLikedSongsPlaylistTests {
+
+	private MusicLibrary library;
+	private MostLikedSongsPlaylist playlist;
+	private Song barcoNegro;
+	private Song estranhaForma;
+	private Song cancaoDoMar;
+	private Song gaivota;
+
+	@BeforeEach
+	void setup() {
+		library = new MusicLibrary();
+		playlist = new MostLikedSongsPlaylist(library, 2);
+		library.registerListener(playlist);
+		barcoNegro = add("Barco Negro", "Mariza");
+		estranhaForma = add("Estranha Forma de Vida", "Amalia Rodrigues");
+		cancaoDoMar = add("Cancao do Mar", "Dulce Pontes");
+		gaivota = add("Gaivota", "Amalia Rodrigues");
+	}
+
+	private Song add(String title, String artist) {
+		Song song = new Song(new SongMetaInfo(title, "Fado", Arrays.asList(artist), "Fados"), title + ".mp3");
+		library.add(song);
+		return song;
+	}
+
+	private void rate(Song song, Rate rate) {
+		library.select(library.indexOf(song));
+		while (song.getRating().compareTo(rate) < 0)
+			library.incRateSelected();
+		while (song.getRating().compareTo(rate) > 0)
+			library.decRateSelected();
+	}
+
+	@Test
+	@DisplayName("Checks rating: only rated songs enter the playlist")
+	public void testRated() {
+		assertEquals(0, playlist.size());
+		rate(estranhaForma, Rate.VERY_BAD);
+		assertEquals(1, playlist.size());
+		assertSame(estranhaForma, playlist.get(0));
+	}
+
+	@Test
+	@DisplayName("Checks amount of songs: the playlist keeps only the best rated songs")
+	public void testAmountOfSongs() {
+		rate(barcoNegro, Rate.VERY_BAD);
+		rate(estranhaForma, Rate.BAD);
+		rate(cancaoDoMar, Rate.OK);
+		assertEquals(2, playlist.getAmountOfSongs());
+		assertEquals(2, playlist.size());
+		assertSame(estranhaForma, playlist.get(0));
+		assertSame(cancaoDoMar, playlist.get(1));
+		// barco negro toma o lugar de estranha forma de vida
+		rate(barcoNegro, Rate.OK);
+		assertSame(cancaoDoMar, playlist.get(0));
+		assertSame(barcoNegro, playlist.get(1));
+		assertFalse(playlist.contains(estranhaForma));
+	}
+
+	@Test
+	@DisplayName("Checks unrating: songs rated back to UNRATED leave the playlist and are replaced")
+	public void testUnrated() {
+		rate(gaivota, Rate.VERY_GOOD);
+		rate(barcoNegro, Rate.GOOD);
+		rate(estranhaForma, Rate.BAD);
+		rate(gaivota, Rate.UNRATED);
+		assertEquals(2, playlist.size());
+		assertSame(barcoNegro, playlist.get(0));
+		assertSame(estranhaForma, playlist.get(1));
+	}
+
+	@Test
+	@DisplayName("Checks removal: songs removed from the library are replaced by the next best rated")
+	public void testRemoved() {
+		rate(barcoNegro, Rate.VERY_BAD);
+		rate(estranhaForma, Rate.BAD);
+		rate(gaivota, Rate.VERY_GOOD);
+		library.select(library.indexOf(gaivota));
+		library.remove();
+		assertEquals(2, playlist.size());
+		assertSame(estranhaForma, playlist.get(0));
+		assertSame(barcoNegro, playlist.get(1));
+	}
+}
@@ -0,0 +1,110 @@
+package domain.playlists;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import domain.core.MusicLibrary;
+import domain.core.Song;
+import domain.core.SongMetaInfo;
+import domain.core.SongPlayedLibraryEvent;
+
+public class MostPlayedSongsPlaylistTests {
+
+	private MusicLibrary library;
+	private MostPlayedSongsPlaylist playlist;
+	private Song faded;
+	private Song darkside;
+	private Song levels;
+	private Song titanium;
+
+	@BeforeEach
+	void setup() {
+		library = new MusicLibrary();
+		playlist = new MostPlayedSongsPlaylist(library, 2);
+		library.registerListener(playlist);
+		faded = new Song(new SongMetaInfo("Faded", "Electronic", Arrays.asList("Alan Walker"), "Different World"), "faded.mp3");
+		darkside = new Song(new SongMetaInfo("Darkside", "Pop", Arrays.asList("Alan Walker", "Au/Ra", "Tomine Harket"),
+				"Different World"), "darkside.mp3");
+		levels = new Song(new SongMetaInfo("Levels", "Electronic", Arrays.asList("Avicii"), "True"), "levels.mp3");
+		titanium = new Song(new SongMetaInfo("Titanium", "Electronic", Arrays.asList("David Guetta", "Sia"),
+				"Nothing but the Beat"), "titanium.mp3");
+		library.addAll(List.of(faded, darkside, levels, titanium));
+	}
+
+	private void play(Song song, int times) {
+		for (int i = 0; i < times; i++)
+			library.incTimesPlayed(song);
+	}
+
+	@Test
+	@DisplayName("Checks playing: each play emits an event with the play count of the song")
+	public void testPlayedEvent() {
+		List<SongPlayedLibraryEvent> events = new ArrayList<>();
+		library.registerListener(e -> {
+			if (e instanceof SongPlayedLibraryEvent played)
+				events.add(played);
+		});
+		play(titanium, 2);
+		assertEquals(2, events.size());
+		assertSame(titanium, events.get(1).getSong());
+		assertEquals(2, events.get(1).getTimesPlayed());
+		assertEquals(2, titanium.getTimesPlayed());
+	}
+
+	@Test
+	@DisplayName("Checks playing: only played songs enter the playlist")
+	public void testPlayed() {
+		assertEquals(0, playlist.size());
+		play(darkside, 1);
+		assertEquals(1, playlist.size());
+		assertSame(darkside, playlist.get(0));
+		assertEquals(-1, playlist.indexOf(faded));
+	}
+
+	@Test
+	@DisplayName("Checks amount of songs: the playlist keeps only the most played songs")
+	public void testAmountOfSongs() {
+		play(faded, 1);
+		play(darkside, 2);
+		play(levels, 3);
+		assertEquals(2, playlist.getAmountOfSongs());
+		assertEquals(2, playlist.size());
+		assertSame(darkside, playlist.get(0));
+		assertSame(levels, playlist.get(1));
+		// faded passa a darkside, que sai da playlist
+		play(faded, 3);
+		assertSame(levels, playlist.get(0));
+		assertSame(faded, playlist.get(1));
+		assertFalse(playlist.contains(darkside));
+	}
+
+	@Test
+	@DisplayName("Checks removal: songs removed from the library are replaced by the next most played")
+	public void testRemoved() {
+		play(faded, 1);
+		play(darkside, 2);
+		play(levels, 3);
+		library.select(library.indexOf(levels));
+		library.remove();
+		assertEquals(2, playlist.size());
+		assertSame(darkside, playlist.get(0));
+		assertSame(faded, playlist.get(1));
+	}
+
+	@Test
+	@DisplayName("Checks creation: songs played before the playlist was created are ranked")
+	public void testExistingPlays() {
+		play(titanium, 2);
+		play(faded, 1);
+		MostPlayedSongsPlaylist other = new MostPlayedSongsPlaylist(library, 1);
+		assertEquals(1, other.size());
+		assertSame(titanium, other.get(0));
+	}
+}
@@ -0,0 +1,103 @@
+package domain.playlists;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import domain.core.MusicLibrary;
+import domain.core.Rate;
+import domain.core.Song;
+import domain.core.SongMetaInfo;
+import domain.facade.ISong;
+
+public class RuleBasedPlaylistTests {
+
+	private MusicLibrary library;
+	private List<Song> songs;
+
+	@BeforeEach
+	void setup() {
+		library = new MusicLibrary();
+		songs = new ArrayList<>();
+		add("Night Train", "Jazz", "Oscar Peterson");
+		add("Saudade", "Fado", "Amalia Rodrigues");
+		add("Night Fever", "Disco", "Bee Gees");
+		add("Barco Negro", "Fado", "Mariza", "Amalia Rodrigues");
+	}
+
+	private void add(String title, String genre, String... artists) {
+		Song song = new Song(new SongMetaInfo(title, genre, Arrays.asList(artists), "Album"), title + ".mp3");
+		songs.add(song);
+		library.add(song);
+	}
+
+	private List<ISong> contents(Playlist playlist) {
+		List<ISong> result = new ArrayList<>();
+		playlist.forEach(result::add);
+		return result;
+	}
+
+	@Test
+	@DisplayName("Checks rules: each kind of rule and their combinations")
+	public void testRules() {
+		assertTrue(SongRules.genreIs("fado").matches(songs.get(1)));
+		assertFalse(SongRules.genreIs("Fado").matches(songs.get(0)));
+		assertTrue(SongRules.artistContains("rodri").matches(songs.get(3)));
+		assertFalse(SongRules.artistContains("rodri").matches(songs.get(2)));
+		assertTrue(SongRules.titleMatches("^Night").matches(songs.get(2)));
+		assertFalse(SongRules.titleMatches("^Night").matches(songs.get(1)));
+		assertTrue(SongRules.rateAtLeast(Rate.UNRATED).matches(songs.get(0)));
+		assertFalse(SongRules.rateAtLeast(Rate.OK).matches(songs.get(0)));
+		assertFalse(SongRules.timesPlayedMoreThan(0).matches(songs.get(0)));
+
+		SongRule rule = SongRules.genreIs("Fado").and(SongRules.artistContains("Mariza"))
+				.or(SongRules.titleMatches("Train"));
+		assertTrue(rule.matches(songs.get(0)));
+		assertFalse(rule.matches(songs.get(1)));
+		assertTrue(rule.matches(songs.get(3)));
+	}
+
+	@Test
+	@DisplayName("Checks creation: the playlist has the songs of the library that satisfy the rule")
+	public void testCreation() {
+		RuleBasedPlaylist playlist = new RuleBasedPlaylist("Fado", library, SongRules.genreIs("Fado"));
+		assertEquals(List.of(songs.get(1), songs.get(3)), contents(playlist));
+	}
+
+	@Test
+	@DisplayName("Checks events: added, rated, played and removed songs are checked again")
+	public void testEvents() {
+		RuleBasedPlaylist playlist = new RuleBasedPlaylist("Loved", library,
+				SongRules.rateAtLeast(Rate.BAD).or(SongRules.timesPlayedMoreThan(1)));
+		library.registerListener(playlist);
+		assertEquals(0, playlist.size());
+
+		library.select(2);
+		library.incRateSelected();
+		library.incRateSelected();
+		assertEquals(List.of(songs.get(2)), contents(playlist));
+		library.decRateSelected();
+		assertEquals(0, playlist.size());
+
+		library.incTimesPlayed(songs.get(0));
+		assertEquals(0, playlist.size());
+		library.incTimesPlayed(songs.get(0));
+		assertEquals(List.of(songs.get(0)), contents(playlist));
+
+		Song song = new Song(new SongMetaInfo("Played", "Pop", Arrays.asList("Artist"), "Album"), "played.mp3");
+		song.incTimesPlayed();
+		song.incTimesPlayed();
+		library.add(song);
+		assertEquals(List.of(songs.get(0), song), contents(playlist));
+
+		library.select(0);
+		library.remove();
+		assertEquals(List.of(song), contents(playlist));
+	}
+}
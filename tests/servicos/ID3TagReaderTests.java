@@ -0,0 +1,86 @@
+package servicos;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.mpatric.mp3agic.ID3v1;
+import com.mpatric.mp3agic.InvalidDataException;
+import com.mpatric.mp3agic.Mp3File;
+import com.mpatric.mp3agic.UnsupportedTagException;
+
+public class ID3TagReaderTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	@DisplayName("Checks read: the fields are the ones read by Mp3File, for every file of songs/")
+	public void testSameAsMp3File() throws Exception {
+		List<Path> files;
+		try (Stream<Path> list = Files.list(Path.of("songs"))) {
+			files = list.filter(p -> p.toString().endsWith(".mp3")).sorted().toList();
+		}
+		assertFalse(files.isEmpty());
+		for (Path file : files) {
+			Mp3File mp3 = new Mp3File(file.toString());
+			ID3v1 expected = mp3.hasId3v2Tag() ? mp3.getId3v2Tag() : mp3.getId3v1Tag();
+			ID3TagReader.Tag tag = ID3TagReader.read(file.toString());
+			if (expected == null) {
+				assertNull(tag, file.toString());
+				continue;
+			}
+			assertNotNull(tag, file.toString());
+			assertEquals(expected.getTitle(), tag.title(), file.toString());
+			assertEquals(expected.getArtist(), tag.artist(), file.toString());
+			assertEquals(expected.getAlbum(), tag.album(), file.toString());
+			assertEquals(expected.getGenreDescription(), tag.genre(), file.toString());
+		}
+	}
+
+	/**
+	 * Writes a file with an ID3v2.3 tag of the given size with a single TIT2 frame.
+	 */
+	private Path tagFile(int tagSize, int frameSize, int frameFlags) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(10 + 10 + 6);
+		buffer.put("ID3".getBytes(StandardCharsets.ISO_8859_1)).put((byte) 3).put((byte) 0).put((byte) 0);
+		// tamanho synchsafe
+		buffer.put((byte) ((tagSize >> 21) & 0x7F)).put((byte) ((tagSize >> 14) & 0x7F))
+				.put((byte) ((tagSize >> 7) & 0x7F)).put((byte) (tagSize & 0x7F));
+		buffer.put("TIT2".getBytes(StandardCharsets.ISO_8859_1)).putInt(frameSize).put((byte) 0).put((byte) frameFlags);
+		buffer.put((byte) 0).put("Fado".getBytes(StandardCharsets.ISO_8859_1)).put((byte) 0);
+		Path file = directory.resolve("tag.mp3");
+		Files.write(file, buffer.array());
+		return file;
+	}
+
+	@Test
+	@DisplayName("Checks a valid tag: the title is read")
+	public void testValidTag() throws Exception {
+		assertEquals("Fado", ID3TagReader.read(tagFile(16, 6, 0).toString()).title());
+	}
+
+	@Test
+	@DisplayName("Checks bogus sizes: a frame bigger than the file is reported without being read")
+	public void testBogusSize() throws IOException {
+		Path file = tagFile((1 << 28) - 1, (1 << 28) - 100, 0);
+		assertThrows(InvalidDataException.class, () -> ID3TagReader.read(file.toString()));
+	}
+
+	@Test
+	@DisplayName("Checks grouping: frames with a group byte are left to the full parser")
+	public void testGroupingFlag() throws IOException {
+		Path file = tagFile(16, 6, 0x20);
+		assertThrows(UnsupportedTagException.class, () -> ID3TagReader.read(file.toString()));
+	}
+}
@@ -0,0 +1,211 @@
+package servicos;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import domain.core.MusicLibrary;
+import domain.core.Rate;
+import domain.core.Song;
+import domain.core.SongMetaInfo;
+import domain.facade.ISong;
+import domain.playlists.ManualPlaylist;
+import domain.playlists.Playlist;
+import domain.playlists.PlaylistList;
+
+public class LibraryStoreTests {
+
+	@TempDir
+	Path directory;
+
+	private LibraryStore store;
+	private MusicLibrary library;
+	private PlaylistList playlists;
+
+	@BeforeEach
+	void setup() throws IOException {
+		store = new LibraryStore(directory);
+		library = new MusicLibrary();
+		playlists = new PlaylistList(library);
+		store.load(library, playlists);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		store.close();
+	}
+
+	private Song add(String title) {
+		Song song = new Song(new SongMetaInfo(title, "Fado", Arrays.asList("Mariza"), "Transparente"), title + ".mp3");
+		library.add(song);
+		return song;
+	}
+
+	/**
+	 * Closes the store without saving anything else and loads the files again into
+	 * a new library.
+	 */
+	private void reload() throws IOException {
+		library.unregisterListener(store);
+		store = new LibraryStore(directory);
+		library = new MusicLibrary();
+		playlists = new PlaylistList(library);
+		store.load(library, playlists);
+	}
+
+	private List<String> filenames() {
+		List<String> result = new ArrayList<>();
+		for (Song song : library)
+			result.add(song.getFilename());
+		return result;
+	}
+
+	private Path logFile() {
+		return directory.resolve("library.log");
+	}
+
+	@Test
+	@DisplayName("Checks reload: songs, ids, rates, play counts and manual playlists survive a reload")
+	public void testRoundTrip() throws IOException {
+		Song first = add("Meu Fado");
+		add("Barco Negro");
+		Song third = add("Gente da Minha Terra");
+		library.select(2);
+		library.incRateSelected();
+		library.incRateSelected();
+		library.incTimesPlayed(first);
+		library.incTimesPlayed(first);
+		ManualPlaylist playlist = new ManualPlaylist("Relax", library);
+		playlists.add(playlist);
+		playlist.add(third);
+		playlist.add(first);
+		store.commit();
+
+		reload();
+		assertEquals(List.of("Meu Fado.mp3", "Barco Negro.mp3", "Gente da Minha Terra.mp3"), filenames());
+		assertEquals(first.getId(), library.get(0).getId());
+		assertEquals(third.getId(), library.get(2).getId());
+		assertEquals(2, library.get(0).getTimesPlayed());
+		assertEquals(Rate.BAD, library.get(2).getRating());
+		Playlist loaded = playlists.get(playlists.size() - 1);
+		assertEquals("Relax", loaded.getName());
+		List<ISong> songs = new ArrayList<>();
+		loaded.forEach(songs::add);
+		assertEquals(List.of(library.get(2), library.get(0)), songs);
+
+		// uma musica nova nao reutiliza os ids guardados
+		Song fourth = add("Primavera");
+		assertTrue(fourth.getId() > third.getId());
+	}
+
+	@Test
+	@DisplayName("Checks removal: songs removed from the library are not loaded again")
+	public void testRemoval() throws IOException {
+		add("Meu Fado");
+		add("Barco Negro");
+		store.commit();
+		library.select(0);
+		library.remove();
+		store.commit();
+
+		reload();
+		assertEquals(List.of("Barco Negro.mp3"), filenames());
+	}
+
+	@Test
+	@DisplayName("Checks CRC: a record whose checksum doesn't match is ignored with the records after it")
+	public void testChecksumMismatch() throws IOException {
+		Song song = add("Meu Fado");
+		store.commit();
+		library.incTimesPlayed(song);
+		store.commit();
+		// o ultimo byte do log pertence ao CRC do registo da reproducao
+		try (FileChannel channel = FileChannel.open(logFile(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer last = ByteBuffer.allocate(1);
+			channel.read(last, channel.size() - 1);
+			last.put(0, (byte) (last.get(0) ^ 0xFF));
+			channel.write(last.flip(), channel.size() - 1);
+		}
+
+		reload();
+		assertEquals(List.of("Meu Fado.mp3"), filenames());
+		assertEquals(0, library.get(0).getTimesPlayed());
+	}
+
+	@Test
+	@DisplayName("Checks torn tail: an incomplete record is dropped and the next records can be read")
+	public void testTruncatedTail() throws IOException {
+		add("Meu Fado");
+		store.commit();
+		add("Barco Negro");
+		store.commit();
+		long size = Files.size(logFile());
+		try (FileChannel channel = FileChannel.open(logFile(), StandardOpenOption.WRITE)) {
+			channel.truncate(size - 3);
+		}
+
+		reload();
+		assertEquals(List.of("Meu Fado.mp3"), filenames());
+		add("Primavera");
+		store.commit();
+
+		reload();
+		assertEquals(List.of("Meu Fado.mp3", "Primavera.mp3"), filenames());
+	}
+
+	@Test
+	@DisplayName("Checks garbage tail: a record with a huge length doesn't stop the load")
+	public void testHugeLength() throws IOException {
+		add("Meu Fado");
+		store.commit();
+		try (FileChannel channel = FileChannel.open(logFile(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			channel.write(ByteBuffer.allocate(13).put((byte) 1).putInt(Integer.MAX_VALUE - 1).flip());
+		}
+
+		reload();
+		assertEquals(List.of("Meu Fado.mp3"), filenames());
+	}
+
+	@Test
+	@DisplayName("Checks compaction: the log is emptied and the snapshot keeps the whole state")
+	public void testCompaction() throws IOException {
+		Song song = add("Meu Fado");
+		add("Barco Negro");
+		library.incTimesPlayed(song);
+		store.commit();
+		assertTrue(Files.size(logFile()) > 4);
+		store.compact();
+		assertEquals(4, Files.size(logFile()));
+		assertTrue(Files.exists(directory.resolve("library.snap")));
+
+		reload();
+		assertEquals(List.of("Meu Fado.mp3", "Barco Negro.mp3"), filenames());
+		assertEquals(1, library.get(0).getTimesPlayed());
+		assertEquals(song.getId(), library.get(0).getId());
+	}
+
+	@Test
+	@DisplayName("Checks commit batch: enough changes are committed without calling commit")
+	public void testCommitBatch() throws IOException {
+		store.setCommitBatch(2);
+		add("Meu Fado");
+		add("Barco Negro");
+
+		reload();
+		assertEquals(List.of("Meu Fado.mp3", "Barco Negro.mp3"), filenames());
+	}
+}
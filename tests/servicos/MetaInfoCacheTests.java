@@ -0,0 +1,118 @@
+package servicos;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import domain.core.SongMetaInfo;
+
+public class MetaInfoCacheTests {
+
+	@TempDir
+	Path directory;
+
+	private MetaInfoCache cache;
+	private SongMetaInfo fado;
+	private SongMetaInfo darkside;
+
+	@BeforeEach
+	void setup() {
+		cache = new MetaInfoCache();
+		fado = new SongMetaInfo("Meu Fado", "Fado", Arrays.asList("Mariza"), "Transparente");
+		darkside = new SongMetaInfo("Darkside", "Pop", Arrays.asList("Alan Walker", "Au/Ra"), "Different World");
+	}
+
+	@Test
+	@DisplayName("Checks get: an entry is found while the file keeps its size and last modified time")
+	public void testHit() {
+		cache.put("/music/fado.mp3", 100, 5000, fado);
+		assertEquals(fado, cache.get("/music/fado.mp3", 100, 5000));
+		assertNull(cache.get("/music/other.mp3", 100, 5000));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	@DisplayName("Checks invalidation: a file whose size changed is loaded again")
+	public void testSizeChanged() {
+		cache.put("/music/fado.mp3", 100, 5000, fado);
+		assertNull(cache.get("/music/fado.mp3", 101, 5000));
+		// a entrada desatualizada foi descartada
+		assertEquals(0, cache.size());
+		assertNull(cache.get("/music/fado.mp3", 100, 5000));
+	}
+
+	@Test
+	@DisplayName("Checks invalidation: a file whose last modified time changed is loaded again")
+	public void testModified() {
+		cache.put("/music/fado.mp3", 100, 5000, fado);
+		assertNull(cache.get("/music/fado.mp3", 100, 6000));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	@DisplayName("Checks LRU: the least recently used entry is evicted when the cache is full")
+	public void testEviction() {
+		cache = new MetaInfoCache(null, 2);
+		cache.put("/a.mp3", 1, 1, fado);
+		cache.put("/b.mp3", 1, 1, darkside);
+		assertEquals(fado, cache.get("/a.mp3", 1, 1));
+		cache.put("/c.mp3", 1, 1, darkside);
+		assertEquals(2, cache.size());
+		assertNull(cache.get("/b.mp3", 1, 1));
+		assertEquals(fado, cache.get("/a.mp3", 1, 1));
+		assertEquals(darkside, cache.get("/c.mp3", 1, 1));
+	}
+
+	@Test
+	@DisplayName("Checks capacity: the capacity only grows and then keeps more entries")
+	public void testEnsureCapacity() {
+		cache = new MetaInfoCache(null, 2);
+		cache.ensureCapacity(1);
+		assertEquals(2, cache.getCapacity());
+		cache.ensureCapacity(3);
+		assertEquals(3, cache.getCapacity());
+		cache.put("/a.mp3", 1, 1, fado);
+		cache.put("/b.mp3", 1, 1, fado);
+		cache.put("/c.mp3", 1, 1, fado);
+		assertEquals(3, cache.size());
+	}
+
+	@Test
+	@DisplayName("Checks save: the entries are loaded again from the file, even more than the capacity")
+	public void testSaveAndReload() throws IOException {
+		Path file = directory.resolve("metainfo.cache");
+		cache = new MetaInfoCache(file, 3);
+		cache.put("/a.mp3", 10, 20, fado);
+		cache.put("/b.mp3", 30, 40, darkside);
+		cache.put("/c.mp3", 50, 60, fado);
+		cache.save();
+
+		MetaInfoCache loaded = new MetaInfoCache(file, 2);
+		assertEquals(3, loaded.size());
+		assertTrue(loaded.getCapacity() >= 3);
+		assertEquals(fado, loaded.get("/a.mp3", 10, 20));
+		assertEquals(darkside, loaded.get("/b.mp3", 30, 40));
+		assertNull(loaded.get("/c.mp3", 50, 61));
+	}
+
+	@Test
+	@DisplayName("Checks damaged file: a damaged file is ignored")
+	public void testDamagedFile() throws IOException {
+		Path file = directory.resolve("metainfo.cache");
+		Files.write(file, new byte[] {0x4C, 0x54, 0x4D, 0x31, 0x7F, 0, 0, 0, 1, 2});
+		MetaInfoCache loaded = new MetaInfoCache(file);
+		assertEquals(0, loaded.size());
+		loaded.put("/a.mp3", 1, 1, fado);
+		loaded.save();
+		assertEquals(fado, new MetaInfoCache(file).get("/a.mp3", 1, 1));
+	}
+}
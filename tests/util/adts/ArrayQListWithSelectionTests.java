@@ -5,6 +5,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -120,4 +122,16 @@ public class ArrayQListWithSelectionTests {
 		qList.select(0);
 		assertEquals(2, qList.getSelected().intValue());
 	}	
+
+	@Test
+	@DisplayName("Checks spliterator: the spliterator is sized and can be split")
+	public void testSpliterator() {
+		Spliterator<Integer> spliterator = this.qList.spliterator();
+		assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+		assertEquals(this.initList.size(), spliterator.getExactSizeIfKnown());
+		Spliterator<Integer> prefix = spliterator.trySplit();
+		assertNotNull(prefix);
+		assertEquals(this.initList.size(), prefix.getExactSizeIfKnown() + spliterator.getExactSizeIfKnown());
+		assertEquals(this.initList, StreamSupport.stream(this.qList.spliterator(), true).toList());
+	}
 }
@@ -0,0 +1,128 @@
+package util.adts;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IndexedTreeListTests {
+
+	private List<Integer> initList;
+	private IndexedTreeList<Integer> list;
+
+	@BeforeEach
+	void setup() {
+		this.initList = new ArrayList<>(Arrays.asList(2, 3, 7, 10, 2, 45));
+		this.list = new IndexedTreeList<>(this.initList);
+	}
+
+	@Test
+	@DisplayName("Checks get, set, add and remove by position against an ArrayList, with random changes")
+	public void testRandomChanges() {
+		Random random = new Random(58180);
+		List<Integer> expected = new ArrayList<>();
+		IndexedTreeList<Integer> tree = new IndexedTreeList<>();
+		for (int i = 0; i < 20_000; i++) {
+			int operation = random.nextInt(10);
+			if (operation < 5 || expected.isEmpty()) {
+				int index = random.nextInt(expected.size() + 1);
+				expected.add(index, i);
+				tree.add(index, i);
+			} else if (operation < 8) {
+				int index = random.nextInt(expected.size());
+				assertEquals(expected.remove(index), tree.remove(index));
+			} else if (operation < 9) {
+				int index = random.nextInt(expected.size());
+				assertEquals(expected.set(index, -i), tree.set(index, -i));
+			} else {
+				int from = random.nextInt(expected.size());
+				int to = random.nextInt(expected.size());
+				expected.add(to, expected.remove(from));
+				tree.move(from, to);
+			}
+			assertEquals(expected.size(), tree.size());
+		}
+		for (int i = 0; i < expected.size(); i++)
+			assertEquals(expected.get(i), tree.get(i));
+		assertIterableEquals(expected, tree);
+	}
+
+	@Test
+	@DisplayName("Checks that the node of an element gives its position after random changes around it")
+	public void testNodes() {
+		Random random = new Random(58188);
+		IndexedTreeList<Integer> tree = new IndexedTreeList<>();
+		List<IndexedTreeList.Node<Integer>> nodes = new ArrayList<>();
+		for (int i = 0; i < 5_000; i++) {
+			if (random.nextInt(3) < 2 || tree.isEmpty())
+				nodes.add(tree.addNode(random.nextInt(tree.size() + 1), i));
+			else
+				tree.remove(random.nextInt(tree.size()));
+		}
+		int removed = 0;
+		for (IndexedTreeList.Node<Integer> node : nodes) {
+			int index = tree.indexOfNode(node);
+			if (index == -1)
+				removed++;
+			else
+				assertSame(node.getValue(), tree.get(index));
+		}
+		assertEquals(nodes.size() - tree.size(), removed);
+		IndexedTreeList.Node<Integer> node = tree.addNode(0, -1);
+		tree.clear();
+		assertEquals(-1, tree.indexOfNode(node));
+	}
+
+	@Test
+	@DisplayName("Checks the list iterator: going back and forth and changing the list through it")
+	public void testListIterator() {
+		ListIterator<Integer> it = this.list.listIterator(2);
+		assertEquals(7, it.next());
+		assertEquals(10, it.next());
+		assertEquals(10, it.previous());
+		it.remove();
+		assertEquals(7, it.previous());
+		it.set(8);
+		it.add(1);
+		assertEquals(3, it.nextIndex());
+		assertEquals(8, it.next());
+		assertEquals(2, it.next());
+		assertEquals(45, it.next());
+		assertFalse(it.hasNext());
+		assertEquals(List.of(2, 3, 1, 8, 2, 45), this.list);
+	}
+
+	@Test
+	@DisplayName("Checks that changing the list outside of an iterator makes it fail")
+	public void testComodification() {
+		Iterator<Integer> it = this.list.iterator();
+		it.next();
+		this.list.remove(0);
+		assertThrows(ConcurrentModificationException.class, it::next);
+		assertThrows(IndexOutOfBoundsException.class, () -> this.list.get(this.list.size()));
+		assertThrows(IndexOutOfBoundsException.class, () -> this.list.add(this.list.size() + 1, 0));
+	}
+
+	@Test
+	@DisplayName("Checks the TreeQListWithSelection: removing the selected element and the selection")
+	public void testQListWithSelection() {
+		TreeQListWithSelection<Integer> qList = new TreeQListWithSelection<>(this.initList);
+		assertIterableEquals(this.initList, qList);
+		qList.select(3);
+		qList.remove();
+		assertFalse(qList.someSelected());
+		assertEquals(45, qList.get(4));
+		qList.add(9);
+		assertEquals(9, qList.getSelected());
+		assertEquals(6, qList.size());
+	}
+}
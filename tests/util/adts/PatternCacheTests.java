@@ -0,0 +1,67 @@
+package util.adts;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PatternCacheTests {
+
+	private PatternCache cache;
+	private int capacity;
+
+	@BeforeEach
+	void setup() {
+		this.cache = PatternCache.INSTANCE;
+		this.capacity = this.cache.getCapacity();
+		this.cache.setCapacity(3);
+		this.cache.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		// a cache e partilhada pelo resto da aplicacao
+		this.cache.setCapacity(this.capacity);
+		this.cache.clear();
+	}
+
+	@Test
+	@DisplayName("Checks compile: the same regular expression is only compiled once")
+	public void testCompile() {
+		Pattern first = this.cache.compile(".*Fado.*");
+		Pattern second = this.cache.compile(".*Fado.*");
+		assertSame(first, second);
+		assertEquals(".*Fado.*", first.pattern());
+		assertEquals(1, this.cache.getMisses());
+		assertEquals(1, this.cache.getHits());
+	}
+
+	@Test
+	@DisplayName("Checks eviction: the least recently used pattern is the one evicted")
+	public void testEviction() {
+		Pattern a = this.cache.compile("a");
+		this.cache.compile("b");
+		this.cache.compile("c");
+		this.cache.compile("a");
+		this.cache.compile("d");
+		assertEquals(3, this.cache.size());
+		assertSame(a, this.cache.compile("a"));
+		this.cache.compile("b");
+		assertEquals(5, this.cache.getMisses());
+	}
+
+	@Test
+	@DisplayName("Checks setCapacity: shrinking the cache evicts the exceeding patterns")
+	public void testSetCapacity() {
+		this.cache.compile("a");
+		this.cache.compile("b");
+		this.cache.compile("c");
+		this.cache.setCapacity(1);
+		assertEquals(1, this.cache.getCapacity());
+		assertEquals(1, this.cache.size());
+	}
+}
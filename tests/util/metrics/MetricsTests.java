@@ -0,0 +1,78 @@
+package util.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MetricsTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	@DisplayName("Checks that the same metric is returned for the same name and label")
+	public void testRegistry() {
+		Counter counter = Metrics.INSTANCE.counter("test_registry_total", "Test");
+		assertSame(counter, Metrics.INSTANCE.counter("test_registry_total", "Test"));
+		assertNotSame(Metrics.INSTANCE.timer("test_registry_seconds", "Test", "kind", "a"),
+				Metrics.INSTANCE.timer("test_registry_seconds", "Test", "kind", "b"));
+		assertThrows(IllegalArgumentException.class, () -> Metrics.INSTANCE.timer("test_registry_total", "Test"));
+		counter.inc();
+		counter.add(4);
+		assertEquals(5, counter.get());
+	}
+
+	@Test
+	@DisplayName("Checks the buckets, the sum, the greatest value and the percentiles of a histogram")
+	public void testHistogram() {
+		Histogram histogram = Metrics.INSTANCE.histogram("test_histogram", "Test");
+		for (int i = 1; i <= 100; i++)
+			histogram.record(i);
+		histogram.record(0);
+		assertEquals(101, histogram.getCount());
+		assertEquals(5050, histogram.getSum());
+		assertEquals(100, histogram.getMax());
+		assertEquals(1, histogram.getBucketCount(0));
+		assertEquals(1, histogram.getBucketCount(1));
+		assertEquals(2, histogram.getBucketCount(2));
+		assertEquals(37, histogram.getBucketCount(7));
+		// 50 esta no bucket de 32 a 63, 99 no de 64 a 127, limitado pelo maximo
+		assertEquals(63, histogram.getPercentile(0.5));
+		assertEquals(100, histogram.getPercentile(0.99));
+	}
+
+	@Test
+	@DisplayName("Checks the export of counters and timers in the text format of Prometheus")
+	public void testPrometheus() {
+		Metrics.INSTANCE.counter("test_prometheus_total", "Test counter").add(3);
+		Timer timer = Metrics.INSTANCE.timer("test_prometheus_seconds", "Test timer", "kind", "x");
+		timer.record(1_000);
+		String text = Metrics.INSTANCE.toPrometheus();
+		assertTrue(text.contains("# TYPE test_prometheus_total counter\ntest_prometheus_total 3\n"));
+		assertTrue(text.contains("# TYPE test_prometheus_seconds histogram\n"));
+		assertTrue(text.contains("test_prometheus_seconds_bucket{kind=\"x\",le=\"0.000001023\"} 1\n"));
+		assertTrue(text.contains("test_prometheus_seconds_bucket{kind=\"x\",le=\"+Inf\"} 1\n"));
+		assertTrue(text.contains("test_prometheus_seconds_sum{kind=\"x\"} 0.000001000\n"));
+		assertTrue(text.contains("test_prometheus_seconds_count{kind=\"x\"} 1\n"));
+	}
+
+	@Test
+	@DisplayName("Checks that the metrics are exported as JSON or Prometheus according to the name of the file")
+	public void testExport() throws IOException {
+		Metrics.INSTANCE.counter("test_export_total", "Test").inc();
+		Path json = this.directory.resolve("metrics.json");
+		Path prom = this.directory.resolve("metrics.prom");
+		Metrics.INSTANCE.export(json);
+		Metrics.INSTANCE.export(prom);
+		String jsonText = Files.readString(json);
+		assertTrue(jsonText.startsWith("{\"metrics\":["));
+		assertTrue(jsonText.contains("{\"name\":\"test_export_total\",\"type\":\"counter\",\"value\":1}"));
+		assertTrue(Files.readString(prom).contains("test_export_total 1\n"));
+	}
+}
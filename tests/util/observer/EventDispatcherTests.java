@@ -0,0 +1,138 @@
+package util.observer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EventDispatcherTests {
+
+	private interface KeyedEvent extends Event {
+		int key();
+		int value();
+	}
+
+	private record TestEvent(int key, int value) implements KeyedEvent {}
+
+	private record OtherEvent(int key, int value) implements KeyedEvent {}
+
+	private static class TestSubject extends AbsSubject<KeyedEvent> {}
+
+	/**
+	 * Listener that blocks on the first event until released, so the next events
+	 * pile up in the queue.
+	 */
+	private static class BlockingListener implements Listener<KeyedEvent> {
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final List<Integer> values = new ArrayList<>();
+		private final List<Integer> batchSizes = new ArrayList<>();
+
+		@Override
+		public void processEvent(KeyedEvent e) {
+			values.add(e.value());
+		}
+
+		@Override
+		public void processEvents(List<KeyedEvent> events) {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			batchSizes.add(events.size());
+			Listener.super.processEvents(events);
+		}
+	}
+
+	private final TestSubject subject = new TestSubject();
+	private final BlockingListener listener = new BlockingListener();
+	private EventDispatcher<KeyedEvent> dispatcher;
+
+	@AfterEach
+	void tearDown() {
+		this.dispatcher.close();
+	}
+
+	private void emitAll(EventDispatcher.Policy policy, int capacity, int... keys) throws InterruptedException {
+		List<KeyedEvent> events = new ArrayList<>();
+		for (int i = 0; i < keys.length; i++)
+			events.add(new TestEvent(keys[i], i));
+		emitAll(policy, capacity, events);
+	}
+
+	private void emitAll(EventDispatcher.Policy policy, int capacity, List<KeyedEvent> events) throws InterruptedException {
+		this.dispatcher = new EventDispatcher<>(capacity, 100, policy, KeyedEvent::key);
+		this.subject.setDispatcher(this.dispatcher);
+		this.subject.registerListener(this.listener);
+		this.subject.emitEvent(new TestEvent(-1, -1));
+		this.listener.started.await();
+		for (KeyedEvent e : events)
+			this.subject.emitEvent(e);
+		this.listener.release.countDown();
+		this.dispatcher.flush();
+	}
+
+	@Test
+	@DisplayName("Checks BLOCK: every event is delivered, in order, in batches")
+	public void testBlock() throws InterruptedException {
+		emitAll(EventDispatcher.Policy.BLOCK, 10, 1, 2, 3, 4);
+		assertEquals(List.of(-1, 0, 1, 2, 3), this.listener.values);
+		assertEquals(List.of(1, 4), this.listener.batchSizes);
+		EventDispatcher.ListenerStats stats = this.dispatcher.getStats().get(this.listener);
+		assertEquals(5, stats.events());
+		assertEquals(2, stats.batches());
+		assertTrue(stats.maxLatencyNanos() >= stats.meanLatencyNanos());
+	}
+
+	@Test
+	@DisplayName("Checks DROP_OLDEST: the oldest queued events are discarded when the queue is full")
+	public void testDropOldest() throws InterruptedException {
+		emitAll(EventDispatcher.Policy.DROP_OLDEST, 2, 1, 2, 3, 4);
+		assertEquals(List.of(-1, 2, 3), this.listener.values);
+		assertEquals(2, this.dispatcher.getDropped());
+	}
+
+	@Test
+	@DisplayName("Checks COALESCE: a queued event is replaced, in its position, by a newer one with the same key")
+	public void testCoalesce() throws InterruptedException {
+		emitAll(EventDispatcher.Policy.COALESCE, 10, 1, 2, 1, 1, 3);
+		assertEquals(List.of(-1, 3, 1, 4), this.listener.values);
+		assertEquals(2, this.dispatcher.getCoalesced());
+	}
+
+	@Test
+	@DisplayName("Checks COALESCE: events of different classes with the same key are not coalesced")
+	public void testCoalesceOtherClass() throws InterruptedException {
+		// como uma musica adicionada e depois classificada
+		emitAll(EventDispatcher.Policy.COALESCE, 10,
+				List.of(new TestEvent(1, 0), new OtherEvent(1, 1), new OtherEvent(1, 2), new TestEvent(1, 3)));
+		assertEquals(List.of(-1, 3, 2), this.listener.values);
+		assertEquals(2, this.dispatcher.getCoalesced());
+	}
+
+	@Test
+	@DisplayName("Checks close: an interrupted close returns with the interrupt flag set")
+	public void testCloseInterrupted() throws InterruptedException {
+		emitAll(EventDispatcher.Policy.BLOCK, 10);
+		Thread.currentThread().interrupt();
+		this.dispatcher.close();
+		assertTrue(Thread.interrupted());
+	}
+
+	@Test
+	@DisplayName("Checks close: the queued events are delivered and no more events are accepted")
+	public void testClose() throws InterruptedException {
+		emitAll(EventDispatcher.Policy.BLOCK, 10);
+		this.subject.emitEvent(new TestEvent(0, 7));
+		this.dispatcher.close();
+		assertEquals(List.of(-1, 7), this.listener.values);
+		assertThrows(IllegalStateException.class, () -> this.subject.emitEvent(new TestEvent(0, 8)));
+	}
+}
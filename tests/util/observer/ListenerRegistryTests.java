@@ -0,0 +1,129 @@
+package util.observer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ListenerRegistryTests {
+
+	private record TestEvent() implements Event {}
+
+	private static class TestSubject extends AbsSubject<TestEvent> {}
+
+	private static class CountingListener implements Listener<TestEvent> {
+		private final AtomicLong received = new AtomicLong();
+
+		@Override
+		public void processEvent(TestEvent e) {
+			received.incrementAndGet();
+		}
+	}
+
+	private ListenerRegistry<TestEvent> registry;
+
+	@BeforeEach
+	void setup() {
+		this.registry = new ListenerRegistry<>();
+	}
+
+	@Test
+	@DisplayName("Checks snapshot: listeners are kept in registration order and registered once")
+	public void testSnapshotOrder() {
+		CountingListener a = new CountingListener();
+		CountingListener b = new CountingListener();
+		CountingListener c = new CountingListener();
+		assertTrue(this.registry.register(a));
+		assertTrue(this.registry.register(b));
+		assertTrue(this.registry.register(c));
+		assertFalse(this.registry.register(b));
+		assertEquals(List.of(a, b, c), this.registry.snapshot());
+		assertTrue(this.registry.unregister(b));
+		assertFalse(this.registry.unregister(b));
+		assertEquals(List.of(a, c), this.registry.snapshot());
+		assertEquals(2, this.registry.size());
+	}
+
+	@Test
+	@DisplayName("Checks snapshot: the same snapshot is returned while the registry does not change")
+	public void testSnapshotReused() {
+		this.registry.register(new CountingListener());
+		List<Listener<TestEvent>> first = this.registry.snapshot();
+		assertSame(first, this.registry.snapshot());
+		this.registry.register(new CountingListener());
+		List<Listener<TestEvent>> second = this.registry.snapshot();
+		assertNotSame(first, second);
+		assertEquals(1, first.size());
+		assertThrows(UnsupportedOperationException.class, () -> second.add(new CountingListener()));
+	}
+
+	@Test
+	@DisplayName("Checks a listener can unregister itself while an event is being emitted")
+	public void testUnregisterWhileEmitting() {
+		TestSubject subject = new TestSubject();
+		CountingListener other = new CountingListener();
+		subject.registerListener(new Listener<>() {
+			@Override
+			public void processEvent(TestEvent e) {
+				subject.unregisterListener(this);
+			}
+		});
+		subject.registerListener(other);
+		subject.emitEvent(new TestEvent());
+		subject.emitEvent(new TestEvent());
+		assertEquals(2, other.received.get());
+	}
+
+	@Test
+	@DisplayName("Checks register, unregister and emit from many threads at the same time")
+	public void testConcurrentStress() throws InterruptedException {
+		TestSubject subject = new TestSubject();
+		CountingListener permanent = new CountingListener();
+		subject.registerListener(permanent);
+		int threads = 8;
+		int iterations = 5_000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+		List<CountingListener> survivors = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			CountingListener survivor = new CountingListener();
+			survivors.add(survivor);
+			executor.execute(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < iterations; i++) {
+						CountingListener temporary = new CountingListener();
+						subject.registerListener(temporary);
+						subject.emitEvent(new TestEvent());
+						subject.unregisterListener(temporary);
+						assertTrue(temporary.received.get() >= 1);
+					}
+					subject.registerListener(survivor);
+				} catch (Throwable e) {
+					failures.add(e);
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+		assertTrue(failures.isEmpty(), () -> "Failures: " + failures);
+		assertEquals((long) threads * iterations, permanent.received.get());
+		subject.emitEvent(new TestEvent());
+		// os sobreviventes podem ter recebido eventos de outras threads
+		for (CountingListener survivor : survivors)
+			assertTrue(survivor.received.get() >= 1);
+		assertEquals((long) threads * iterations + 1, permanent.received.get());
+	}
+}